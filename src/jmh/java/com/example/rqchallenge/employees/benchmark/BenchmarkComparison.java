@@ -0,0 +1,144 @@
+package com.example.rqchallenge.employees.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares JMH JSON results with a stored baseline and exits with status 1 when a benchmark regressed:
+ * its score got worse by more than the threshold, as a fraction, beyond the error margins of both runs,
+ * or it allocates more per operation by more than the threshold. Benchmarks without a baseline are listed
+ * but never fail the comparison.
+ * <p>
+ * Usage: {@code BenchmarkComparison <baseline.json> <results.json> [threshold, default 0.10]}
+ */
+public final class BenchmarkComparison {
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+    // Allocation differences below this many bytes per operation are noise from the harness itself
+    private static final double ALLOCATION_SLACK = 64;
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <results.json> [threshold]");
+            System.exit(2);
+        }
+        File baselineFile = new File(args[0]);
+        File resultsFile = new File(args[1]);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+        if (!baselineFile.isFile()) {
+            System.err.println("No baseline at " + baselineFile + ", record one with the jmhBaseline task");
+            System.exit(2);
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, Result> baseline = read(objectMapper.readTree(baselineFile));
+        Map<String, Result> results = read(objectMapper.readTree(resultsFile));
+
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Result> entry : results.entrySet()) {
+            Result current = entry.getValue();
+            Result previous = baseline.get(entry.getKey());
+            if (previous == null) {
+                System.out.printf("NEW        %s: %.3f %s%n", entry.getKey(), current.score, current.unit);
+                continue;
+            }
+            List<String> problems = compare(previous, current, threshold);
+            System.out.printf("%-10s %s: %.3f -> %.3f %s (%+.1f%%)%s%n", problems.isEmpty() ? "OK" : "REGRESSED",
+                    entry.getKey(), previous.score, current.score, current.unit,
+                    (current.score / previous.score - 1) * 100, allocation(previous, current));
+            problems.forEach(problem -> regressions.add(entry.getKey() + ": " + problem));
+        }
+        if (!regressions.isEmpty()) {
+            System.out.println();
+            System.out.println(regressions.size() + " regression(s) beyond " + Math.round(threshold * 100) + "%:");
+            regressions.forEach(regression -> System.out.println("  " + regression));
+            System.exit(1);
+        }
+    }
+
+    private static List<String> compare(Result previous, Result current, double threshold) {
+        List<String> problems = new ArrayList<>();
+        // Time per operation gets worse as it grows, throughput as it shrinks
+        double worse = current.higherIsBetter() ? previous.score - current.score : current.score - previous.score;
+        if (worse > previous.score * threshold && worse > previous.error + current.error) {
+            problems.add(String.format("score %.3f -> %.3f %s", previous.score, current.score, current.unit));
+        }
+        if (previous.allocated != null && current.allocated != null
+                && current.allocated - previous.allocated > Math.max(previous.allocated * threshold, ALLOCATION_SLACK)) {
+            problems.add(String.format("allocation %.0f -> %.0f B/op", previous.allocated, current.allocated));
+        }
+        return problems;
+    }
+
+    private static String allocation(Result previous, Result current) {
+        if (previous.allocated == null || current.allocated == null) {
+            return "";
+        }
+        return String.format(", %.0f -> %.0f B/op", previous.allocated, current.allocated);
+    }
+
+    // Keyed by benchmark and parameters, e.g. "...NameSearchBenchmark.index {query=orhal, size=1000}"
+    private static Map<String, Result> read(JsonNode runs) {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : runs) {
+            Map<String, String> params = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = run.path("params").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                params.put(field.getKey(), field.getValue().asText());
+            }
+            String key = run.path("benchmark").asText() + (params.isEmpty() ? "" : " " + params);
+            JsonNode primary = run.path("primaryMetric");
+            results.put(key, new Result(run.path("mode").asText(), primary.path("score").asDouble(),
+                    error(primary.path("scoreError")), primary.path("scoreUnit").asText(), allocated(run.path("secondaryMetrics"))));
+        }
+        return results;
+    }
+
+    private static double error(JsonNode scoreError) {
+        // JMH writes "NaN" when there were too few iterations to compute an error
+        return scoreError.isNumber() ? scoreError.asDouble() : 0;
+    }
+
+    private static Double allocated(JsonNode secondaryMetrics) {
+        Iterator<Map.Entry<String, JsonNode>> metrics = secondaryMetrics.fields();
+        while (metrics.hasNext()) {
+            Map.Entry<String, JsonNode> metric = metrics.next();
+            // JMH before 1.37 prefixes profiler metrics with a middle dot
+            if (metric.getKey().replace("·", "").equals(ALLOCATION)) {
+                return metric.getValue().path("score").asDouble();
+            }
+        }
+        return null;
+    }
+
+    private static final class Result {
+        final String mode;
+        final double score;
+        final double error;
+        final String unit;
+        final Double allocated;
+
+        Result(String mode, double score, double error, String unit, Double allocated) {
+            this.mode = mode;
+            this.score = score;
+            this.error = error;
+            this.unit = unit;
+            this.allocated = allocated;
+        }
+
+        boolean higherIsBetter() {
+            return "thrpt".equals(mode);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.rqchallenge.employees.benchmark;
+
+import com.example.rqchallenge.employees.dto.Employee;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic employee lists shared by the benchmarks, so results at the same size stay comparable
+ * across benchmarks and runs. Names are built from syllables to give name search realistic word overlap.
+ */
+public final class EmployeeFixtures {
+    private static final String[] SYLLABLES = {"an", "ber", "cal", "dan", "el", "fra", "gor", "hal", "is", "jen",
+            "kor", "lin", "mar", "nes", "or", "pet", "quin", "ros", "sam", "tor", "ul", "val", "wes", "xan", "yor", "zel"};
+
+    private EmployeeFixtures() {
+    }
+
+    public static List<Employee> employees(int size) {
+        Random random = new Random(7);
+        List<Employee> employees = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            employees.add(Employee.builder()
+                    .id((long) i + 1)
+                    .employee_name(word(random, 2 + random.nextInt(2)) + " " + word(random, 3))
+                    .employee_salary(30_000 + random.nextInt(500_000))
+                    .employee_age(20 + random.nextInt(45))
+                    .profile_image("")
+                    .build());
+        }
+        return employees;
+    }
+
+    private static String word(Random random, int syllables) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
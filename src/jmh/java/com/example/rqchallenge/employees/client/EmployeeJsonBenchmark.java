@@ -0,0 +1,91 @@
+package com.example.rqchallenge.employees.client;
+
+import com.example.rqchallenge.employees.benchmark.EmployeeFixtures;
+import com.example.rqchallenge.employees.dto.Employee;
+import com.example.rqchallenge.employees.dto.EmployeesResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON of the upstream list envelope and of a single employee, with the object mapper settings Spring Boot
+ * applies. The list is read both by binding the whole body and incrementally in 8 KB chunks, the way the
+ * WebClient client receives it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeJsonBenchmark {
+    private static final int CHUNK_SIZE = 8192;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private EmployeesResponse response;
+    private byte[] responseJson;
+    private byte[][] responseChunks;
+    private Employee employee;
+    private byte[] employeeJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<Employee> employees = EmployeeFixtures.employees(size);
+        response = EmployeesResponse.builder().status("success").data(employees).build();
+        responseJson = objectMapper.writeValueAsBytes(response);
+        responseChunks = new byte[(responseJson.length + CHUNK_SIZE - 1) / CHUNK_SIZE][];
+        for (int i = 0; i < responseChunks.length; i++) {
+            responseChunks[i] = Arrays.copyOfRange(responseJson, i * CHUNK_SIZE, Math.min(responseJson.length, (i + 1) * CHUNK_SIZE));
+        }
+        employee = employees.get(0);
+        employeeJson = objectMapper.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public EmployeesResponse deserializeList() throws IOException {
+        return objectMapper.readValue(responseJson, EmployeesResponse.class);
+    }
+
+    @Benchmark
+    public List<Employee> parseListInChunks() throws IOException {
+        EmployeeListParser parser = new EmployeeListParser(objectMapper);
+        for (byte[] chunk : responseChunks) {
+            parser.feed(chunk);
+        }
+        return parser.finish();
+    }
+
+    @Benchmark
+    public byte[] serializeEmployee() throws IOException {
+        return objectMapper.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public Employee deserializeEmployee() throws IOException {
+        return objectMapper.readValue(employeeJson, Employee.class);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.rqchallenge.employees.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a logging thread pays per line with the file appender pattern of logback-spring.xml: written on the
+ * calling thread (sync), handed to the async appender that drops when its queue is full (async) or waits
+ * for room (async-blocking), and a disabled DEBUG line as request paths now log. Several threads log at
+ * once, so the synchronous appender's lock is contended the way it is under load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class LoggingBenchmark {
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss.SSS} [%thread] %-5level %logger{36} - %msg%n";
+
+    @Param({"sync", "async", "async-blocking"})
+    private String mode;
+
+    private LoggerContext context;
+    private Logger logger;
+    private MeteredAsyncAppender async;
+    private Path file;
+    private Map<String, Object> employeeInput;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("logging-benchmark", ".log");
+        context = new LoggerContext();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+        fileAppender.setContext(context);
+        fileAppender.setFile(file.toString());
+        fileAppender.setEncoder(encoder);
+        fileAppender.start();
+        Appender<ILoggingEvent> appender = fileAppender;
+        if (!mode.equals("sync")) {
+            async = new MeteredAsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(mode.equals("async"));
+            async.addAppender(fileAppender);
+            async.start();
+            appender = async;
+        }
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+        logger = context.getLogger(LoggingBenchmark.class);
+
+        employeeInput = new LinkedHashMap<>();
+        employeeInput.put("name", "Jim Halpert");
+        employeeInput.put("salary", 150000);
+        employeeInput.put("age", 34);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (async != null) {
+            System.out.println("Dropped " + async.getDroppedCount() + " events");
+        }
+        context.stop();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void infoWithMap() {
+        logger.info("Creating new employee with input: {}", employeeInput);
+    }
+
+    @Benchmark
+    public void disabledDebug() {
+        logger.debug("Creating employee through the API fields={}", employeeInput.keySet());
+    }
+}
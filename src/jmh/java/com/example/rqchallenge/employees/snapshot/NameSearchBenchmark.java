@@ -0,0 +1,67 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.benchmark.EmployeeFixtures;
+import com.example.rqchallenge.employees.dto.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Name search over the index against a case-insensitive scan of every name, per kind of query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NameSearchBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    // A name prefix, a word prefix, a substring, a one word typo and a typo in a full name
+    @Param({"jenmar", "ulvalwes", "orhal", "hlaberdan", "jenmar ulvlawes"})
+    private String query;
+
+    private List<Employee> employees;
+    private EmployeeColumns columns;
+    private NameSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        employees = EmployeeFixtures.employees(size);
+        columns = EmployeeColumns.of(employees);
+        index = NameSearchIndex.of(columns);
+    }
+
+    @Benchmark
+    public int[] index() {
+        return index.search(query, 20, columns);
+    }
+
+    @Benchmark
+    public List<Employee> scan() {
+        String lowerCase = query.toLowerCase(Locale.ROOT);
+        List<Employee> matches = new ArrayList<>();
+        for (Employee employee : employees) {
+            if (employee.getEmployee_name().toLowerCase(Locale.ROOT).contains(lowerCase) && matches.size() < 20) {
+                matches.add(employee);
+            }
+        }
+        return matches;
+    }
+}
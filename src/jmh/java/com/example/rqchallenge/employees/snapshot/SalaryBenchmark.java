@@ -0,0 +1,83 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.benchmark.EmployeeFixtures;
+import com.example.rqchallenge.employees.dto.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Highest salary: the original scan of the employee list per request against building the snapshot once
+ * per fetch and reading its precomputed value, plus the cost of patching the aggregates and the whole
+ * snapshot for one write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SalaryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private List<Employee> employees;
+    private EmployeeSnapshot snapshot;
+    private EmployeeAggregates aggregates;
+    private EmployeeColumns created;
+    private Employee hire;
+
+    @Setup
+    public void setUp() {
+        employees = EmployeeFixtures.employees(size);
+        snapshot = EmployeeSnapshot.of(employees);
+        EmployeeColumns columns = EmployeeColumns.of(employees);
+        aggregates = EmployeeAggregates.of(columns);
+        hire = Employee.builder().id((long) size + 1).employee_name("New Hire")
+                .employee_salary(250_000).employee_age(30).build();
+        created = columns.with(List.of(hire));
+        // The first write builds the aggregates that every later one patches
+        snapshot.withEmployee(hire);
+    }
+
+    @Benchmark
+    public int scanMax() {
+        int maxSalary = 0;
+        for (Employee employee : employees) {
+            maxSalary = Math.max(maxSalary, employee.getEmployee_salary());
+        }
+        return maxSalary;
+    }
+
+    @Benchmark
+    public EmployeeSnapshot buildSnapshot() {
+        return EmployeeSnapshot.of(employees);
+    }
+
+    @Benchmark
+    public int snapshotRead() {
+        return snapshot.getHighestSalary();
+    }
+
+    @Benchmark
+    public EmployeeAggregates aggregatesWrite() {
+        return aggregates.withAdded(size, created);
+    }
+
+    @Benchmark
+    public EmployeeSnapshot snapshotWrite() {
+        return snapshot.withEmployee(hire);
+    }
+}
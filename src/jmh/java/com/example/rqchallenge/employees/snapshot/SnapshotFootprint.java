@@ -0,0 +1,68 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.benchmark.EmployeeFixtures;
+import com.example.rqchallenge.employees.dto.Employee;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Retained heap of one employee list held three ways: as the list of {@link Employee}s the client returns,
+ * as that list with the id and name maps a snapshot used to keep next to it, and as the columns of an
+ * {@link EmployeeSnapshot}; the last also once stats and search have built the aggregates and name index
+ * the snapshot keeps from then on. Measured by walking the object graph, so it is exact for this JVM's layout
+ * (compressed oops or not) and needs no GC or heap dump.
+ * <p>
+ * Usage: {@code SnapshotFootprint [size...]}, default 1000 100000 1000000
+ */
+public final class SnapshotFootprint {
+
+    private static final EmployeeStatsQuery STATS = EmployeeStatsQuery.builder()
+            .percentiles(List.of(50.0, 90.0))
+            .salaryBucketWidth(10_000)
+            .ageBucketWidth(10)
+            .topEarners(10)
+            .build();
+
+    private SnapshotFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[]{1_000, 100_000, 1_000_000};
+        System.out.printf("%10s %16s %16s %16s %8s %20s%n", "employees", "list bytes", "list+maps bytes",
+                "columns bytes", "ratio", "after stats+search");
+        for (int size : sizes) {
+            List<Employee> employees = EmployeeFixtures.employees(size);
+            long list = GraphLayout.parseInstance(employees).totalSize();
+            long indexed = GraphLayout.parseInstance(employees, byId(employees), byName(employees)).totalSize();
+            EmployeeSnapshot snapshot = EmployeeSnapshot.of(employees);
+            long columns = GraphLayout.parseInstance(snapshot).totalSize();
+            snapshot.stats(STATS);
+            snapshot.search("jen", 20);
+            long used = GraphLayout.parseInstance(snapshot).totalSize();
+            System.out.printf("%10d %16d %16d %16d %7.1fx %20d%n", size, list, indexed, columns,
+                    (double) indexed / columns, used);
+        }
+    }
+
+    private static Map<Long, Employee> byId(List<Employee> employees) {
+        Map<Long, Employee> byId = new HashMap<>(employees.size() * 2);
+        employees.forEach(employee -> byId.put(employee.getId(), employee));
+        return byId;
+    }
+
+    private static Map<String, List<Employee>> byName(List<Employee> employees) {
+        Map<String, List<Employee>> byName = new HashMap<>(employees.size() * 2);
+        employees.forEach(employee ->
+                byName.computeIfAbsent(employee.getEmployee_name(), name -> new ArrayList<>(1)).add(employee));
+        byName.replaceAll((name, matches) -> Collections.unmodifiableList(matches));
+        return byName;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.benchmark.EmployeeFixtures;
+import com.example.rqchallenge.employees.dto.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Top ten selection: the original copy-and-sort with an {@code Integer} comparator against
+ * the bounded-heap selection over the snapshot's salary column.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TopEarnersBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private List<Employee> employees;
+    private int[] salaries;
+
+    @Setup
+    public void setUp() {
+        employees = EmployeeFixtures.employees(size);
+        salaries = new int[size];
+        for (int i = 0; i < size; i++) {
+            salaries[i] = employees.get(i).getEmployee_salary();
+        }
+    }
+
+    @Benchmark
+    public List<String> sortAndCut() {
+        // The list is copied as sorting the shared cached list in place is what this replaces
+        List<Employee> sorted = new ArrayList<>(employees);
+        sorted.sort((e1, e2) -> e2.getEmployee_salary() - e1.getEmployee_salary());
+        List<Employee> topEarners = new ArrayList<>();
+        int tenthRankedSalary = 0;
+        for (int i = 0; i < sorted.size(); i++) {
+            if (i == 9) {
+                tenthRankedSalary = sorted.get(i).getEmployee_salary();
+            }
+            if (i > 9 && sorted.get(i).getEmployee_salary() < tenthRankedSalary) {
+                break;
+            }
+            topEarners.add(sorted.get(i));
+        }
+        return topEarners.stream().map(Employee::getEmployee_name).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<String> boundedHeapSelect() {
+        int[] positions = TopEarnersSelector.select(salaries, 10);
+        List<String> names = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            names.add(employees.get(position).getEmployee_name());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.rqchallenge.loadtest;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives every endpoint of the employee API against {@link StubEmployeeApi} at a fixed rate and reports latency
+ * percentiles per endpoint. Run with {@code ./gradlew loadTest}; {@code -Ploadtest.rate}, {@code -Ploadtest.warmup},
+ * {@code -Ploadtest.duration}, {@code -Ploadtest.scenarios} (comma separated names) and the
+ * {@code -Ploadtest.stub.*} settings shape the run, and any {@code -Pemployees.*} or {@code -Presilience4j.*}
+ * property overrides the application's own.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(locations="classpath:application-test.properties")
+class EmployeeApiLoadTest {
+    private static final Logger log = LoggerFactory.getLogger(EmployeeApiLoadTest.class);
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private static StubEmployeeApi stub;
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void upstream(DynamicPropertyRegistry registry) {
+        StubEmployeeApi.Settings settings = StubEmployeeApi.Settings.fromSystemProperties();
+        log.info("Starting stub upstream: {}", settings);
+        stub = StubEmployeeApi.start(settings);
+        registry.add("dummy.api.url", stub::baseUrl);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        if (stub != null) {
+            stub.close();
+        }
+    }
+
+    @Test
+    void testEmployeeApiUnderLoad() throws IOException {
+        // Arrange
+        String base = "http://localhost:" + port + "/v1/employees";
+        int employees = stub.size();
+        List<String> only = Arrays.asList(LoadTestProperties.string("loadtest.scenarios", "").split(","));
+        OpenLoopLoadGenerator generator = new OpenLoopLoadGenerator();
+        Scenarios scenarios = new Scenarios(generator, only);
+        scenarios.add("list-page", 20, random -> get(base + "?limit=50&sort=-employee_salary&offset=" + random.nextInt(employees)));
+        scenarios.add("list-filtered", 5, random -> get(base + "?minSalary=100000&maxAge=40&limit=100&fields=id,employee_name"));
+        scenarios.add("list-all", 1, random -> get(base));
+        scenarios.add("list-ndjson", 1, random -> HttpRequest.newBuilder(URI.create(base + "?limit=1000"))
+                .header("Accept", "application/x-ndjson").timeout(TIMEOUT).build());
+        scenarios.add("by-id", 20, random -> get(base + "/" + (1 + random.nextInt(employees))));
+        scenarios.add("by-ids", 5, random -> get(base + "?ids=" + ids(random, employees, 20)));
+        scenarios.add("search", 15, random -> get(base + "/search/"
+                + StubEmployeeApi.SYLLABLES[random.nextInt(StubEmployeeApi.SYLLABLES.length)] + "?limit=20"));
+        scenarios.add("highest-salary", 5, random -> get(base + "/highestSalary"));
+        scenarios.add("top-ten-names", 5, random -> get(base + "/topTenHighestEarningEmployeeNames"));
+        scenarios.add("top-earners", 5, random -> get(base + "/topEarners?n=" + (1 + random.nextInt(100))));
+        scenarios.add("stats", 5, random -> get(base + "/stats"));
+        scenarios.add("create", 3, random -> send("POST", base, employee(random)));
+        scenarios.add("delete", 3, random -> send("DELETE", base + "/" + (1 + random.nextInt(employees)), null));
+        scenarios.add("batch-create", 1, random -> {
+            StringJoiner inputs = new StringJoiner(",", "[", "]");
+            for (int i = 0; i < 10; i++) {
+                inputs.add(employee(random));
+            }
+            return send("POST", base + "/batch", inputs.toString());
+        });
+        scenarios.add("batch-delete", 1, random -> send("DELETE", base + "/batch",
+                "[\"" + ids(random, employees, 10).replace(",", "\",\"") + "\"]"));
+
+        // Act
+        OpenLoopLoadGenerator.Report report = generator.run(LoadTestProperties.number("loadtest.rate", "200"),
+                LoadTestProperties.duration("loadtest.warmup", "10s"), LoadTestProperties.duration("loadtest.duration", "60s"));
+
+        // Assert
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        try (PrintStream out = new PrintStream(text, true, StandardCharsets.UTF_8)) {
+            out.println("Stub upstream: " + StubEmployeeApi.Settings.fromSystemProperties());
+            report.print(out);
+            out.println("Upstream calls: " + stub.calls());
+        }
+        System.out.print(text.toString(StandardCharsets.UTF_8));
+        Path reportFile = Path.of(LoadTestProperties.string("loadtest.report", "build/reports/loadtest/report.txt"));
+        Files.createDirectories(reportFile.toAbsolutePath().getParent());
+        Files.write(reportFile, text.toByteArray());
+        assertTrue(report.successes() > 0, "no request succeeded");
+    }
+
+    private static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).timeout(TIMEOUT).build();
+    }
+
+    private static HttpRequest send(String method, String uri, String json) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header("Content-Type", "application/json")
+                .method(method, json != null ? HttpRequest.BodyPublishers.ofString(json) : HttpRequest.BodyPublishers.noBody())
+                .timeout(TIMEOUT)
+                .build();
+    }
+
+    private static String employee(Random random) {
+        return "{\"name\":\"" + StubEmployeeApi.name(random) + "\",\"salary\":" + (30_000 + random.nextInt(500_000))
+                + ",\"age\":" + (20 + random.nextInt(45)) + "}";
+    }
+
+    private static String ids(Random random, int employees, int count) {
+        StringJoiner ids = new StringJoiner(",");
+        for (int i = 0; i < count; i++) {
+            ids.add(String.valueOf(1 + random.nextInt(employees)));
+        }
+        return ids.toString();
+    }
+
+    // Adds scenarios to the generator unless loadtest.scenarios names others
+    private static final class Scenarios {
+        private final OpenLoopLoadGenerator generator;
+        private final List<String> only;
+
+        Scenarios(OpenLoopLoadGenerator generator, List<String> only) {
+            this.generator = generator;
+            this.only = only.contains("") ? List.of() : only;
+        }
+
+        void add(String name, int weight, Function<Random, HttpRequest> request) {
+            if (only.isEmpty() || only.contains(name)) {
+                generator.scenario(name, weight, request);
+            }
+        }
+    }
+}
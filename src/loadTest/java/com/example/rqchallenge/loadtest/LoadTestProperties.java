@@ -0,0 +1,35 @@
+package com.example.rqchallenge.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+
+/**
+ * Reads the {@code loadtest.*} knobs from system properties; the loadTest Gradle task forwards them from
+ * {@code -Ploadtest.*} project properties.
+ */
+final class LoadTestProperties {
+
+    private LoadTestProperties() {
+    }
+
+    static Duration duration(String name, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(name, defaultValue));
+    }
+
+    static double fraction(String name, String defaultValue) {
+        double value = Double.parseDouble(System.getProperty(name, defaultValue));
+        if (value < 0 || value > 1) {
+            throw new IllegalArgumentException(name + " must be between 0 and 1");
+        }
+        return value;
+    }
+
+    static double number(String name, String defaultValue) {
+        return Double.parseDouble(System.getProperty(name, defaultValue));
+    }
+
+    static String string(String name, String defaultValue) {
+        return System.getProperty(name, defaultValue);
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.rqchallenge.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Sends requests at a fixed arrival rate, picking a scenario per request by weight, whether or not earlier
+ * requests have been answered. Latency is measured from when a request was due rather than when it went out,
+ * so a stalled server shows up as queueing in the percentiles instead of silently lowering the rate
+ * (coordinated omission). Requests due during the warmup are sent but not recorded.
+ */
+public class OpenLoopLoadGenerator {
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final List<Scenario> scenarios = new ArrayList<>();
+    private final Random random = new Random(42);
+    private int totalWeight;
+
+    /**
+     * Adds a scenario picked with the given relative weight; the request factory gets a random source that is
+     * only used from the sending thread.
+     */
+    public OpenLoopLoadGenerator scenario(String name, int weight, Function<Random, HttpRequest> request) {
+        if (weight > 0) {
+            scenarios.add(new Scenario(name, weight, request));
+            totalWeight += weight;
+        }
+        return this;
+    }
+
+    public Report run(double requestsPerSecond, Duration warmup, Duration duration) {
+        if (scenarios.isEmpty()) {
+            throw new IllegalStateException("no scenarios to run");
+        }
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        Phaser inFlight = new Phaser(1);
+        for (long due = start; due < end; due += interval) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(pick(), due, due >= measureFrom, inFlight);
+        }
+        inFlight.arriveAndAwaitAdvance();
+        return new Report(scenarios, requestsPerSecond, duration);
+    }
+
+    private Scenario pick() {
+        int roll = random.nextInt(totalWeight);
+        for (Scenario scenario : scenarios) {
+            roll -= scenario.weight;
+            if (roll < 0) {
+                return scenario;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private void send(Scenario scenario, long due, boolean measured, Phaser inFlight) {
+        inFlight.register();
+        client.sendAsync(scenario.request.apply(random), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    if (measured) {
+                        scenario.record(System.nanoTime() - due, response, failure);
+                    }
+                    inFlight.arriveAndDeregister();
+                });
+    }
+
+    private static final class Scenario {
+        final String name;
+        final int weight;
+        final Function<Random, HttpRequest> request;
+        final Histogram latencies = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3);
+        final AtomicLong successes = new AtomicLong();
+        final AtomicLong clientErrors = new AtomicLong();
+        final AtomicLong serverErrors = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+
+        Scenario(String name, int weight, Function<Random, HttpRequest> request) {
+            this.name = name;
+            this.weight = weight;
+            this.request = request;
+        }
+
+        void record(long nanos, HttpResponse<?> response, Throwable failure) {
+            latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_LATENCY_MICROS));
+            if (failure != null) {
+                failures.incrementAndGet();
+            } else if (response.statusCode() >= 500) {
+                serverErrors.incrementAndGet();
+            } else if (response.statusCode() >= 400) {
+                clientErrors.incrementAndGet();
+            } else {
+                successes.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Latency percentiles in milliseconds and outcome counts per scenario and over all of them, for the
+     * measured part of a run.
+     */
+    public static final class Report {
+        private final List<Scenario> scenarios;
+        private final double targetRate;
+        private final Duration duration;
+
+        private Report(List<Scenario> scenarios, double targetRate, Duration duration) {
+            this.scenarios = scenarios;
+            this.targetRate = targetRate;
+            this.duration = duration;
+        }
+
+        public long successes() {
+            return scenarios.stream().mapToLong(scenario -> scenario.successes.get()).sum();
+        }
+
+        public void print(PrintStream out) {
+            out.printf("Target %.0f req/s for %ds%n", targetRate, duration.toSeconds());
+            out.printf("%-22s %8s %9s %8s %8s %8s %8s %8s %6s %6s %6s%n", "scenario", "count", "req/s",
+                    "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "2xx", "4xx", "5xx+");
+            Histogram total = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+            long successes = 0;
+            long clientErrors = 0;
+            long serverErrors = 0;
+            for (Scenario scenario : scenarios) {
+                row(out, scenario.name, scenario.latencies, scenario.successes.get(), scenario.clientErrors.get(),
+                        scenario.serverErrors.get() + scenario.failures.get());
+                total.add(scenario.latencies);
+                successes += scenario.successes.get();
+                clientErrors += scenario.clientErrors.get();
+                serverErrors += scenario.serverErrors.get() + scenario.failures.get();
+            }
+            row(out, "total", total, successes, clientErrors, serverErrors);
+        }
+
+        private void row(PrintStream out, String name, Histogram latencies, long successes, long clientErrors,
+                         long serverErrors) {
+            out.printf("%-22s %8d %9.1f %8.2f %8.2f %8.2f %8.2f %8.2f %6d %6d %6d%n", name,
+                    latencies.getTotalCount(), latencies.getTotalCount() / (duration.toMillis() / 1000.0),
+                    millis(latencies, 50), millis(latencies, 90), millis(latencies, 99), millis(latencies, 99.9),
+                    latencies.getMaxValue() / 1000.0, successes, clientErrors, serverErrors);
+        }
+
+        private static double millis(Histogram latencies, double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.rqchallenge.loadtest;
+
+import com.example.rqchallenge.employees.dto.Employee;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the dummy API on a local port. Every call is answered after the configured latency
+ * plus up to the configured jitter, without holding a thread meanwhile; a share of calls fail with a 500 or
+ * are refused with a 429 and a Retry-After, the rest are served from an in-memory dataset that creates and
+ * deletes change. Calls are counted per route so a run can show how many reached the upstream.
+ */
+public class StubEmployeeApi implements AutoCloseable {
+    static final String[] SYLLABLES = {"an", "ber", "cal", "dan", "el", "fra", "gor", "hal", "is", "jen",
+            "kor", "lin", "mar", "nes", "or", "pet", "quin", "ros", "sam", "tor", "ul", "val", "wes", "xan", "yor", "zel"};
+    private static final String BASE_PATH = "/api/v1";
+
+    private final Settings settings;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConcurrentSkipListMap<Long, Employee> employees = new ConcurrentSkipListMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final Map<String, AtomicLong> calls = new LinkedHashMap<>();
+    private final HttpServer server;
+    private final ExecutorService handlers = Executors.newCachedThreadPool();
+    private final ScheduledExecutorService delays = Executors.newScheduledThreadPool(2);
+    // The serialized list, rebuilt on the first read after a write
+    private volatile byte[] employeesBody;
+
+    private StubEmployeeApi(Settings settings) throws IOException {
+        this.settings = settings;
+        Random random = new Random(7);
+        for (int i = 0; i < settings.employees; i++) {
+            add(random, null);
+        }
+        for (String route : new String[]{"employees", "employee", "create", "delete"}) {
+            calls.put(route, new AtomicLong());
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.setExecutor(handlers);
+        server.createContext(BASE_PATH + "/", this::handle);
+        server.start();
+    }
+
+    public static StubEmployeeApi start(Settings settings) {
+        try {
+            return new StubEmployeeApi(settings);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + BASE_PATH;
+    }
+
+    public int size() {
+        return employees.size();
+    }
+
+    // Calls received per route: employees, employee, create and delete
+    public Map<String, Long> calls() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        calls.forEach((route, count) -> counts.put(route, count.get()));
+        return counts;
+    }
+
+    private void handle(HttpExchange exchange) {
+        String[] path = exchange.getRequestURI().getPath().substring(BASE_PATH.length() + 1).split("/");
+        AtomicLong count = calls.get(path[0]);
+        if (count != null) {
+            count.incrementAndGet();
+        }
+        long delay = settings.latency.toNanos() + (settings.jitter.isZero() ? 0
+                : ThreadLocalRandom.current().nextLong(settings.jitter.toNanos()));
+        delays.schedule(() -> handlers.execute(() -> respond(exchange, path)), delay, TimeUnit.NANOSECONDS);
+    }
+
+    private void respond(HttpExchange exchange, String[] path) {
+        try {
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < settings.throttleRate) {
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                send(exchange, 429, "{\"status\":\"error\",\"message\":\"Too Many Requests\"}".getBytes());
+            } else if (roll < settings.throttleRate + settings.errorRate) {
+                send(exchange, 500, "{\"status\":\"error\"}".getBytes());
+            } else {
+                route(exchange, path);
+            }
+        } catch (IOException | RuntimeException e) {
+            // The client went away or sent something unusable; it sees a closed connection either way
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange, String[] path) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (method.equals("GET") && path[0].equals("employees")) {
+            byte[] body = employeesBody;
+            if (body == null) {
+                body = envelope(new ArrayList<>(employees.values()));
+                employeesBody = body;
+            }
+            send(exchange, 200, body);
+        } else if (method.equals("GET") && path[0].equals("employee") && path.length == 2) {
+            send(exchange, 200, envelope(employees.get(parseId(path[1]))));
+        } else if (method.equals("POST") && path[0].equals("create")) {
+            Map<?, ?> input = objectMapper.readValue(exchange.getRequestBody(), Map.class);
+            send(exchange, 200, envelope(add(ThreadLocalRandom.current(), input)));
+        } else if (method.equals("DELETE") && path[0].equals("delete") && path.length == 2) {
+            Employee deleted = employees.remove(parseId(path[1]));
+            employeesBody = null;
+            send(exchange, 200, envelope(deleted != null ? path[1] : null));
+        } else {
+            send(exchange, 404, "{\"status\":\"error\",\"message\":\"Not Found\"}".getBytes());
+        }
+    }
+
+    private Employee add(Random random, Map<?, ?> input) {
+        long id = nextId.incrementAndGet();
+        Employee employee = Employee.builder()
+                .id(id)
+                .employee_name(input != null ? String.valueOf(input.get("name")) : name(random))
+                .employee_salary(input != null ? Integer.valueOf(String.valueOf(input.get("salary"))) : 30_000 + random.nextInt(500_000))
+                .employee_age(input != null ? Integer.valueOf(String.valueOf(input.get("age"))) : 20 + random.nextInt(45))
+                .profile_image("")
+                .build();
+        employees.put(id, employee);
+        employeesBody = null;
+        return employee;
+    }
+
+    static String name(Random random) {
+        return word(random, 2 + random.nextInt(2)) + " " + word(random, 3);
+    }
+
+    private static String word(Random random, int syllables) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    private byte[] envelope(Object data) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", "success");
+        body.put("data", data);
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    private static long parseId(String id) {
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        delays.shutdownNow();
+        handlers.shutdownNow();
+    }
+
+    /**
+     * Stub behaviour, read from {@code loadtest.stub.*} system properties: employees (dataset size),
+     * latency and jitter (ISO-8601 or e.g. 50ms), error-rate and throttle-rate (fractions of calls).
+     */
+    public static class Settings {
+        final int employees;
+        final Duration latency;
+        final Duration jitter;
+        final double errorRate;
+        final double throttleRate;
+
+        public Settings(int employees, Duration latency, Duration jitter, double errorRate, double throttleRate) {
+            this.employees = employees;
+            this.latency = latency;
+            this.jitter = jitter;
+            this.errorRate = errorRate;
+            this.throttleRate = throttleRate;
+        }
+
+        public static Settings fromSystemProperties() {
+            return new Settings(
+                    Integer.getInteger("loadtest.stub.employees", 10_000),
+                    LoadTestProperties.duration("loadtest.stub.latency", "50ms"),
+                    LoadTestProperties.duration("loadtest.stub.jitter", "20ms"),
+                    LoadTestProperties.fraction("loadtest.stub.error-rate", "0.01"),
+                    LoadTestProperties.fraction("loadtest.stub.throttle-rate", "0.02"));
+        }
+
+        @Override
+        public String toString() {
+            return employees + " employees, " + latency.toMillis() + "ms + up to " + jitter.toMillis() + "ms latency, "
+                    + errorRate * 100 + "% errors, " + throttleRate * 100 + "% throttled";
+        }
+    }
+}
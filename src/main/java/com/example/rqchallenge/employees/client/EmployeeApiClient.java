@@ -0,0 +1,31 @@
+package com.example.rqchallenge.employees.client;
+
+import com.example.rqchallenge.employees.dto.Employee;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Access to the dummy API. The implementation selected with {@code employees.upstream.client} is
+ * wrapped by {@link ResilientEmployeeApiClient}, which is what gets injected everywhere else.
+ * Lookups by id return {@code null} when the upstream has no data.
+ */
+public interface EmployeeApiClient {
+
+    List<Employee> getEmployees();
+
+    Employee getEmployeeById(String id);
+
+    Employee createEmployee(Map<String, Object> employeeInput);
+
+    void deleteEmployee(String id);
+
+    CompletableFuture<List<Employee>> getEmployeesAsync();
+
+    CompletableFuture<Employee> getEmployeeByIdAsync(String id);
+
+    CompletableFuture<Employee> createEmployeeAsync(Map<String, Object> employeeInput);
+
+    CompletableFuture<Void> deleteEmployeeAsync(String id);
+}
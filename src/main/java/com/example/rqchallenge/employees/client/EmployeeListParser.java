@@ -0,0 +1,80 @@
+package com.example.rqchallenge.employees.client;
+
+import com.example.rqchallenge.employees.dto.Employee;
+import com.example.rqchallenge.employees.snapshot.EmployeeListBuilder;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Incremental parser for the upstream list envelope {@code {"status": ..., "data": [...]}}. Body chunks are
+ * fed as they arrive and each employee is bound as soon as its object is complete and added straight to the
+ * columns of the snapshot, see {@link EmployeeListBuilder}, so apart from those only the chunk and the
+ * employee being parsed are held, never the whole body or a list of employees.
+ */
+final class EmployeeListParser {
+    private static final String DATA = "data";
+
+    private final ObjectReader reader;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final EmployeeListBuilder employees = new EmployeeListBuilder();
+    private int depth;
+    private String field;
+    private boolean inData;
+    private TokenBuffer employee;
+
+    EmployeeListParser(ObjectMapper objectMapper) throws IOException {
+        this.reader = objectMapper.readerFor(Employee.class);
+        this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    void feed(byte[] chunk) throws IOException {
+        feeder.feedInput(chunk, 0, chunk.length);
+        drain();
+    }
+
+    List<Employee> finish() throws IOException {
+        feeder.endOfInput();
+        drain();
+        if (depth != 0) {
+            throw new JsonParseException(parser, "Employee list ended unexpectedly");
+        }
+        return employees.build();
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+            if (employee != null) {
+                employee.copyCurrentEvent(parser);
+                if (depth == 2 && token == JsonToken.END_OBJECT) {
+                    employees.add(reader.readValue(employee.asParser()));
+                    employee = null;
+                }
+            } else if (inData && depth == 3 && token == JsonToken.START_OBJECT) {
+                employee = new TokenBuffer(parser);
+                employee.copyCurrentEvent(parser);
+            } else if (depth == 2 && token == JsonToken.START_ARRAY && DATA.equals(field)) {
+                inData = true;
+            } else if (depth == 1 && token == JsonToken.END_ARRAY) {
+                inData = false;
+            } else if (depth == 1 && token == JsonToken.FIELD_NAME) {
+                field = parser.getCurrentName();
+            }
+        }
+    }
+}
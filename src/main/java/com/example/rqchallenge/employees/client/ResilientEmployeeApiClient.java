@@ -0,0 +1,229 @@
+package com.example.rqchallenge.employees.client;
+
+import com.example.rqchallenge.employees.config.EmployeeResilienceProperties;
+import com.example.rqchallenge.employees.dto.Employee;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalBiFunction;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Wraps the selected upstream client: identical reads are coalesced first, then every call goes through
+ * retry, the circuit breaker, the client-side rate limiter and a per-endpoint bulkhead, in that order,
+ * so each retry attempt spends a rate limiter permit. Async calls never hold a thread while waiting for either:
+ * the permit is reserved and the call scheduled for when it frees up, a full bulkhead fails the attempt at once,
+ * and both rejections are retried after a backoff. Instances live in the resilience4j registries, which publish
+ * their metrics and actuator endpoints; {@link UpstreamMetrics} times each call around all of it.
+ */
+@Primary
+@Component
+@EnableConfigurationProperties(EmployeeResilienceProperties.class)
+public class ResilientEmployeeApiClient implements EmployeeApiClient {
+    public static final String UPSTREAM = "upstream";
+
+    private final EmployeeApiClient delegate;
+    private final EmployeeResilienceProperties properties;
+    private final UpstreamMetrics metrics;
+    private final CircuitBreaker circuitBreaker;
+    private final RateLimiter rateLimiter;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final Retry readRetry;
+    private final Retry writeRetry;
+    private final Retry asyncReadRetry;
+    private final Retry asyncWriteRetry;
+    private final RequestCoalescer coalescer = new RequestCoalescer();
+    private final ScheduledExecutorService retryScheduler =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("upstream-retry-"));
+
+    public ResilientEmployeeApiClient(@Qualifier(UPSTREAM) EmployeeApiClient delegate,
+                                      EmployeeResilienceProperties properties,
+                                      UpstreamMetrics metrics,
+                                      CircuitBreakerRegistry circuitBreakerRegistry,
+                                      RateLimiterRegistry rateLimiterRegistry,
+                                      BulkheadRegistry bulkheadRegistry,
+                                      RetryRegistry retryRegistry) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.metrics = metrics;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(UPSTREAM);
+        this.rateLimiter = rateLimiterRegistry.rateLimiter(UPSTREAM);
+        this.bulkheadRegistry = bulkheadRegistry;
+        // Reads are idempotent; a write is only repeated when the upstream refused it with a 429
+        this.readRetry = retryRegistry.retry(UPSTREAM + "-read", retryConfig(UpstreamFailures::isTransient));
+        this.writeRetry = retryRegistry.retry(UPSTREAM + "-write", retryConfig(UpstreamFailures::isTooManyRequests));
+        // Async calls are rejected instead of waiting for a permit; a rejected call never reached the upstream
+        this.asyncReadRetry = retryRegistry.retry(UPSTREAM + "-read-async",
+                retryConfig(error -> UpstreamFailures.isTransient(error) || isRejected(error)));
+        this.asyncWriteRetry = retryRegistry.retry(UPSTREAM + "-write-async",
+                retryConfig(error -> UpstreamFailures.isTooManyRequests(error) || isRejected(error)));
+    }
+
+    @Override
+    public List<Employee> getEmployees() {
+        return coalescer.execute("/employees", decorate("employees", readRetry, delegate::getEmployees));
+    }
+
+    @Override
+    public Employee getEmployeeById(String id) {
+        return coalescer.execute("/employee/" + id, decorate("employee", readRetry, () -> delegate.getEmployeeById(id)));
+    }
+
+    @Override
+    public Employee createEmployee(Map<String, Object> employeeInput) {
+        return decorate("create", writeRetry, () -> delegate.createEmployee(employeeInput)).get();
+    }
+
+    @Override
+    public void deleteEmployee(String id) {
+        decorate("delete", writeRetry, () -> {
+            delegate.deleteEmployee(id);
+            return null;
+        }).get();
+    }
+
+    @Override
+    public CompletableFuture<List<Employee>> getEmployeesAsync() {
+        return coalescer.executeAsync("/employees", () -> decorateAsync("employees", asyncReadRetry, delegate::getEmployeesAsync));
+    }
+
+    @Override
+    public CompletableFuture<Employee> getEmployeeByIdAsync(String id) {
+        return coalescer.executeAsync("/employee/" + id, () -> decorateAsync("employee", asyncReadRetry, () -> delegate.getEmployeeByIdAsync(id)));
+    }
+
+    @Override
+    public CompletableFuture<Employee> createEmployeeAsync(Map<String, Object> employeeInput) {
+        return decorateAsync("create", asyncWriteRetry, () -> delegate.createEmployeeAsync(employeeInput));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteEmployeeAsync(String id) {
+        return decorateAsync("delete", asyncWriteRetry, () -> delegate.deleteEmployeeAsync(id));
+    }
+
+    private <T> Supplier<T> decorate(String endpoint, Retry retry, Supplier<T> call) {
+        Supplier<T> decorated = Bulkhead.decorateSupplier(bulkhead(endpoint), call);
+        decorated = RateLimiter.decorateSupplier(rateLimiter, decorated);
+        decorated = CircuitBreaker.decorateSupplier(circuitBreaker, decorated);
+        Supplier<T> retried = Retry.decorateSupplier(retry, decorated);
+        return () -> metrics.time(endpoint, retried);
+    }
+
+    private <T> CompletableFuture<T> decorateAsync(String endpoint, Retry retry, Supplier<CompletableFuture<T>> call) {
+        Bulkhead bulkhead = bulkhead(endpoint);
+        Supplier<CompletionStage<T>> decorated = () -> rateLimited(() -> bulkheaded(bulkhead, call));
+        decorated = CircuitBreaker.decorateCompletionStage(circuitBreaker, decorated);
+        Supplier<CompletionStage<T>> retried = Retry.decorateCompletionStage(retry, retryScheduler, decorated);
+        return metrics.timeAsync(endpoint, () -> retried.get().toCompletableFuture());
+    }
+
+    // Reserves a permit up to the rate limiter's timeout ahead and runs the call once it is due, on the retry
+    // scheduler rather than on a thread parked until then
+    private <T> CompletableFuture<T> rateLimited(Supplier<CompletableFuture<T>> call) {
+        long waitNanos = rateLimiter.reservePermission();
+        if (waitNanos < 0) {
+            return CompletableFuture.failedFuture(RequestNotPermitted.createRequestNotPermitted(rateLimiter));
+        }
+        if (waitNanos == 0) {
+            return call.get();
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        retryScheduler.schedule(() -> call.get().whenComplete((value, error) -> complete(result, value, error)),
+                waitNanos, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    private static <T> CompletableFuture<T> bulkheaded(Bulkhead bulkhead, Supplier<CompletableFuture<T>> call) {
+        if (!bulkhead.tryAcquirePermission()) {
+            return CompletableFuture.failedFuture(BulkheadFullException.createBulkheadFullException(bulkhead));
+        }
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            bulkhead.onComplete();
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        future.whenComplete((value, error) -> {
+            bulkhead.onComplete();
+            complete(result, value, error);
+        });
+        return result;
+    }
+
+    // Passes on the failure as thrown, as the resilience4j decorators do, rather than wrapped by a dependent stage
+    private static <T> void complete(CompletableFuture<T> result, T value, Throwable error) {
+        if (error != null) {
+            result.completeExceptionally(Futures.unwrap(error));
+        } else {
+            result.complete(value);
+        }
+    }
+
+    private static boolean isRejected(Throwable error) {
+        Throwable cause = Futures.unwrap(error);
+        return cause instanceof RequestNotPermitted || cause instanceof BulkheadFullException;
+    }
+
+    private Bulkhead bulkhead(String endpoint) {
+        return bulkheadRegistry.bulkhead(UPSTREAM + "-" + endpoint);
+    }
+
+    private RetryConfig retryConfig(Predicate<Throwable> retryable) {
+        EmployeeResilienceProperties.Retry retry = properties.getRetry();
+        IntervalBiFunction<Object> interval = (attempt, outcome) -> (outcome.isLeft()
+                ? UpstreamFailures.retryAfter(outcome.getLeft())
+                : Optional.<Duration>empty())
+                .orElseGet(() -> backoff(attempt))
+                .toMillis();
+        return RetryConfig.custom()
+                .maxAttempts(retry.getMaxAttempts())
+                .intervalBiFunction(interval)
+                .retryOnException(error -> retryable.test(error) && UpstreamFailures.retryAfter(error)
+                        .map(retryAfter -> retryAfter.compareTo(retry.getMaxRetryAfter()) <= 0)
+                        .orElse(true))
+                .build();
+    }
+
+    // Exponential backoff, capped, with the configured fraction of it randomized
+    private Duration backoff(int attempt) {
+        EmployeeResilienceProperties.Retry retry = properties.getRetry();
+        double exponential = retry.getInitialBackoff().toMillis() * Math.pow(retry.getMultiplier(), attempt - 1);
+        double capped = Math.min(exponential, retry.getMaxBackoff().toMillis());
+        double jittered = capped * (1 - retry.getJitter() * ThreadLocalRandom.current().nextDouble());
+        return Duration.ofMillis((long) jittered);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdown();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.rqchallenge.employees.client;
+
+import com.example.rqchallenge.employees.config.EmployeeUpstreamProperties;
+import com.example.rqchallenge.employees.dto.Employee;
+import com.example.rqchallenge.employees.dto.EmployeeResponse;
+import com.example.rqchallenge.employees.dto.EmployeesResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Blocking client on the shared RestTemplate. The async variants run the blocking call on a dedicated pool
+ * sized to the upstream connection limit, so request threads are not the ones parked. The pool publishes
+ * executor metrics named upstream, including how long calls queued for a thread (executor.idle).
+ */
+@Slf4j
+@Component
+@Qualifier(ResilientEmployeeApiClient.UPSTREAM)
+@ConditionalOnProperty(name = "employees.upstream.client", havingValue = "rest-template", matchIfMissing = true)
+public class RestTemplateEmployeeApiClient implements EmployeeApiClient {
+    @Value("${dummy.api.url}")
+    private String DUMMY_API_URL;
+
+    private final RestTemplate restTemplate;
+    private final ExecutorService executor;
+
+    public RestTemplateEmployeeApiClient(RestTemplate restTemplate, EmployeeUpstreamProperties properties,
+                                         MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry,
+                Executors.newFixedThreadPool(properties.getMaxConnections(), new CustomizableThreadFactory("upstream-")),
+                "upstream");
+    }
+
+    @Override
+    public List<Employee> getEmployees() {
+        log.info("Fetching all employees from the API");
+        EmployeesResponse response = restTemplate.getForObject(DUMMY_API_URL + "/employees", EmployeesResponse.class);
+        return response != null && response.getData() != null ? response.getData() : Collections.emptyList();
+    }
+
+    @Override
+    public Employee getEmployeeById(String id) {
+        log.debug("Fetching employee from the API id={}", id);
+        EmployeeResponse response = restTemplate.getForObject(DUMMY_API_URL + "/employee/" + id, EmployeeResponse.class);
+        return response != null ? response.getData() : null;
+    }
+
+    @Override
+    public Employee createEmployee(Map<String, Object> employeeInput) {
+        log.debug("Creating employee through the API fields={}", employeeInput.keySet());
+        EmployeeResponse response = restTemplate.postForObject(DUMMY_API_URL + "/create", employeeInput, EmployeeResponse.class);
+        return response != null ? response.getData() : null;
+    }
+
+    @Override
+    public void deleteEmployee(String id) {
+        log.debug("Deleting employee through the API id={}", id);
+        restTemplate.delete(DUMMY_API_URL + "/delete/" + id);
+    }
+
+    @Override
+    public CompletableFuture<List<Employee>> getEmployeesAsync() {
+        return CompletableFuture.supplyAsync(this::getEmployees, executor);
+    }
+
+    @Override
+    public CompletableFuture<Employee> getEmployeeByIdAsync(String id) {
+        return CompletableFuture.supplyAsync(() -> getEmployeeById(id), executor);
+    }
+
+    @Override
+    public CompletableFuture<Employee> createEmployeeAsync(Map<String, Object> employeeInput) {
+        return CompletableFuture.supplyAsync(() -> createEmployee(employeeInput), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteEmployeeAsync(String id) {
+        return CompletableFuture.runAsync(() -> deleteEmployee(id), executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.rqchallenge.employees.client;
+
+import java.util.function.Predicate;
+
+/**
+ * Referenced by class name from the resilience4j properties, e.g. as the circuit breaker's
+ * record-failure-predicate, so that 4xx responses such as 404 do not open the breaker.
+ */
+public class TransientUpstreamFailure implements Predicate<Throwable> {
+
+    @Override
+    public boolean test(Throwable throwable) {
+        return UpstreamFailures.isTransient(throwable);
+    }
+}
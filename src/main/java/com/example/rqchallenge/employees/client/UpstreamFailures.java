@@ -0,0 +1,80 @@
+package com.example.rqchallenge.employees.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * Classifies upstream failures from either client implementation.
+ */
+public final class UpstreamFailures {
+
+    private UpstreamFailures() {
+    }
+
+    public static OptionalInt status(Throwable throwable) {
+        Throwable cause = Futures.unwrap(throwable);
+        if (cause instanceof RestClientResponseException) {
+            return OptionalInt.of(((RestClientResponseException) cause).getRawStatusCode());
+        }
+        if (cause instanceof WebClientResponseException) {
+            return OptionalInt.of(((WebClientResponseException) cause).getRawStatusCode());
+        }
+        return OptionalInt.empty();
+    }
+
+    public static boolean isTooManyRequests(Throwable throwable) {
+        OptionalInt status = status(throwable);
+        return status.isPresent() && status.getAsInt() == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    /**
+     * Rate limiting, server errors and I/O failures (connect, read timeouts): worth retrying and
+     * counted by the circuit breaker. Other client errors are the caller's problem.
+     */
+    public static boolean isTransient(Throwable throwable) {
+        Throwable cause = Futures.unwrap(throwable);
+        if (cause instanceof ResourceAccessException || cause instanceof WebClientRequestException) {
+            return true;
+        }
+        OptionalInt status = status(cause);
+        return status.isPresent() && (status.getAsInt() == HttpStatus.TOO_MANY_REQUESTS.value() || status.getAsInt() >= 500);
+    }
+
+    /**
+     * The upstream's Retry-After, given either in seconds or as an HTTP date.
+     */
+    public static Optional<Duration> retryAfter(Throwable throwable) {
+        Throwable cause = Futures.unwrap(throwable);
+        HttpHeaders headers = null;
+        if (cause instanceof RestClientResponseException) {
+            headers = ((RestClientResponseException) cause).getResponseHeaders();
+        } else if (cause instanceof WebClientResponseException) {
+            headers = ((WebClientResponseException) cause).getHeaders();
+        }
+        String value = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (value == null || value.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim()))));
+        } catch (NumberFormatException e) {
+            try {
+                Duration untilDate = Duration.between(ZonedDateTime.now(), ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+                return Optional.of(untilDate.isNegative() ? Duration.ZERO : untilDate);
+            } catch (DateTimeParseException ignored) {
+                return Optional.empty();
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.rqchallenge.employees.client;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.http.Outcome;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Upstream metrics next to the per-attempt http.client.requests timer Spring Boot records for both clients:
+ * employees.upstream.calls times each call as the service sees it, retries and waits for permits included,
+ * tagged with the endpoint, outcome and exception, and employees.upstream.response.size records response
+ * body bytes per endpoint. Retry, circuit breaker, rate limiter and bulkhead figures come from the
+ * resilience4j registries.
+ */
+@Component
+public class UpstreamMetrics {
+    static final String CALLS = "employees.upstream.calls";
+    static final String RESPONSE_SIZE = "employees.upstream.response.size";
+    private static final Set<String> ENDPOINTS = Set.of("employees", "employee", "create", "delete");
+    private static final String NONE = "None";
+
+    private final MeterRegistry registry;
+    private final String basePath;
+    private final Map<String, Timer> successes = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> sizes = new ConcurrentHashMap<>();
+
+    public UpstreamMetrics(MeterRegistry registry, @Value("${dummy.api.url}") String dummyApiUrl) {
+        this.registry = registry;
+        this.basePath = URI.create(dummyApiUrl).getPath();
+    }
+
+    public <T> T time(String endpoint, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            T result = call.get();
+            sample.stop(timer(endpoint, null));
+            return result;
+        } catch (RuntimeException e) {
+            sample.stop(timer(endpoint, e));
+            throw e;
+        }
+    }
+
+    public <T> CompletableFuture<T> timeAsync(String endpoint, Supplier<CompletableFuture<T>> call) {
+        Timer.Sample sample = Timer.start(registry);
+        CompletableFuture<T> future = call.get();
+        future.whenComplete((result, failure) -> sample.stop(timer(endpoint, failure)));
+        return future;
+    }
+
+    // Records response sizes for the RestTemplate client once the body has been read and closed
+    public ClientHttpRequestInterceptor responseSizeInterceptor() {
+        return (request, body, execution) -> new CountingResponse(execution.execute(request, body), size(request.getURI()));
+    }
+
+    // Records response sizes for the WebClient client once the body has been consumed
+    public ExchangeFilterFunction responseSizeFilter() {
+        return (request, next) -> next.exchange(request).map(response -> {
+            DistributionSummary size = size(request.url());
+            AtomicLong bytes = new AtomicLong();
+            return response.mutate()
+                    .body(body -> body
+                            .doOnNext(buffer -> bytes.addAndGet(buffer.readableByteCount()))
+                            .doOnComplete(() -> size.record(bytes.get())))
+                    .build();
+        });
+    }
+
+    private Timer timer(String endpoint, Throwable failure) {
+        if (failure == null) {
+            return successes.computeIfAbsent(endpoint, key -> timer(key, Outcome.SUCCESS.name(), NONE));
+        }
+        Throwable cause = Futures.unwrap(failure);
+        OptionalInt status = UpstreamFailures.status(cause);
+        String outcome = status.isPresent() ? Outcome.forStatus(status.getAsInt()).name() : Outcome.UNKNOWN.name();
+        String exception = cause.getClass().getSimpleName();
+        return timer(endpoint, outcome, exception.isEmpty() ? cause.getClass().getName() : exception);
+    }
+
+    private Timer timer(String endpoint, String outcome, String exception) {
+        return Timer.builder(CALLS)
+                .description("Upstream calls including retries")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .register(registry);
+    }
+
+    private DistributionSummary size(URI uri) {
+        String path = uri.getPath().startsWith(basePath) ? uri.getPath().substring(basePath.length()) : uri.getPath();
+        String segment = path.startsWith("/") ? path.substring(1) : path;
+        int end = segment.indexOf('/');
+        String endpoint = end >= 0 ? segment.substring(0, end) : segment;
+        return sizes.computeIfAbsent(ENDPOINTS.contains(endpoint) ? endpoint : "other", key -> DistributionSummary
+                .builder(RESPONSE_SIZE)
+                .description("Upstream response body sizes")
+                .baseUnit(BaseUnits.BYTES)
+                .tag("endpoint", key)
+                .register(registry));
+    }
+
+    private static final class CountingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final DistributionSummary size;
+        private long bytes;
+        private InputStream body;
+
+        CountingResponse(ClientHttpResponse delegate, DistributionSummary size) {
+            this.delegate = delegate;
+            this.size = size;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterInputStream(delegate.getBody()) {
+                    @Override
+                    public int read() throws IOException {
+                        int read = super.read();
+                        if (read >= 0) {
+                            bytes++;
+                        }
+                        return read;
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) throws IOException {
+                        int read = super.read(buffer, offset, length);
+                        if (read > 0) {
+                            bytes += read;
+                        }
+                        return read;
+                    }
+                };
+            }
+            return body;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return delegate.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public void close() {
+            size.record(bytes);
+            delegate.close();
+        }
+    }
+}
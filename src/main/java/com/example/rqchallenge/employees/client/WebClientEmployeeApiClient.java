@@ -0,0 +1,128 @@
+package com.example.rqchallenge.employees.client;
+
+import com.example.rqchallenge.employees.dto.Employee;
+import com.example.rqchallenge.employees.dto.EmployeeResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking client on Reactor Netty with a pooled keep-alive connection provider, see
+ * {@link com.example.rqchallenge.employees.config.EmployeeConfig}. The blocking methods only exist for
+ * callers such as cache loaders that already run off the request threads. The employee list is parsed
+ * chunk by chunk as it arrives instead of being aggregated in memory first.
+ */
+@Slf4j
+@Component
+@Qualifier(ResilientEmployeeApiClient.UPSTREAM)
+@ConditionalOnProperty(name = "employees.upstream.client", havingValue = "web-client")
+public class WebClientEmployeeApiClient implements EmployeeApiClient {
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+
+    public WebClientEmployeeApiClient(WebClient employeeWebClient, ObjectMapper objectMapper) {
+        this.webClient = employeeWebClient;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public List<Employee> getEmployees() {
+        return Futures.join(getEmployeesAsync());
+    }
+
+    @Override
+    public Employee getEmployeeById(String id) {
+        return Futures.join(getEmployeeByIdAsync(id));
+    }
+
+    @Override
+    public Employee createEmployee(Map<String, Object> employeeInput) {
+        return Futures.join(createEmployeeAsync(employeeInput));
+    }
+
+    @Override
+    public void deleteEmployee(String id) {
+        Futures.join(deleteEmployeeAsync(id));
+    }
+
+    @Override
+    public CompletableFuture<List<Employee>> getEmployeesAsync() {
+        log.info("Fetching all employees from the API");
+        return webClient.get().uri("/employees")
+                .retrieve()
+                .bodyToFlux(DataBuffer.class)
+                .collect(this::newListParser, this::feed)
+                .map(WebClientEmployeeApiClient::finish)
+                .toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Employee> getEmployeeByIdAsync(String id) {
+        log.debug("Fetching employee from the API id={}", id);
+        return webClient.get().uri("/employee/{id}", id)
+                .retrieve()
+                .bodyToMono(EmployeeResponse.class)
+                .mapNotNull(EmployeeResponse::getData)
+                .toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Employee> createEmployeeAsync(Map<String, Object> employeeInput) {
+        log.debug("Creating employee through the API fields={}", employeeInput.keySet());
+        return webClient.post().uri("/create")
+                .bodyValue(employeeInput)
+                .retrieve()
+                .bodyToMono(EmployeeResponse.class)
+                .mapNotNull(EmployeeResponse::getData)
+                .toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteEmployeeAsync(String id) {
+        log.debug("Deleting employee through the API id={}", id);
+        return webClient.delete().uri("/delete/{id}", id)
+                .retrieve()
+                .toBodilessEntity()
+                .then()
+                .toFuture();
+    }
+
+    private EmployeeListParser newListParser() {
+        try {
+            return new EmployeeListParser(objectMapper);
+        } catch (IOException e) {
+            throw new DecodingException("Could not create the employee list parser", e);
+        }
+    }
+
+    private void feed(EmployeeListParser parser, DataBuffer buffer) {
+        try {
+            byte[] chunk = new byte[buffer.readableByteCount()];
+            buffer.read(chunk);
+            parser.feed(chunk);
+        } catch (IOException e) {
+            throw new DecodingException("Could not parse the employee list", e);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private static List<Employee> finish(EmployeeListParser parser) {
+        try {
+            return parser.finish();
+        } catch (IOException e) {
+            throw new DecodingException("Could not parse the employee list", e);
+        }
+    }
+}
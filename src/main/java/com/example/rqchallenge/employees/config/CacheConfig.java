@@ -0,0 +1,63 @@
+package com.example.rqchallenge.employees.config;
+
+import com.example.rqchallenge.employees.snapshot.EmployeeSnapshotLoader;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+@Slf4j
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(EmployeeCacheProperties.class)
+public class CacheConfig {
+    public static final String EMPLOYEES_CACHE = "employees";
+    // Employees looked up by id from the upstream, keyed by id
+    public static final String EMPLOYEE_CACHE = "employee";
+
+    @Bean
+    public CacheManager cacheManager(EmployeeCacheProperties properties, EmployeeSnapshotLoader snapshotLoader) {
+        if (!properties.isEnabled()) {
+            log.info("Employee caching is disabled");
+            return new NoOpCacheManager();
+        }
+        // Highest salary and top earners are precomputed in the snapshot, so only the snapshot is cached
+        Map<String, CacheLoader<Object, Object>> loaders = Map.of(
+                EMPLOYEES_CACHE, key -> snapshotLoader.load());
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(caffeine(properties.getDefaults()));
+        properties.getSpecs().forEach((name, spec) -> {
+            Caffeine<Object, Object> caffeine = caffeine(spec);
+            CacheLoader<Object, Object> loader = loaders.get(name);
+            if (spec.getRefreshAfterWrite() != null && loader != null) {
+                caffeine.refreshAfterWrite(spec.getRefreshAfterWrite());
+                cacheManager.registerCustomCache(name, caffeine.build(loader));
+            } else {
+                if (spec.getRefreshAfterWrite() != null) {
+                    log.warn("Ignoring refresh-after-write for cache '{}' as it has no loader", name);
+                }
+                cacheManager.registerCustomCache(name, caffeine.build());
+            }
+        });
+        return cacheManager;
+    }
+
+    private static Caffeine<Object, Object> caffeine(EmployeeCacheProperties.Spec spec) {
+        Caffeine<Object, Object> caffeine = Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .recordStats();
+        if (spec.getExpireAfterWrite() != null) {
+            caffeine.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        return caffeine;
+    }
+}
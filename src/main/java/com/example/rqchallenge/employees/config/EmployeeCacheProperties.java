@@ -0,0 +1,25 @@
+package com.example.rqchallenge.employees.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "employees.cache")
+public class EmployeeCacheProperties {
+    private boolean enabled = true;
+    // Applied to caches that are requested at runtime but not listed under specs
+    private Spec defaults = new Spec();
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    @Data
+    public static class Spec {
+        private long maximumSize = 100;
+        private Duration expireAfterWrite = Duration.ofMinutes(5);
+        // Serve the current value while a single background reload runs; needs a cache loader
+        private Duration refreshAfterWrite;
+    }
+}
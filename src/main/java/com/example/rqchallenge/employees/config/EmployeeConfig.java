@@ -1,14 +1,55 @@
 package com.example.rqchallenge.employees.config;
 
 
+import com.example.rqchallenge.employees.client.UpstreamMetrics;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 @Configuration
+@EnableConfigurationProperties(EmployeeUpstreamProperties.class)
 public class EmployeeConfig {
     @Bean
-    public RestTemplate restTemplateBean() {
-        return new RestTemplate();
+    public RestTemplate restTemplateBean(RestTemplateBuilder builder, EmployeeUpstreamProperties properties,
+                                         UpstreamMetrics upstreamMetrics) {
+        return builder
+                .setConnectTimeout(properties.getConnectTimeout())
+                .setReadTimeout(properties.getReadTimeout())
+                .additionalInterceptors(upstreamMetrics.responseSizeInterceptor())
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "employees.upstream.client", havingValue = "web-client")
+    public WebClient employeeWebClient(WebClient.Builder builder, EmployeeUpstreamProperties properties,
+                                       UpstreamMetrics upstreamMetrics, @Value("${dummy.api.url}") String dummyApiUrl) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("employee-upstream")
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getReadTimeout())
+                .keepAlive(true);
+        if (properties.isHttp2() && dummyApiUrl.startsWith("https")) {
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+        return builder
+                .baseUrl(dummyApiUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(upstreamMetrics.responseSizeFilter())
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize((int) properties.getMaxInMemorySize().toBytes()))
+                .build();
     }
 }
@@ -0,0 +1,16 @@
+package com.example.rqchallenge.employees.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "employees.refresh")
+public class EmployeeRefreshProperties {
+    // Fetch the employee list in the background so requests find it cached
+    private boolean enabled = true;
+    private Duration interval = Duration.ofSeconds(30);
+    // Fraction of the interval by which each wait is randomized up or down, 0 disables jitter
+    private double jitter = 0.2;
+}
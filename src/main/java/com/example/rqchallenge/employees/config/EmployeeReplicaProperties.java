@@ -0,0 +1,17 @@
+package com.example.rqchallenge.employees.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "employees.replicas")
+public class EmployeeReplicaProperties {
+    // none, loopback (replicas in one JVM) or redis (pub/sub through spring.redis.*)
+    private String transport = "none";
+    private String channel = "employees-replicas";
+    // Base URL at which the other replicas reach this one to pull its snapshot; without it they fetch their own
+    private String url;
+    private Duration pullTimeout = Duration.ofSeconds(5);
+}
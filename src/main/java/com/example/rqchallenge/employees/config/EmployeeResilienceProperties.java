@@ -0,0 +1,30 @@
+package com.example.rqchallenge.employees.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Rate limiter, circuit breaker and bulkheads are configured through the standard resilience4j.*
+ * properties; retries are built here because their backoff has to honor Retry-After.
+ */
+@Data
+@ConfigurationProperties(prefix = "employees.resilience")
+public class EmployeeResilienceProperties {
+    // Serve the last successfully fetched snapshot, marked stale, when the upstream fails or the breaker is open
+    private boolean serveLastKnownGood = true;
+    private Retry retry = new Retry();
+
+    @Data
+    public static class Retry {
+        private int maxAttempts = 3;
+        private Duration initialBackoff = Duration.ofMillis(200);
+        private double multiplier = 2.0;
+        private Duration maxBackoff = Duration.ofSeconds(2);
+        // Fraction of each backoff that is randomized, 0 disables jitter
+        private double jitter = 0.5;
+        // A Retry-After longer than this is not waited for; the call fails instead
+        private Duration maxRetryAfter = Duration.ofSeconds(5);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.rqchallenge.employees.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+@Data
+@ConfigurationProperties(prefix = "employees.snapshot")
+public class EmployeeSnapshotProperties {
+    // Keep a copy of the last fetched employee list on local disk to survive restarts while the upstream is down
+    private boolean persist = true;
+    private Path file = Path.of("data", "employees.snapshot");
+}
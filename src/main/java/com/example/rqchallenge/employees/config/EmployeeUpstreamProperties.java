@@ -0,0 +1,23 @@
+package com.example.rqchallenge.employees.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "employees.upstream")
+public class EmployeeUpstreamProperties {
+    // rest-template (blocking, default) or web-client (non-blocking Reactor Netty)
+    private String client = "rest-template";
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration readTimeout = Duration.ofSeconds(5);
+    private int maxConnections = 50;
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    // Negotiated through ALPN, so it only applies to https upstreams
+    private boolean http2 = true;
+    // Largest upstream body the web client buffers for decoding
+    private DataSize maxInMemorySize = DataSize.ofMegabytes(16);
+}
@@ -0,0 +1,29 @@
+package com.example.rqchallenge.employees.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "employees.writes")
+public class EmployeeWriteProperties {
+    public static final String MODE_PROPERTY = "employees.writes.mode";
+    public static final String WRITE_BEHIND = "write-behind";
+
+    // direct sends creates and deletes to the upstream before answering; write-behind queues them
+    private String mode = "direct";
+    private Path log = Path.of("data", "employee-operations.log");
+    // Force every accepted operation to disk before answering
+    private boolean sync = true;
+    private int maxPending = 10_000;
+    private int workers = 4;
+    // Operations a worker takes from its queue at once, logged and applied to the snapshot together
+    private int batchSize = 100;
+    private int maxAttempts = 10;
+    private Duration initialBackoff = Duration.ofSeconds(1);
+    private Duration maxBackoff = Duration.ofMinutes(1);
+    // Finished operations whose status can still be read, also across restarts
+    private int retainedOperations = 10_000;
+}
@@ -0,0 +1,56 @@
+package com.example.rqchallenge.employees.config;
+
+import com.example.rqchallenge.employees.dto.Employee;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.Set;
+
+/**
+ * Lets responses project employees to a subset of their fields: wrapping a body in a MappingJacksonValue
+ * with a filter for {@link #EMPLOYEE_FIELDS_FILTER} skips the other properties while serializing, without
+ * copying the employees. Unfiltered responses serialize every property as before.
+ * <p>
+ * Besides JSON, answers can be requested as Smile (application/x-jackson-smile), which writes each property
+ * name once per response and refers back to it after that, or CBOR (application/cbor), for clients that would
+ * rather not parse text. Both are built from the same customized builder as the JSON mapper, so they read and
+ * write employees the same way. JSON stays the default, for an Accept header that allows anything.
+ */
+@Configuration
+public class JacksonConfig {
+    public static final String EMPLOYEE_FIELDS_FILTER = "employeeFields";
+    public static final Set<String> EMPLOYEE_FIELDS =
+            Set.of("id", "employee_name", "employee_salary", "employee_age", "profile_image");
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    @JsonFilter(EMPLOYEE_FIELDS_FILTER)
+    interface EmployeeFieldsMixin {
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.createXmlMapper(false).factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.createXmlMapper(false).factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer employeeFieldsFilter() {
+        return builder -> builder
+                .mixIn(Employee.class, EmployeeFieldsMixin.class)
+                .filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.rqchallenge.employees.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logback's async appender, which hands events to a worker thread through a bounded queue, counting the
+ * events it discards: those below WARN once the queue is fuller than the discarding threshold and, with
+ * neverBlock, any event that finds the queue full. Counted from the queue's state on arrival, so a count
+ * can be off by the few events that race the worker.
+ */
+public class MeteredAsyncAppender extends AsyncAppender implements MeterBinder {
+    private final LongAdder dropped = new LongAdder();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (isStarted()) {
+            int remaining = getRemainingCapacity();
+            if ((remaining == 0 && isNeverBlock()) || (remaining < getDiscardingThreshold() && isDiscardable(event))) {
+                dropped.increment();
+            }
+        }
+        super.append(event);
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("logging.async.queue.size", this, MeteredAsyncAppender::getNumberOfElementsInQueue)
+                .description("Log events waiting to be written")
+                .tag("appender", getName())
+                .register(registry);
+        FunctionCounter.builder("logging.async.dropped", this, MeteredAsyncAppender::getDroppedCount)
+                .description("Log events discarded instead of blocking the logging thread")
+                .tag("appender", getName())
+                .register(registry);
+    }
+
+    // The instances attached to the root logger by logback-spring.xml
+    public static List<MeteredAsyncAppender> attached() {
+        List<MeteredAsyncAppender> appenders = new ArrayList<>();
+        ILoggerFactory factory = LoggerFactory.getILoggerFactory();
+        if (factory instanceof LoggerContext) {
+            Iterator<Appender<ILoggingEvent>> iterator =
+                    ((LoggerContext) factory).getLogger(Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+            while (iterator.hasNext()) {
+                Appender<ILoggingEvent> appender = iterator.next();
+                if (appender instanceof MeteredAsyncAppender) {
+                    appenders.add((MeteredAsyncAppender) appender);
+                }
+            }
+        }
+        return appenders;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.rqchallenge.employees.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.util.regex.Pattern;
+
+@Configuration
+public class MetricsConfig {
+    // Upstream paths carrying an id; the server's own URI tags are already templates and never match
+    private static final Pattern UPSTREAM_ID = Pattern.compile("^(.*/(?:employee|delete)/)[^/]+$");
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                                   MeterRegistry meterRegistry) {
+        return new TimedJackson2HttpMessageConverter(objectMapper, meterRegistry);
+    }
+
+    // The RestTemplate client concatenates ids into its URLs, which would give http.client.requests a time
+    // series per id
+    @Bean
+    public MeterFilter upstreamUriTemplates() {
+        return MeterFilter.replaceTagValues("uri", uri -> UPSTREAM_ID.matcher(uri).replaceFirst("$1{id}"));
+    }
+
+    @Bean
+    public MeterBinder asyncLoggingMetrics() {
+        return registry -> MeteredAsyncAppender.attached().forEach(appender -> appender.bindTo(registry));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.rqchallenge.employees.config;
+
+import com.example.rqchallenge.employees.replica.LoopbackReplicaTransport;
+import com.example.rqchallenge.employees.replica.RedisReplicaTransport;
+import com.example.rqchallenge.employees.replica.ReplicaTransport;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * The transport of employees.replicas.transport; with none there is no transport and each replica works alone.
+ */
+@Configuration
+@EnableConfigurationProperties(EmployeeReplicaProperties.class)
+public class ReplicaConfig {
+    public static final String TRANSPORT_PROPERTY = "employees.replicas.transport";
+    public static final String URL_PROPERTY = "employees.replicas.url";
+
+    @Bean
+    @ConditionalOnProperty(name = TRANSPORT_PROPERTY, havingValue = "loopback")
+    public ReplicaTransport loopbackReplicaTransport(EmployeeReplicaProperties properties) {
+        return new LoopbackReplicaTransport(properties.getChannel());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = TRANSPORT_PROPERTY, havingValue = "redis")
+    public RedisMessageListenerContainer replicaListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = TRANSPORT_PROPERTY, havingValue = "redis")
+    public ReplicaTransport redisReplicaTransport(StringRedisTemplate redisTemplate,
+                                                  RedisMessageListenerContainer replicaListenerContainer,
+                                                  EmployeeReplicaProperties properties) {
+        return new RedisReplicaTransport(redisTemplate, replicaListenerContainer, properties.getChannel());
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.rqchallenge.employees.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Times writing JSON response bodies per handler URI pattern in http.server.serialization, so serialization
+ * can be told apart from the rest of http.server.requests. Writes outside of a request, such as the
+ * RestTemplate sending a request body, are not timed.
+ */
+public class TimedJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+    static final String SERIALIZATION = "http.server.serialization";
+
+    private final MeterRegistry registry;
+
+    public TimedJackson2HttpMessageConverter(ObjectMapper objectMapper, MeterRegistry registry) {
+        super(objectMapper);
+        this.registry = registry;
+    }
+
+    @Override
+    protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            sample.stop(Timer.builder(SERIALIZATION)
+                    .description("Writing JSON response bodies, including handing the bytes to the container")
+                    .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                    .register(registry));
+        }
+    }
+}
@@ -1,68 +1,354 @@
 package com.example.rqchallenge.employees.controller;
 
+import com.example.rqchallenge.employees.config.JacksonConfig;
+import com.example.rqchallenge.employees.dto.BatchResult;
 import com.example.rqchallenge.employees.dto.Employee;
+import com.example.rqchallenge.employees.dto.EmployeeOperation;
+import com.example.rqchallenge.employees.exception.InvalidRequestException;
+import com.example.rqchallenge.employees.exception.OperationNotFoundException;
+import com.example.rqchallenge.employees.operation.EmployeeOperations;
 import com.example.rqchallenge.employees.service.EmployeeService;
+import com.example.rqchallenge.employees.snapshot.EmployeeChangeFeed;
+import com.example.rqchallenge.employees.snapshot.EmployeeChanges;
+import com.example.rqchallenge.employees.snapshot.EmployeePage;
+import com.example.rqchallenge.employees.snapshot.EmployeeQuery;
+import com.example.rqchallenge.employees.snapshot.EmployeeSnapshot;
+import com.example.rqchallenge.employees.snapshot.EmployeeSort;
+import com.example.rqchallenge.employees.snapshot.EmployeeStats;
+import com.example.rqchallenge.employees.snapshot.SnapshotValue;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
+/**
+ * Handlers return futures so that a slow upstream does not hold a Tomcat thread; the request is
+ * completed from whichever thread completes the upstream call. Answers served from a stale snapshot
+ * carry a Warning 110 and an Age header. Listing pages report the number of matching employees in
+ * X-Total-Count and how to continue in X-Next-Cursor. Lists are written straight from the snapshot as they
+ * are serialized, as a JSON array or, for application/x-ndjson, one employee per line.
+ * <p>
+ * Answers read from a snapshot carry its version as a weak ETag and its modification time as Last-Modified,
+ * and may be cached for employees.http.max-age, after which they must be revalidated. A GET whose
+ * If-None-Match holds the current ETag is answered 304 without serializing anything. The whole listing, the
+ * highest salary and the top ten names are written from bodies rendered once per snapshot version and media
+ * type, gzipped when the client accepts it; see {@link RenderedResponses}.
+ * <p>
+ * /changes streams what changes as Server-Sent Events: a "changes" event per new version, with the version as
+ * its id, or a "reset" event when the client has to read the listing again. A client reconnecting with
+ * Last-Event-ID, or since set to a version or ETag, first gets the changes it missed; see
+ * {@link EmployeeChangeFeed}.
+ * <p>
+ * With employees.writes.mode=write-behind a create or delete is answered 202 Accepted with the operation, whose
+ * outcome /operations/{id}, the Location of the answer, reports; see {@link EmployeeOperations}.
+ */
 @RestController
 @RequestMapping("/v1/employees")
 public class EmployeeController implements IEmployeeController {
+    static final String TOTAL_COUNT = "X-Total-Count";
+    static final String NEXT_CURSOR = "X-Next-Cursor";
 
-    //TODO: implement rate limiting with resilience4j?
-    //TODO: use @Retryable retry with exponential backoff if it fails on 429 error
     //TODO: more detailed api documentation with OpenApi
     //TODO: securet api with spring security
 
     private final EmployeeService employeeService;
+    private final ObjectMapper objectMapper;
+    private final RenderedResponses renderedResponses;
+    private final Optional<EmployeeOperations> operations;
 
-    public EmployeeController(EmployeeService employeeService) {
+    @Value("${employees.http.max-age:0s}")
+    private Duration maxAge;
+
+    @Value("${employees.changes.timeout:30m}")
+    private Duration changesTimeout;
+
+    public EmployeeController(EmployeeService employeeService, ObjectMapper objectMapper,
+                              RenderedResponses renderedResponses, Optional<EmployeeOperations> operations) {
         this.employeeService = employeeService;
+        this.objectMapper = objectMapper;
+        this.renderedResponses = renderedResponses;
+        this.operations = operations;
     }
 
     @Override
     @GetMapping()
-    public ResponseEntity<List<Employee>> getAllEmployees() throws IOException {
-        List<Employee> employees = employeeService.getEmployees();
-        return ResponseEntity.ok(employees);
+    public CompletableFuture<ResponseEntity<?>> getAllEmployees(Integer minSalary, Integer maxSalary,
+                                                                Integer minAge, Integer maxAge,
+                                                                String sort, String cursor, int offset,
+                                                                Integer limit, List<String> fields,
+                                                                String accept, String acceptEncoding) throws IOException {
+        EmployeeQuery query = query(minSalary, maxSalary, minAge, maxAge, sort, cursor, offset, limit);
+        FilterProvider filters = filters(fields);
+        if (filters == null && !query.isFiltered() && sort == null && cursor == null && offset == 0 && limit == null) {
+            return employeeService.getEmployeePageAsync(query)
+                    .<ResponseEntity<?>>thenApply(result -> rendered(page(result), result.getSnapshot(), "employees",
+                            () -> result.getValue().getEmployees(), accept, acceptEncoding));
+        }
+        MappingJacksonValue projection = new MappingJacksonValue(List.of());
+        if (filters != null) {
+            projection.setFilters(filters);
+        }
+        return employeeService.getEmployeePageAsync(query).<ResponseEntity<?>>thenApply(result -> {
+            projection.setValue(result.getValue().getEmployees());
+            return page(result).body(projection);
+        });
+    }
+
+    @Override
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> streamAllEmployees(Integer minSalary, Integer maxSalary,
+                                                                                       Integer minAge, Integer maxAge,
+                                                                                       String sort, String cursor, int offset,
+                                                                                       Integer limit, List<String> fields,
+                                                                                       String ifNoneMatch) {
+        EmployeeQuery query = query(minSalary, maxSalary, minAge, maxAge, sort, cursor, offset, limit);
+        FilterProvider filters = filters(fields);
+        ObjectWriter writer = (filters != null ? objectMapper.writer(filters) : objectMapper.writer())
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n");
+        return employeeService.getEmployeePageAsync(query).thenApply(result -> {
+            // Unlike other bodies, a StreamingResponseBody gets no conditional request handling from Spring MVC
+            if (matches(ifNoneMatch, etag(result.getSnapshot()))) {
+                return from(ResponseEntity.status(HttpStatus.NOT_MODIFIED), result.getSnapshot())
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .<StreamingResponseBody>build();
+            }
+            List<Employee> employees = result.getValue().getEmployees();
+            StreamingResponseBody body = out -> writeLines(writer, employees, out);
+            return page(result).contentType(MediaType.APPLICATION_NDJSON).body(body);
+        });
+    }
+
+    @Override
+    public SseEmitter streamEmployeeChanges(String since, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(changesTimeout.toMillis());
+        Runnable unsubscribe = employeeService.subscribeToChanges(since != null ? since : lastEventId,
+                new EmployeeChangeFeed.Subscriber() {
+                    @Override
+                    public void changes(EmployeeChanges changes) throws IOException {
+                        emitter.send(SseEmitter.event()
+                                .id(changes.getVersion())
+                                .name("changes")
+                                .data(changes, MediaType.APPLICATION_JSON));
+                    }
+
+                    @Override
+                    public void reset(String version) throws IOException {
+                        emitter.send(SseEmitter.event().id(version).name("reset").data(version));
+                    }
+                });
+        // Also called after a timeout or an error; the client reconnects with Last-Event-ID
+        emitter.onCompletion(unsubscribe);
+        return emitter;
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<List<Employee>>> getEmployeesByIds(List<String> ids) {
+        return employeeService.getEmployeesByIdsAsync(ids).thenApply(ResponseEntity::ok);
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<EmployeeStats>> getEmployeeStats(List<Double> percentiles, Integer salaryBucketWidth,
+                                                                             Integer ageBucketWidth, Integer topEarners) {
+        return employeeService.getEmployeeStatsAsync(percentiles, salaryBucketWidth, ageBucketWidth, topEarners)
+                .thenApply(this::ok);
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<List<Employee>>> getEmployeesByNameSearch(String searchString, Integer limit) {
+        return employeeService.searchEmployeesByNameAsync(searchString, limit).thenApply(this::ok);
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<Employee>> getEmployeeById(String id) {
+        return employeeService.getEmployeeByIdAsync(id).thenApply(ResponseEntity::ok);
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<byte[]>> getHighestSalaryOfEmployees(String accept, String acceptEncoding) {
+        return employeeService.getHighestSalaryOfEmployeesAsync().thenApply(result ->
+                rendered(from(ResponseEntity.ok(), result.getSnapshot()).varyBy(HttpHeaders.ACCEPT), result.getSnapshot(),
+                        "highestSalary", result::getValue, accept, acceptEncoding));
     }
 
     @Override
-    public ResponseEntity<List<Employee>> getEmployeesByNameSearch(String searchString) {
-        List<Employee> employees = employeeService.getEmployeeByName(searchString);
-        return ResponseEntity.ok(employees);
+    public CompletableFuture<ResponseEntity<byte[]>> getTopTenHighestEarningEmployeeNames(String accept, String acceptEncoding) {
+        return employeeService.getTopTenHighestEarningEmployeeNamesAsync().thenApply(result ->
+                rendered(from(ResponseEntity.ok(), result.getSnapshot()).varyBy(HttpHeaders.ACCEPT), result.getSnapshot(),
+                        "topTenHighestEarningEmployeeNames", result::getValue, accept, acceptEncoding));
     }
 
     @Override
-    public ResponseEntity<Employee> getEmployeeById(String id) {
-        Employee employee = employeeService.getEmployeeById(id);
-        return ResponseEntity.ok(employee);
+    public CompletableFuture<ResponseEntity<List<Employee>>> getTopEarners(int n) {
+        return employeeService.getTopEarnersAsync(n).thenApply(this::ok);
     }
 
     @Override
-    public ResponseEntity<Integer> getHighestSalaryOfEmployees() {
-        Integer salary = employeeService.getHighestSalaryOfEmployees();
-        return ResponseEntity.ok(salary);
+    public CompletableFuture<ResponseEntity<?>> createEmployee(@RequestBody Map<String, Object> employeeInput, String idempotencyKey) {
+        if (operations.isPresent()) {
+            return CompletableFuture.completedFuture(accepted(operations.get().create(employeeInput, idempotencyKey)));
+        }
+        return employeeService.createEmployeeAsync(employeeInput).thenApply(ResponseEntity::ok);
     }
 
     @Override
-    public ResponseEntity<List<String>> getTopTenHighestEarningEmployeeNames() {
-        List<String> topEarners = employeeService.getTopTenHighestEarningEmployeeNames();
-        return ResponseEntity.ok(topEarners);
+    public CompletableFuture<ResponseEntity<?>> deleteEmployeeById(String id, String idempotencyKey) {
+        if (operations.isPresent()) {
+            return CompletableFuture.completedFuture(accepted(operations.get().delete(id, idempotencyKey)));
+        }
+        return employeeService.deleteEmployeeAsync(id).thenApply(ResponseEntity::ok);
     }
+
+    @Override
+    public CompletableFuture<ResponseEntity<EmployeeOperation>> getOperation(String id) {
+        EmployeeOperation operation = operations.flatMap(writes -> writes.get(id))
+                .orElseThrow(() -> new OperationNotFoundException(id));
+        return CompletableFuture.completedFuture(ResponseEntity.ok(operation));
+    }
+
     @Override
-    public ResponseEntity<Employee> createEmployee(@RequestBody Map<String, Object> employeeInput) {
-        Employee employee = employeeService.createEmployee(employeeInput);
-        return ResponseEntity.ok(employee);
+    public CompletableFuture<ResponseEntity<BatchResult>> createEmployees(List<Map<String, Object>> employeeInputs) {
+        return employeeService.createEmployeesAsync(employeeInputs).thenApply(ResponseEntity::ok);
     }
 
     @Override
-    public ResponseEntity<String> deleteEmployeeById(String id) {
-        return ResponseEntity.ok(employeeService.deleteEmployee(id));
+    public CompletableFuture<ResponseEntity<BatchResult>> deleteEmployees(List<String> ids) {
+        return employeeService.deleteEmployeesAsync(ids).thenApply(ResponseEntity::ok);
+    }
+
+    private static ResponseEntity<EmployeeOperation> accepted(EmployeeOperation operation) {
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/v1/employees/operations/{id}")
+                        .buildAndExpand(operation.getId())
+                        .toUri())
+                .body(operation);
+    }
+
+    private <T> ResponseEntity<T> ok(SnapshotValue<T> result) {
+        return from(ResponseEntity.ok(), result.getSnapshot()).body(result.getValue());
+    }
+
+    private ResponseEntity.BodyBuilder from(ResponseEntity.BodyBuilder response, EmployeeSnapshot snapshot) {
+        response.eTag(etag(snapshot))
+                .lastModified(snapshot.getModifiedAt())
+                .cacheControl(maxAge.isZero() ? CacheControl.noCache() : CacheControl.maxAge(maxAge));
+        if (snapshot.isStale()) {
+            response.header(HttpHeaders.WARNING, "110 - \"Response is Stale\"")
+                    .header(HttpHeaders.AGE, String.valueOf(Duration.between(snapshot.getFetchedAt(), Instant.now()).toSeconds()));
+        }
+        return response;
+    }
+
+    // Whichever request first asks for the answer of a new snapshot version renders it for the others
+    private ResponseEntity<byte[]> rendered(ResponseEntity.BodyBuilder response, EmployeeSnapshot snapshot, String name,
+                                            Supplier<?> value, String accept, String acceptEncoding) {
+        MediaType mediaType = renderedResponses.mediaType(accept);
+        RenderedResponses.Body body = renderedResponses.get(snapshot, name, mediaType, value);
+        response.contentType(mediaType)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (body.getGzip() != null && RenderedResponses.acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.getGzip());
+        }
+        return response.body(body.getBytes());
+    }
+
+    // The JSON and NDJSON listings share their URL and so their validators
+    private ResponseEntity.BodyBuilder page(SnapshotValue<EmployeePage> result) {
+        EmployeePage page = result.getValue();
+        ResponseEntity.BodyBuilder response = from(ResponseEntity.ok(), result.getSnapshot())
+                .varyBy(HttpHeaders.ACCEPT)
+                .header(TOTAL_COUNT, String.valueOf(page.getTotal()));
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR, page.getNextCursor());
+        }
+        return response;
+    }
+
+    // Weak, as the same version is served in several representations
+    private static String etag(EmployeeSnapshot snapshot) {
+        return "W/\"" + snapshot.getVersionTag() + "\"";
+    }
+
+    // Weak comparison, as for If-None-Match
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = etag.substring(2);
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*") || (candidate.startsWith("W/") ? candidate.substring(2) : candidate).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static EmployeeQuery query(Integer minSalary, Integer maxSalary, Integer minAge, Integer maxAge,
+                                       String sort, String cursor, int offset, Integer limit) {
+        return EmployeeQuery.builder()
+                .minSalary(minSalary)
+                .maxSalary(maxSalary)
+                .minAge(minAge)
+                .maxAge(maxAge)
+                .sort(sort != null ? EmployeeSort.parse(sort) : null)
+                .cursor(cursor)
+                .offset(offset)
+                .limit(limit)
+                .build();
+    }
+
+    // Only the requested employee properties are written; all of them when no fields are given
+    private static FilterProvider filters(List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return null;
+        }
+        Set<String> properties = new HashSet<>(fields);
+        if (!JacksonConfig.EMPLOYEE_FIELDS.containsAll(properties)) {
+            throw new InvalidRequestException("fields must be among " + JacksonConfig.EMPLOYEE_FIELDS);
+        }
+        return new SimpleFilterProvider().addFilter(JacksonConfig.EMPLOYEE_FIELDS_FILTER,
+                SimpleBeanPropertyFilter.filterOutAllExcept(properties));
+    }
+
+    // One employee per line, written to the response as it is serialized
+    private static void writeLines(ObjectWriter writer, List<Employee> employees, OutputStream out) throws IOException {
+        if (employees.isEmpty()) {
+            return;
+        }
+        try (SequenceWriter lines = writer.writeValues(out)) {
+            for (Employee employee : employees) {
+                lines.write(employee);
+            }
+        }
+        out.write('\n');
     }
 
 }
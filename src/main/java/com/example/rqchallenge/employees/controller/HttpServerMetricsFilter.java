@@ -0,0 +1,158 @@
+package com.example.rqchallenge.employees.controller;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTags;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request metrics Spring Boot does not record itself: http.server.requests.active counts the requests being
+ * handled, async ones until they complete, and http.server.response.size records the body bytes written per
+ * request, tagged like http.server.requests. Only bytes written through the output stream are counted, which
+ * is how Spring MVC writes bodies.
+ */
+@Component
+public class HttpServerMetricsFilter extends OncePerRequestFilter {
+    static final String ACTIVE = "http.server.requests.active";
+    static final String RESPONSE_SIZE = "http.server.response.size";
+
+    private final MeterRegistry registry;
+    private final AtomicInteger active;
+
+    public HttpServerMetricsFilter(MeterRegistry registry) {
+        this.registry = registry;
+        this.active = registry.gauge(ACTIVE, new AtomicInteger());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CountingResponse counting = new CountingResponse(response);
+        active.incrementAndGet();
+        boolean async = false;
+        try {
+            chain.doFilter(request, counting);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(request, counting));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                complete(request, counting);
+            }
+        }
+    }
+
+    private void complete(HttpServletRequest request, CountingResponse response) {
+        active.decrementAndGet();
+        DistributionSummary.builder(RESPONSE_SIZE)
+                .description("Response body sizes")
+                .baseUnit(BaseUnits.BYTES)
+                .tags(Tags.of(WebMvcTags.method(request), WebMvcTags.uri(request, response), WebMvcTags.status(response)))
+                .register(registry)
+                .record(response.bytes.get());
+    }
+
+    private final class CompletionListener implements AsyncListener {
+        private final HttpServletRequest request;
+        private final CountingResponse response;
+
+        CompletionListener(HttpServletRequest request, CountingResponse response) {
+            this.request = request;
+            this.response = response;
+        }
+
+        // Also called after a timeout or an error, once the request has been completed
+        @Override
+        public void onComplete(AsyncEvent event) {
+            complete(request, response);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+        private final AtomicLong bytes = new AtomicLong();
+        private ServletOutputStream outputStream;
+
+        CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new CountingOutputStream(super.getOutputStream(), bytes);
+            }
+            return outputStream;
+        }
+    }
+
+    private static final class CountingOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+        private final AtomicLong bytes;
+
+        CountingOutputStream(ServletOutputStream delegate, AtomicLong bytes) {
+            this.delegate = delegate;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            bytes.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            bytes.addAndGet(len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
@@ -1,35 +1,96 @@
 package com.example.rqchallenge.employees.controller;
 
+import com.example.rqchallenge.employees.dto.BatchResult;
 import com.example.rqchallenge.employees.dto.Employee;
+import com.example.rqchallenge.employees.dto.EmployeeOperation;
+import com.example.rqchallenge.employees.snapshot.EmployeeStats;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 public interface IEmployeeController {
+    String IDEMPOTENCY_KEY = "Idempotency-Key";
 
     @GetMapping()
-    ResponseEntity<List<Employee>> getAllEmployees() throws IOException;
+    CompletableFuture<ResponseEntity<?>> getAllEmployees(@RequestParam(required = false) Integer minSalary,
+                                                         @RequestParam(required = false) Integer maxSalary,
+                                                         @RequestParam(required = false) Integer minAge,
+                                                         @RequestParam(required = false) Integer maxAge,
+                                                         @RequestParam(required = false) String sort,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(defaultValue = "0") int offset,
+                                                         @RequestParam(required = false) Integer limit,
+                                                         @RequestParam(required = false) List<String> fields,
+                                                         @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+                                                         @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) throws IOException;
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    CompletableFuture<ResponseEntity<StreamingResponseBody>> streamAllEmployees(@RequestParam(required = false) Integer minSalary,
+                                                                                @RequestParam(required = false) Integer maxSalary,
+                                                                                @RequestParam(required = false) Integer minAge,
+                                                                                @RequestParam(required = false) Integer maxAge,
+                                                                                @RequestParam(required = false) String sort,
+                                                                                @RequestParam(required = false) String cursor,
+                                                                                @RequestParam(defaultValue = "0") int offset,
+                                                                                @RequestParam(required = false) Integer limit,
+                                                                                @RequestParam(required = false) List<String> fields,
+                                                                                @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch);
+
+    @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    SseEmitter streamEmployeeChanges(@RequestParam(required = false) String since,
+                                     @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId);
+
+    @GetMapping(params = "ids")
+    CompletableFuture<ResponseEntity<List<Employee>>> getEmployeesByIds(@RequestParam List<String> ids);
+
+    @GetMapping("/stats")
+    CompletableFuture<ResponseEntity<EmployeeStats>> getEmployeeStats(@RequestParam(required = false) List<Double> percentiles,
+                                                                      @RequestParam(required = false) Integer salaryBucketWidth,
+                                                                      @RequestParam(required = false) Integer ageBucketWidth,
+                                                                      @RequestParam(required = false) Integer topEarners);
 
     @GetMapping("/search/{searchString}")
-    ResponseEntity<List<Employee>> getEmployeesByNameSearch(@PathVariable String searchString);
+    CompletableFuture<ResponseEntity<List<Employee>>> getEmployeesByNameSearch(@PathVariable String searchString,
+                                                                               @RequestParam(required = false) Integer limit);
 
     @GetMapping("/{id}")
-    ResponseEntity<Employee> getEmployeeById(@PathVariable String id);
+    CompletableFuture<ResponseEntity<Employee>> getEmployeeById(@PathVariable String id);
 
     @GetMapping("/highestSalary")
-    ResponseEntity<Integer> getHighestSalaryOfEmployees();
+    CompletableFuture<ResponseEntity<byte[]>> getHighestSalaryOfEmployees(@RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+                                                                          @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding);
 
     @GetMapping("/topTenHighestEarningEmployeeNames")
-    ResponseEntity<List<String>> getTopTenHighestEarningEmployeeNames();
+    CompletableFuture<ResponseEntity<byte[]>> getTopTenHighestEarningEmployeeNames(@RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+                                                                                   @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding);
+
+    @GetMapping("/topEarners")
+    CompletableFuture<ResponseEntity<List<Employee>>> getTopEarners(@RequestParam(defaultValue = "10") int n);
 
     @PostMapping()
-    ResponseEntity<Employee> createEmployee(@RequestBody Map<String, Object> employeeInput);
+    CompletableFuture<ResponseEntity<?>> createEmployee(@RequestBody Map<String, Object> employeeInput,
+                                                        @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey);
 
     @DeleteMapping("/{id}")
-    ResponseEntity<String> deleteEmployeeById(@PathVariable String id);
+    CompletableFuture<ResponseEntity<?>> deleteEmployeeById(@PathVariable String id,
+                                                            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey);
+
+    @GetMapping("/operations/{id}")
+    CompletableFuture<ResponseEntity<EmployeeOperation>> getOperation(@PathVariable String id);
+
+    @PostMapping("/batch")
+    CompletableFuture<ResponseEntity<BatchResult>> createEmployees(@RequestBody List<Map<String, Object>> employeeInputs);
+
+    @DeleteMapping("/batch")
+    CompletableFuture<ResponseEntity<BatchResult>> deleteEmployees(@RequestBody List<String> ids);
 
 }
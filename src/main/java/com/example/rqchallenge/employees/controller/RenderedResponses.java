@@ -0,0 +1,151 @@
+package com.example.rqchallenge.employees.controller;
+
+import com.example.rqchallenge.employees.config.JacksonConfig;
+import com.example.rqchallenge.employees.snapshot.EmployeeSnapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bodies of the most requested answers, serialized once per snapshot version and media type (JSON, Smile or
+ * CBOR, see JacksonConfig) and kept with a gzip copy compressed at the best level, as it is only compressed
+ * once. Keyed by version rather than by snapshot, so a snapshot marked stale reuses the bodies of the one it
+ * was copied from. Bodies too small to gain from compression have no gzip copy. Older versions are evicted
+ * once the cache outgrows employees.http.rendered.max-size.
+ */
+@Component
+public class RenderedResponses {
+    static final String CACHE_NAME = "rendered-responses";
+    // Same as the default server.compression.min-response-size
+    static final int MIN_COMPRESSED_SIZE = 2048;
+
+    // In order of preference when the client accepts several
+    private final Map<MediaType, ObjectMapper> objectMappers;
+    private final Cache<Key, Body> cache;
+
+    public RenderedResponses(ObjectMapper objectMapper, MappingJackson2SmileHttpMessageConverter smileConverter,
+                             MappingJackson2CborHttpMessageConverter cborConverter, MeterRegistry meterRegistry,
+                             @Value("${employees.http.rendered.max-size:64MB}") DataSize maxSize) {
+        this.objectMappers = new LinkedHashMap<>();
+        objectMappers.put(MediaType.APPLICATION_JSON, objectMapper);
+        objectMappers.put(JacksonConfig.APPLICATION_SMILE, smileConverter.getObjectMapper());
+        objectMappers.put(MediaType.APPLICATION_CBOR, cborConverter.getObjectMapper());
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Key key, Body body) -> body.size())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * The body of the named answer for this snapshot, rendering the value on the first request for its version
+     * in this media type, which must be one of {@link #mediaType(String)}'s.
+     */
+    public Body get(EmployeeSnapshot snapshot, String name, MediaType mediaType, Supplier<?> value) {
+        return cache.get(new Key(snapshot.getVersion(), name, mediaType),
+                key -> render(objectMappers.get(mediaType), value.get()));
+    }
+
+    /**
+     * The media type to answer an Accept header with: the client's most preferred one that can be rendered,
+     * JSON when it accepts none of them.
+     */
+    public MediaType mediaType(String accept) {
+        if (accept == null) {
+            return MediaType.APPLICATION_JSON;
+        }
+        try {
+            List<MediaType> acceptable = MediaType.parseMediaTypes(accept);
+            MediaType.sortBySpecificityAndQuality(acceptable);
+            for (MediaType type : acceptable) {
+                for (MediaType renderable : objectMappers.keySet()) {
+                    if (type.getQualityValue() > 0 && type.includes(renderable)) {
+                        return renderable;
+                    }
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            // Answered as if anything was accepted
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    private Body render(ObjectMapper objectMapper, Object value) {
+        try {
+            byte[] bytes = objectMapper.writeValueAsBytes(value);
+            return new Body(bytes, bytes.length >= MIN_COMPRESSED_SIZE ? gzip(bytes) : null);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed, 8192) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    // Whether an Accept-Encoding header lets the answer be sent gzipped
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                return parameters.length < 2 || !parameters[1].trim().matches("(?i)q\\s*=\\s*0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    @lombok.Value
+    private static class Key {
+        long version;
+        String name;
+        MediaType mediaType;
+    }
+
+    /**
+     * Shared between requests and so never to be modified.
+     */
+    @lombok.Value
+    public static class Body {
+        byte[] bytes;
+        byte[] gzip;
+
+        int size() {
+            return bytes.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.rqchallenge.employees.controller;
+
+import com.example.rqchallenge.employees.config.ReplicaConfig;
+import com.example.rqchallenge.employees.dto.Employee;
+import com.example.rqchallenge.employees.replica.ReplicaCoherence;
+import com.example.rqchallenge.employees.snapshot.EmployeeSnapshot;
+import com.example.rqchallenge.employees.snapshot.EmployeeSnapshotLoader;
+import com.example.rqchallenge.employees.snapshot.EmployeeSnapshotStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * What the other replicas pull: the employees as last fetched from the upstream, without the writes this
+ * replica still has pending, which reach the others as patches instead; and, for a replica whose snapshot
+ * diverged from this one, the employees as patched here. Both carry their version as the ETag. 404 until
+ * there is a snapshot. Only registered when there is a transport and employees.replicas.url, without which no
+ * other replica is told to pull from this one.
+ */
+@RestController
+@ConditionalOnExpression("'${" + ReplicaConfig.TRANSPORT_PROPERTY + ":none}' != 'none' && '${" + ReplicaConfig.URL_PROPERTY + ":}' != ''")
+public class ReplicaController {
+    private final EmployeeSnapshotLoader loader;
+    private final EmployeeSnapshotStore store;
+
+    public ReplicaController(EmployeeSnapshotLoader loader, EmployeeSnapshotStore store) {
+        this.loader = loader;
+        this.store = store;
+    }
+
+    @GetMapping(ReplicaCoherence.SNAPSHOT_PATH)
+    public ResponseEntity<List<Employee>> getFetchedSnapshot() {
+        return snapshot(loader.lastKnownGood());
+    }
+
+    @GetMapping(ReplicaCoherence.PATCHED_SNAPSHOT_PATH)
+    public ResponseEntity<List<Employee>> getPatchedSnapshot() {
+        return snapshot(store.peek());
+    }
+
+    private static ResponseEntity<List<Employee>> snapshot(Optional<EmployeeSnapshot> snapshot) {
+        return snapshot
+                .map(found -> ResponseEntity.ok().eTag(found.getVersionTag()).body(found.getEmployees()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
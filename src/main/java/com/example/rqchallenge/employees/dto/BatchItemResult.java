@@ -0,0 +1,28 @@
+package com.example.rqchallenge.employees.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one item of a batch, at the position of the item in the request. Carries the created or
+ * deleted employee on success and the reason on failure.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+    private int index;
+    private String id;
+    private Status status;
+    private Employee employee;
+    private String error;
+
+    public enum Status {
+        SUCCEEDED, FAILED
+    }
+}
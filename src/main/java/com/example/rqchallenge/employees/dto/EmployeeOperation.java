@@ -0,0 +1,52 @@
+package com.example.rqchallenge.employees.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A create or delete accepted for writing behind. The employee of a create carries a provisional negative id
+ * until the upstream created it, then the upstream's; the employee of a delete is the one deleted, when known.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EmployeeOperation {
+    private String id;
+    private Type type;
+    private Status status;
+    private String idempotencyKey;
+    private Map<String, Object> input;
+    // Employee to delete; for a create, its provisional id
+    private String employeeId;
+    private Employee employee;
+    private int attempts;
+    private String error;
+    private Instant acceptedAt;
+    private Instant completedAt;
+
+    public EmployeeOperation copy() {
+        return toBuilder().build();
+    }
+
+    public enum Type {
+        CREATE, DELETE
+    }
+
+    public enum Status {
+        PENDING, SUCCEEDED, FAILED,
+        // A create deleted again before it was sent
+        CANCELLED;
+
+        public boolean isDone() {
+            return this != PENDING;
+        }
+    }
+}
@@ -1,4 +1,7 @@
 package com.example.rqchallenge.employees.exception;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -19,4 +22,22 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(OperationNotFoundException.class)
+    public ResponseEntity<?> handleOperationNotFoundException(OperationNotFoundException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
+    }
+
+    // The upstream is shielded by an open circuit breaker, an exhausted rate limiter or a full bulkhead,
+    // or too many writes are waiting for it
+    @ExceptionHandler({CallNotPermittedException.class, RequestNotPermitted.class, BulkheadFullException.class,
+            WriteQueueFullException.class})
+    public ResponseEntity<?> handleUpstreamUnavailable(Exception ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<?> handleInvalidRequestException(InvalidRequestException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
 }
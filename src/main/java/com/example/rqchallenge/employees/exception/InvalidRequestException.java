@@ -0,0 +1,9 @@
+package com.example.rqchallenge.employees.exception;
+
+// A request parameter or body the caller has to correct; answered with 400 and the message
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
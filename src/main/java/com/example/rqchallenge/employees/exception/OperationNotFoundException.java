@@ -0,0 +1,8 @@
+package com.example.rqchallenge.employees.exception;
+
+public class OperationNotFoundException extends RuntimeException {
+
+    public OperationNotFoundException(String id) {
+        super("Operation not found for id: " + id);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.rqchallenge.employees.exception;
+
+public class WriteQueueFullException extends RuntimeException {
+
+    public WriteQueueFullException(int maxPending) {
+        super("Too many writes pending, at most " + maxPending + " are queued");
+    }
+}
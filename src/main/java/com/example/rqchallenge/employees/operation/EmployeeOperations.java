@@ -0,0 +1,647 @@
+package com.example.rqchallenge.employees.operation;
+
+import com.example.rqchallenge.employees.client.EmployeeApiClient;
+import com.example.rqchallenge.employees.client.Futures;
+import com.example.rqchallenge.employees.client.UpstreamFailures;
+import com.example.rqchallenge.employees.config.CacheConfig;
+import com.example.rqchallenge.employees.config.EmployeeWriteProperties;
+import com.example.rqchallenge.employees.dto.Employee;
+import com.example.rqchallenge.employees.dto.EmployeeOperation;
+import com.example.rqchallenge.employees.exception.EmployeeNotFoundException;
+import com.example.rqchallenge.employees.exception.WriteQueueFullException;
+import com.example.rqchallenge.employees.replica.ReplicaCoherence;
+import com.example.rqchallenge.employees.snapshot.EmployeeSnapshot;
+import com.example.rqchallenge.employees.snapshot.EmployeeSnapshotStore;
+import com.example.rqchallenge.employees.snapshot.PendingEmployeeWrites;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Writes creates and deletes behind when employees.writes.mode is write-behind. An accepted operation is logged to
+ * local disk before it is answered and applied to the snapshot, and those of the other replicas, right away; a
+ * created employee carries a provisional negative id until the upstream created it. One of employees.writes.workers
+ * workers then writes it to the upstream. Operations on the same employee go to the same worker in the order they
+ * were accepted, and a worker takes up to employees.writes.batch-size of them at once, logging their outcome with a
+ * single write and patching the snapshot once. Transient upstream failures are retried with exponential backoff;
+ * while a failed operation waits for its retry, later ones on the same employee wait behind it and its worker goes
+ * on with the others.
+ * <p>
+ * Only in-memory state changes under the lock, so reading an operation never waits for the disk or the other
+ * replicas. Log lines and patches are queued under it, in the order the changes were made, and written and
+ * applied after it is released: the log by group commit, see {@link OperationLog}, and patches in queue order.
+ * <p>
+ * Operations still pending when the service stops are written when it starts again, so each reaches the upstream at
+ * least once: one written just before a crash is written again. A request repeating an Idempotency-Key gets the
+ * operation accepted for it the first time, as long as that operation is still retained.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = EmployeeWriteProperties.MODE_PROPERTY, havingValue = EmployeeWriteProperties.WRITE_BEHIND)
+@EnableConfigurationProperties(EmployeeWriteProperties.class)
+public class EmployeeOperations {
+    private final EmployeeApiClient employeeApiClient;
+    private final EmployeeSnapshotStore store;
+    private final PendingEmployeeWrites pendingWrites;
+    private final ReplicaCoherence replicas;
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+    private final EmployeeWriteProperties properties;
+    private final OperationLog operationLog;
+    private final List<BlockingQueue<EmployeeOperation>> lanes;
+    private final ExecutorService workers;
+    // Guarded by this: pending operations and the most recently finished ones, in the order they were accepted
+    private final Map<String, EmployeeOperation> operations = new LinkedHashMap<>();
+    private final Deque<String> finished = new ArrayDeque<>();
+    private final Map<String, String> byIdempotencyKey = new HashMap<>();
+    // Retained creates by provisional id, the upstream id of those written, and pending deletes by employee id
+    private final Map<String, String> creates = new HashMap<>();
+    private final Map<String, Long> createdIds = new HashMap<>();
+    private final Map<String, EmployeeOperation> deletes = new HashMap<>();
+    // Patches to the snapshots in the order the changes behind them were made
+    private final Deque<Runnable> patches = new ArrayDeque<>();
+    private final Object patching = new Object();
+    private int pending;
+
+    public EmployeeOperations(EmployeeApiClient employeeApiClient, EmployeeSnapshotStore store,
+                              PendingEmployeeWrites pendingWrites, ReplicaCoherence replicas, CacheManager cacheManager,
+                              ObjectMapper objectMapper, EmployeeWriteProperties properties) {
+        this.employeeApiClient = employeeApiClient;
+        this.store = store;
+        this.pendingWrites = pendingWrites;
+        this.replicas = replicas;
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.operationLog = new OperationLog(properties.getLog(), objectMapper, properties.isSync());
+        this.lanes = IntStream.range(0, Math.max(1, properties.getWorkers()))
+                .mapToObj(lane -> new LinkedBlockingQueue<EmployeeOperation>())
+                .collect(Collectors.toList());
+        this.workers = Executors.newFixedThreadPool(lanes.size(), new CustomizableThreadFactory("employee-writer-"));
+        resume();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        log.info("Writing employee operations behind with {} workers, {} pending", lanes.size(), pending());
+        lanes.forEach(lane -> workers.execute(() -> work(lane)));
+    }
+
+    public synchronized Optional<EmployeeOperation> get(String id) {
+        return Optional.ofNullable(operations.get(id)).map(EmployeeOperation::copy);
+    }
+
+    public synchronized int pending() {
+        return pending;
+    }
+
+    public EmployeeOperation create(Map<String, Object> employeeInput, String idempotencyKey) {
+        Employee employee = objectMapper.convertValue(employeeInput, Employee.class);
+        employee.setId(-ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE));
+        Accepted accepted;
+        synchronized (this) {
+            Optional<EmployeeOperation> repeated = repeated(idempotencyKey);
+            if (repeated.isPresent()) {
+                return repeated.get();
+            }
+            accepted = accept(newCreate(employeeInput, idempotencyKey, employee));
+            patches.add(() -> replicas.patchPending(List.of(employee), List.of()));
+        }
+        return written(accepted);
+    }
+
+    private EmployeeOperation newCreate(Map<String, Object> employeeInput, String idempotencyKey, Employee employee) {
+        return EmployeeOperation.builder()
+                .id(UUID.randomUUID().toString())
+                .type(EmployeeOperation.Type.CREATE)
+                .status(EmployeeOperation.Status.PENDING)
+                .idempotencyKey(idempotencyKey)
+                .input(employeeInput)
+                .employeeId(String.valueOf(employee.getId()))
+                .employee(employee)
+                .acceptedAt(Instant.now())
+                .build();
+    }
+
+    // A pending create deleted before a worker took it is cancelled instead of written; other deletes of pending
+    // creates are written after them, to the id the upstream gave the employee
+    public EmployeeOperation delete(String id, String idempotencyKey) {
+        Accepted accepted;
+        synchronized (this) {
+            Optional<EmployeeOperation> repeated = repeated(idempotencyKey);
+            if (repeated.isPresent()) {
+                return repeated.get();
+            }
+            accepted = acceptDelete(id, idempotencyKey);
+        }
+        return written(accepted);
+    }
+
+    private Accepted acceptDelete(String id, String idempotencyKey) {
+        String target = Optional.ofNullable(createdIds.get(id)).map(String::valueOf).orElse(id);
+        EmployeeOperation pendingDelete = deletes.get(target);
+        if (pendingDelete != null) {
+            return new Accepted(null, pendingDelete.copy(), null);
+        }
+        Long employeeId = parseId(target).orElseThrow(() -> new EmployeeNotFoundException(target));
+        EmployeeOperation create = operations.get(creates.get(target));
+        Employee employee;
+        if (create != null) {
+            if (create.getStatus() != EmployeeOperation.Status.PENDING) {
+                throw new EmployeeNotFoundException(employeeId);
+            }
+            employee = create.getEmployee();
+        } else {
+            // Without a loaded snapshot the upstream decides whether the employee exists
+            Optional<EmployeeSnapshot> snapshot = store.peek();
+            employee = snapshot.flatMap(loaded -> loaded.findById(employeeId)).orElse(null);
+            if (snapshot.isPresent() && employee == null) {
+                throw new EmployeeNotFoundException(employeeId);
+            }
+        }
+        EmployeeOperation operation = EmployeeOperation.builder()
+                .id(UUID.randomUUID().toString())
+                .type(EmployeeOperation.Type.DELETE)
+                .status(EmployeeOperation.Status.PENDING)
+                .idempotencyKey(idempotencyKey)
+                .employeeId(target)
+                .employee(employee)
+                .acceptedAt(Instant.now())
+                .build();
+        boolean cancelled = create != null && lane(create).remove(create);
+        Accepted accepted = cancelled ? cancel(create, operation) : accept(operation);
+        patches.add(() -> {
+            employeeCache().evict(employeeId);
+            if (cancelled) {
+                replicas.patchSettled(List.of(), List.of(employeeId), List.of(employeeId));
+            } else {
+                replicas.patchPending(List.of(), List.of(employeeId));
+            }
+        });
+        return accepted;
+    }
+
+    private Optional<EmployeeOperation> repeated(String idempotencyKey) {
+        return Optional.ofNullable(idempotencyKey)
+                .map(byIdempotencyKey::get)
+                .map(operations::get)
+                .map(EmployeeOperation::copy);
+    }
+
+    private Accepted accept(EmployeeOperation operation) {
+        if (pending >= properties.getMaxPending()) {
+            throw new WriteQueueFullException(properties.getMaxPending());
+        }
+        CompletableFuture<Void> logged = operationLog.queue(List.of(operation));
+        track(operation);
+        lane(operation).add(operation);
+        return new Accepted(operation, operation.copy(), logged);
+    }
+
+    // Both are logged as finished with one line each, so a restart never writes the create
+    private Accepted cancel(EmployeeOperation create, EmployeeOperation delete) {
+        Instant now = Instant.now();
+        delete.setStatus(EmployeeOperation.Status.SUCCEEDED);
+        delete.setCompletedAt(now);
+        EmployeeOperation cancelled = create.copy();
+        cancelled.setStatus(EmployeeOperation.Status.CANCELLED);
+        cancelled.setCompletedAt(now);
+        CompletableFuture<Void> logged = operationLog.queue(List.of(cancelled, delete));
+        finish(create, EmployeeOperation.Status.CANCELLED, null, null, now);
+        track(delete);
+        retain();
+        return new Accepted(null, delete.copy(), logged);
+    }
+
+    // Waits, outside the lock, for the accepted operation to be logged, then applies the patches queued up to it.
+    // One that could not be logged fails, unless a worker already took it
+    private EmployeeOperation written(Accepted accepted) {
+        if (accepted.getLogged() != null) {
+            operationLog.commit();
+            try {
+                accepted.getLogged().join();
+            } catch (CompletionException e) {
+                notLogged(accepted.getOperation());
+                applyPatches();
+                Throwable cause = Futures.unwrap(e);
+                if (cause instanceof IOException) {
+                    throw new UncheckedIOException("Could not log employee operation to " + operationLog.getPath(),
+                            (IOException) cause);
+                }
+                throw Futures.propagate(cause);
+            }
+        }
+        applyPatches();
+        return accepted.getAnswer();
+    }
+
+    private synchronized void notLogged(EmployeeOperation operation) {
+        if (operation == null || !lane(operation).remove(operation)) {
+            return;
+        }
+        finish(operation, EmployeeOperation.Status.FAILED, null, "Could not be logged", Instant.now());
+        List<Long> settled = parseId(operation.getEmployeeId()).map(List::of).orElse(List.of());
+        if (operation.getType() == EmployeeOperation.Type.CREATE) {
+            Long provisionalId = operation.getEmployee().getId();
+            patches.add(() -> replicas.patchSettled(List.of(), List.of(provisionalId), settled));
+        } else {
+            List<Employee> shown = shown(operation).map(List::of).orElse(List.of());
+            patches.add(() -> replicas.patchSettled(shown, List.of(), settled));
+        }
+        retain();
+    }
+
+    // Runs the queued patches in order; whoever holds patching runs those queued behind its own as well
+    private void applyPatches() {
+        synchronized (patching) {
+            for (Runnable patch = nextPatch(); patch != null; patch = nextPatch()) {
+                try {
+                    patch.run();
+                } catch (RuntimeException e) {
+                    log.warn("Could not patch the employee snapshot: {}", e.toString());
+                }
+            }
+        }
+    }
+
+    private synchronized Runnable nextPatch() {
+        return patches.poll();
+    }
+
+    // Indexes an operation and, while it is pending, applies its write to every snapshot loaded
+    private void track(EmployeeOperation operation) {
+        operations.put(operation.getId(), operation);
+        if (operation.getIdempotencyKey() != null) {
+            byIdempotencyKey.put(operation.getIdempotencyKey(), operation.getId());
+        }
+        if (operation.getType() == EmployeeOperation.Type.CREATE) {
+            creates.put(operation.getEmployeeId(), operation.getId());
+        }
+        if (operation.getStatus().isDone()) {
+            finished.add(operation.getId());
+            return;
+        }
+        pending++;
+        if (operation.getType() == EmployeeOperation.Type.CREATE) {
+            pendingWrites.created(operation.getEmployee());
+        } else {
+            deletes.put(operation.getEmployeeId(), operation);
+            parseId(operation.getEmployeeId()).ifPresent(pendingWrites::deleted);
+        }
+    }
+
+    private void finish(EmployeeOperation operation, EmployeeOperation.Status status, Employee employee,
+                        String error, Instant completedAt) {
+        operation.setStatus(status);
+        operation.setCompletedAt(completedAt);
+        operation.setError(error);
+        if (employee != null) {
+            operation.setEmployee(employee);
+        }
+        pending--;
+        if (operation.getType() == EmployeeOperation.Type.DELETE) {
+            deletes.remove(operation.getEmployeeId());
+        }
+        parseId(operation.getEmployeeId()).ifPresent(pendingWrites::settled);
+        finished.add(operation.getId());
+    }
+
+    // Forgets the oldest finished operations beyond employees.writes.retained-operations
+    private void retain() {
+        while (finished.size() > properties.getRetainedOperations()) {
+            EmployeeOperation evicted = operations.remove(finished.poll());
+            if (evicted == null) {
+                continue;
+            }
+            if (evicted.getIdempotencyKey() != null) {
+                byIdempotencyKey.remove(evicted.getIdempotencyKey(), evicted.getId());
+            }
+            if (evicted.getType() == EmployeeOperation.Type.CREATE) {
+                creates.remove(evicted.getEmployeeId(), evicted.getId());
+                createdIds.remove(evicted.getEmployeeId());
+            }
+        }
+    }
+
+    private BlockingQueue<EmployeeOperation> lane(EmployeeOperation operation) {
+        return lanes.get(Math.floorMod(operation.getEmployeeId().hashCode(), lanes.size()));
+    }
+
+    private void work(BlockingQueue<EmployeeOperation> lane) {
+        // Operations waiting for another attempt, by employee id; only this worker touches them
+        Map<String, Parked> parked = new HashMap<>();
+        List<EmployeeOperation> batch = new ArrayList<>(properties.getBatchSize());
+        List<Outcome> outcomes = new ArrayList<>(properties.getBatchSize());
+        while (!Thread.currentThread().isInterrupted()) {
+            // Operations still parked when interrupted stay pending in the log, to be written after a restart
+            try {
+                EmployeeOperation next = parked.isEmpty()
+                        ? lane.take()
+                        : lane.poll(untilDue(parked).toMillis(), TimeUnit.MILLISECONDS);
+                if (next != null) {
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            lane.drainTo(batch, Math.max(0, properties.getBatchSize() - batch.size()));
+            // Operations on an employee are written in the order they were accepted: those taken behind a parked
+            // one go first, and what is taken while one is parked waits behind it
+            List<EmployeeOperation> ready = new ArrayList<>();
+            for (Parked due : due(parked)) {
+                attempt(due.getOperation(), due.getAttempts() + 1, due.getBackoff(), parked, outcomes);
+                ready.addAll(due.getBehind());
+            }
+            ready.addAll(batch);
+            for (EmployeeOperation operation : ready) {
+                Parked waiting = parked.get(operation.getEmployeeId());
+                if (waiting != null) {
+                    waiting.getBehind().add(operation);
+                } else {
+                    attempt(operation, 1, properties.getInitialBackoff(), parked, outcomes);
+                }
+            }
+            try {
+                completed(outcomes);
+            } catch (RuntimeException e) {
+                log.warn("Could not complete {} employee operations: {}", outcomes.size(), e.toString());
+            }
+            batch.clear();
+            outcomes.clear();
+        }
+    }
+
+    // A transient failure parks the operation until its backoff, or the upstream's Retry-After, has passed
+    private void attempt(EmployeeOperation operation, int attempt, Duration backoff, Map<String, Parked> parked,
+                         List<Outcome> outcomes) {
+        Outcome outcome = execute(operation, attempt);
+        if (outcome.getStatus() != EmployeeOperation.Status.PENDING) {
+            outcomes.add(outcome);
+            return;
+        }
+        Duration delay = outcome.getRetryAfter().compareTo(backoff) > 0 ? outcome.getRetryAfter() : backoff;
+        Duration nextBackoff = backoff.multipliedBy(2).compareTo(properties.getMaxBackoff()) < 0
+                ? backoff.multipliedBy(2)
+                : properties.getMaxBackoff();
+        parked.put(operation.getEmployeeId(), new Parked(operation, attempt, nextBackoff, Instant.now().plus(delay)));
+    }
+
+    // Removes the parked operations due for another attempt
+    private static List<Parked> due(Map<String, Parked> parked) {
+        Instant now = Instant.now();
+        List<Parked> due = parked.values().stream()
+                .filter(waiting -> !waiting.getRetryAt().isAfter(now))
+                .collect(Collectors.toList());
+        due.forEach(waiting -> parked.remove(waiting.getOperation().getEmployeeId()));
+        return due;
+    }
+
+    private static Duration untilDue(Map<String, Parked> parked) {
+        Instant now = Instant.now();
+        return parked.values().stream()
+                .map(waiting -> Duration.between(now, waiting.getRetryAt()))
+                .min(Duration::compareTo)
+                .filter(delay -> !delay.isNegative())
+                .orElse(Duration.ZERO);
+    }
+
+    // One attempt at writing the operation; PENDING when it failed but is to be attempted again
+    private Outcome execute(EmployeeOperation operation, int attempt) {
+        try {
+            if (operation.getType() == EmployeeOperation.Type.CREATE) {
+                Employee created = Objects.requireNonNull(employeeApiClient.createEmployee(operation.getInput()),
+                        "No employee created");
+                synchronized (this) {
+                    createdIds.put(operation.getEmployeeId(), created.getId());
+                }
+                return new Outcome(operation, EmployeeOperation.Status.SUCCEEDED, created, null, attempt, null, null);
+            }
+            String id = upstreamId(operation.getEmployeeId());
+            employeeApiClient.deleteEmployee(id);
+            return new Outcome(operation, EmployeeOperation.Status.SUCCEEDED, null, Long.valueOf(id), attempt, null, null);
+        } catch (RuntimeException e) {
+            String error = Futures.unwrap(e).getMessage();
+            attempted(operation, attempt, error);
+            if (attempt >= properties.getMaxAttempts() || !isRetryable(e)) {
+                log.warn("Employee operation {} {} failed after {} attempts: {}",
+                        operation.getType(), operation.getId(), attempt, Futures.unwrap(e).toString());
+                return new Outcome(operation, EmployeeOperation.Status.FAILED, null, null, attempt, error, null);
+            }
+            return new Outcome(operation, EmployeeOperation.Status.PENDING, null, null, attempt, error,
+                    UpstreamFailures.retryAfter(e).orElse(Duration.ZERO));
+        }
+    }
+
+    // The employee a failed delete hid, as the upstream knows it
+    private Optional<Employee> shown(EmployeeOperation delete) {
+        if (!delete.getEmployeeId().startsWith("-")) {
+            return Optional.ofNullable(delete.getEmployee());
+        }
+        return Optional.ofNullable(operations.get(creates.get(delete.getEmployeeId())))
+                .filter(create -> create.getStatus() == EmployeeOperation.Status.SUCCEEDED)
+                .map(EmployeeOperation::getEmployee);
+    }
+
+    private synchronized void attempted(EmployeeOperation operation, int attempt, String error) {
+        operation.setAttempts(attempt);
+        operation.setError(error);
+    }
+
+    // A provisional id is deleted under the id the upstream gave the employee when it was created
+    private synchronized String upstreamId(String id) {
+        if (!id.startsWith("-")) {
+            return id;
+        }
+        Long created = createdIds.get(id);
+        if (created == null) {
+            throw new IllegalStateException("Employee " + id + " was never created");
+        }
+        return String.valueOf(created);
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        Throwable cause = Futures.unwrap(error);
+        return UpstreamFailures.isTransient(cause) || cause instanceof CallNotPermittedException
+                || cause instanceof RequestNotPermitted || cause instanceof BulkheadFullException;
+    }
+
+    // Logs the outcomes with one write and applies them to the snapshot with one patch: written creates replace
+    // their provisional employee, and employees whose delete failed are shown again
+    private void completed(List<Outcome> outcomes) {
+        if (outcomes.isEmpty()) {
+            return;
+        }
+        CompletableFuture<Void> logged;
+        synchronized (this) {
+            logged = recordOutcomes(outcomes);
+        }
+        operationLog.commit();
+        try {
+            logged.join();
+        } catch (CompletionException e) {
+            log.warn("Could not log {} finished employee operations, they are written again after a restart: {}",
+                    outcomes.size(), Futures.unwrap(e).toString());
+        }
+        applyPatches();
+    }
+
+    private CompletableFuture<Void> recordOutcomes(List<Outcome> outcomes) {
+        Instant now = Instant.now();
+        List<Employee> added = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        List<Long> settled = new ArrayList<>(outcomes.size());
+        List<EmployeeOperation> logged = new ArrayList<>(outcomes.size());
+        for (Outcome outcome : outcomes) {
+            EmployeeOperation operation = outcome.getOperation();
+            boolean succeeded = outcome.getStatus() == EmployeeOperation.Status.SUCCEEDED;
+            if (operation.getType() == EmployeeOperation.Type.CREATE) {
+                parseId(operation.getEmployeeId()).ifPresent(removed::add);
+                // An employee already deleted again only shows up once that delete fails
+                if (succeeded && !deletes.containsKey(operation.getEmployeeId())) {
+                    added.add(outcome.getEmployee());
+                }
+            } else if (succeeded) {
+                removed.add(outcome.getDeletedId());
+            } else {
+                shown(operation).ifPresent(added::add);
+            }
+            parseId(operation.getEmployeeId()).ifPresent(settled::add);
+            operation.setAttempts(outcome.getAttempts());
+            finish(operation, outcome.getStatus(), outcome.getEmployee(), outcome.getError(), now);
+            logged.add(operation);
+        }
+        CompletableFuture<Void> written = operationLog.queue(logged);
+        patches.add(() -> {
+            removed.forEach(employeeCache()::evict);
+            replicas.patchSettled(added, removed, settled);
+        });
+        retain();
+        if (operationLog.appended() > (long) properties.getMaxPending() + properties.getRetainedOperations()) {
+            operationLog.queueCompaction(operations.values());
+        }
+        return written;
+    }
+
+    // Picks up where the previous run stopped: pending operations are queued again, finished ones can be read
+    private synchronized void resume() {
+        List<EmployeeOperation> logged;
+        try {
+            logged = operationLog.replay();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not replay employee operations from " + operationLog.getPath(), e);
+        }
+        for (EmployeeOperation operation : logged) {
+            if (operation.getType() == null || operation.getStatus() == null || operation.getEmployeeId() == null) {
+                continue;
+            }
+            track(operation);
+            if (!operation.getStatus().isDone()) {
+                lane(operation).add(operation);
+            } else if (operation.getType() == EmployeeOperation.Type.CREATE && operation.getEmployee() != null
+                    && operation.getStatus() == EmployeeOperation.Status.SUCCEEDED) {
+                createdIds.put(operation.getEmployeeId(), operation.getEmployee().getId());
+            }
+        }
+        retain();
+        try {
+            operationLog.compact(new ArrayList<>(operations.values()));
+        } catch (IOException e) {
+            log.warn("Could not compact {}: {}", operationLog.getPath(), e.toString());
+        }
+        if (pending > 0) {
+            log.info("Resuming {} employee operations pending in {}", pending, operationLog.getPath());
+        }
+    }
+
+    private Cache employeeCache() {
+        return Objects.requireNonNull(cacheManager.getCache(CacheConfig.EMPLOYEE_CACHE));
+    }
+
+    private static Optional<Long> parseId(String id) {
+        try {
+            return Optional.of(Long.parseLong(id));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        workers.shutdownNow();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        operationLog.close();
+    }
+
+    // The operation accepted, the copy to answer with, and when it is logged; operation and logged are null when
+    // nothing new was accepted
+    @Value
+    private static class Accepted {
+        EmployeeOperation operation;
+        EmployeeOperation answer;
+        CompletableFuture<Void> logged;
+    }
+
+    // PENDING, with how long the upstream asked to wait if it did, when the operation is to be attempted again
+    @Value
+    private static class Outcome {
+        EmployeeOperation operation;
+        EmployeeOperation.Status status;
+        Employee employee;
+        Long deletedId;
+        int attempts;
+        String error;
+        Duration retryAfter;
+    }
+
+    // An operation waiting to be attempted again, and those on the same employee taken while it waits
+    @Value
+    private static class Parked {
+        EmployeeOperation operation;
+        int attempts;
+        Duration backoff;
+        Instant retryAt;
+        List<EmployeeOperation> behind = new ArrayList<>();
+    }
+}
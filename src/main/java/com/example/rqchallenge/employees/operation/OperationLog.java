@@ -0,0 +1,219 @@
+package com.example.rqchallenge.employees.operation;
+
+import com.example.rqchallenge.employees.dto.EmployeeOperation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only log of employee operations on local disk, one JSON line per state an operation entered. Replaying
+ * it yields the last state of each operation; a line cut short by a crash is skipped. Compacting writes the
+ * given operations next to the log and moves the copy over it, so a crash never leaves a partial log behind.
+ * <p>
+ * Operations can also be queued, which never waits for the disk, and written by a group commit: whichever caller
+ * commits first writes everything queued so far with one write and one force, in the order it was queued. A
+ * compaction queued among them replaces what was queued before it.
+ */
+@Slf4j
+public class OperationLog implements Closeable {
+    private static final byte NEWLINE = '\n';
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final boolean sync;
+    // Guarded by itself: operations waiting for the next group commit
+    private final List<Queued> queued = new ArrayList<>();
+    private FileChannel channel;
+    private volatile long appended;
+
+    public OperationLog(Path path, ObjectMapper objectMapper, boolean sync) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+        this.sync = sync;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    // Operations in the order they were first logged, each in its last logged state
+    public synchronized List<EmployeeOperation> replay() throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return List.of();
+        }
+        Map<String, EmployeeOperation> operations = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                EmployeeOperation operation = objectMapper.readValue(line, EmployeeOperation.class);
+                if (operation.getId() != null) {
+                    operations.put(operation.getId(), operation);
+                }
+            } catch (JsonProcessingException e) {
+                log.warn("Skipping unreadable line in {}: {}", path, e.getOriginalMessage());
+            }
+        }
+        return new ArrayList<>(operations.values());
+    }
+
+    // One write, and with sync one force to disk, however many operations are appended
+    public synchronized void append(Collection<EmployeeOperation> operations) throws IOException {
+        if (operations.isEmpty()) {
+            return;
+        }
+        ByteBuffer lines = ByteBuffer.wrap(encode(operations));
+        FileChannel log = channel();
+        while (lines.hasRemaining()) {
+            log.write(lines);
+        }
+        if (sync) {
+            log.force(false);
+        }
+        appended += operations.size();
+    }
+
+    // Copies the operations, so they may change as soon as this returns; the future completes once they are written
+    public CompletableFuture<Void> queue(Collection<EmployeeOperation> operations) {
+        return queue(operations, false);
+    }
+
+    // Compacts the log to the operations at the next commit; what was queued before is superseded by them, so they
+    // must reflect it
+    public CompletableFuture<Void> queueCompaction(Collection<EmployeeOperation> operations) {
+        return queue(operations, true);
+    }
+
+    // Writes everything queued, including what callers waiting behind this one queued meanwhile
+    public synchronized void commit() {
+        List<Queued> batch;
+        synchronized (queued) {
+            batch = new ArrayList<>(queued);
+            queued.clear();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        int compaction = -1;
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.get(i).compaction) {
+                compaction = i;
+            }
+        }
+        if (compaction >= 0) {
+            try {
+                compact(batch.get(compaction).operations);
+                batch.subList(0, compaction + 1).forEach(entry -> entry.written.complete(null));
+            } catch (IOException e) {
+                log.warn("Could not compact {}: {}", path, e.toString());
+                compaction = -1;
+            }
+        }
+        List<Queued> appending = batch.subList(compaction + 1, batch.size());
+        try {
+            append(appending.stream()
+                    .filter(entry -> !entry.compaction)
+                    .flatMap(entry -> entry.operations.stream())
+                    .collect(Collectors.toList()));
+            appending.forEach(entry -> entry.written.complete(null));
+        } catch (IOException | RuntimeException e) {
+            appending.forEach(entry -> entry.written.completeExceptionally(e));
+        }
+    }
+
+    // Lines appended since the log was opened or last compacted
+    public long appended() {
+        return appended;
+    }
+
+    public synchronized void compact(Collection<EmployeeOperation> operations) throws IOException {
+        close();
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel copy = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer lines = ByteBuffer.wrap(encode(operations));
+            while (lines.hasRemaining()) {
+                copy.write(lines);
+            }
+            copy.force(false);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        appended = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+            // End a line cut short by a crash, so the next one does not become unreadable with it
+            ByteBuffer last = ByteBuffer.allocate(1);
+            if (channel.size() > 0 && channel.read(last, channel.size() - 1) == 1 && last.get(0) != NEWLINE) {
+                channel.write(ByteBuffer.wrap(new byte[]{NEWLINE}));
+            }
+        }
+        return channel;
+    }
+
+    private CompletableFuture<Void> queue(Collection<EmployeeOperation> operations, boolean compaction) {
+        Queued entry = new Queued(operations.stream().map(EmployeeOperation::copy).collect(Collectors.toList()), compaction);
+        synchronized (queued) {
+            queued.add(entry);
+        }
+        return entry.written;
+    }
+
+    private byte[] encode(Collection<EmployeeOperation> operations) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        for (EmployeeOperation operation : operations) {
+            lines.write(objectMapper.writeValueAsBytes(operation));
+            lines.write(NEWLINE);
+        }
+        return lines.toByteArray();
+    }
+
+    private static final class Queued {
+        final List<EmployeeOperation> operations;
+        final boolean compaction;
+        final CompletableFuture<Void> written = new CompletableFuture<>();
+
+        Queued(List<EmployeeOperation> operations, boolean compaction) {
+            this.operations = operations;
+            this.compaction = compaction;
+        }
+    }
+}
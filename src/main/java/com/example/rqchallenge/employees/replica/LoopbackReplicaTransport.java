@@ -0,0 +1,43 @@
+package com.example.rqchallenge.employees.replica;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers messages in memory to every transport of the same channel in this JVM, on the publishing thread;
+ * for tests and for several application contexts run side by side. A closed transport, as when its context
+ * shuts down, stops receiving; the channel is forgotten once it has no listeners left.
+ */
+public class LoopbackReplicaTransport implements ReplicaTransport, AutoCloseable {
+    private static final Map<String, List<Consumer<String>>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final String channel;
+    private final List<Consumer<String>> subscribed = new CopyOnWriteArrayList<>();
+
+    public LoopbackReplicaTransport(String channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void publish(String message) {
+        CHANNELS.getOrDefault(channel, List.of()).forEach(listener -> listener.accept(message));
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        subscribed.add(listener);
+        CHANNELS.computeIfAbsent(channel, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    @Override
+    public void close() {
+        CHANNELS.computeIfPresent(channel, (key, listeners) -> {
+            listeners.removeAll(subscribed);
+            return listeners.isEmpty() ? null : listeners;
+        });
+        subscribed.clear();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.rqchallenge.employees.replica;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Redis pub/sub on one channel, through the connection configured by spring.redis.*. Any server speaking the
+ * Redis protocol's PUBLISH and SUBSCRIBE will do.
+ */
+public class RedisReplicaTransport implements ReplicaTransport {
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ChannelTopic topic;
+
+    public RedisReplicaTransport(StringRedisTemplate redisTemplate, RedisMessageListenerContainer listenerContainer,
+                                 String channel) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.topic = new ChannelTopic(channel);
+    }
+
+    @Override
+    public void publish(String message) {
+        redisTemplate.convertAndSend(topic.getTopic(), message);
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listenerContainer.addMessageListener(
+                (message, pattern) -> listener.accept(new String(message.getBody(), StandardCharsets.UTF_8)), topic);
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.rqchallenge.employees.replica;
+
+import com.example.rqchallenge.employees.config.CacheConfig;
+import com.example.rqchallenge.employees.config.EmployeeRefreshProperties;
+import com.example.rqchallenge.employees.config.EmployeeReplicaProperties;
+import com.example.rqchallenge.employees.config.JacksonConfig;
+import com.example.rqchallenge.employees.dto.Employee;
+import com.example.rqchallenge.employees.snapshot.EmployeeSnapshot;
+import com.example.rqchallenge.employees.snapshot.EmployeeSnapshotLoader;
+import com.example.rqchallenge.employees.snapshot.EmployeeSnapshotStore;
+import com.example.rqchallenge.employees.snapshot.PendingEmployeeWrites;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the replicas of this service serving the same employees without each fetching them from the upstream.
+ * A replica that fetched the employees tells the others, which pull its snapshot from it, as Smile, instead of
+ * from the upstream. Only what it fetched is pulled: writes it still has pending reach the others as patches, so
+ * they never keep another replica's pending writes as their last good snapshot. While the last such pull is
+ * younger than employees.refresh.interval a replica skips its own background fetch, so about one replica per
+ * interval fetches from the upstream. Local creates and deletes are sent as patches that the other replicas apply
+ * to their snapshot and id cache; one whose patched snapshot does not end at the sender's version pulls the
+ * sender's snapshot as patched, which holds the patch, instead. A patch of writes still pending is marked as such,
+ * and the other replicas keep those writes applied to every snapshot they load, as the sender does, until a later
+ * patch says they settled.
+ * <p>
+ * Messages go over the {@link ReplicaTransport} of employees.replicas.transport, without which a replica works
+ * alone. A replica can only be pulled from once employees.replicas.url says where the others reach it.
+ */
+@Slf4j
+@Component
+public class ReplicaCoherence {
+    public static final String SNAPSHOT_PATH = "/v1/replicas/snapshot";
+    public static final String PATCHED_SNAPSHOT_PATH = "/v1/replicas/snapshot/patched";
+
+    private final Optional<ReplicaTransport> transport;
+    private final EmployeeSnapshotStore store;
+    private final EmployeeSnapshotLoader loader;
+    private final PendingEmployeeWrites pendingWrites;
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+    private final RestTemplate peerClient;
+    private final Executor executor;
+    private final String replica = UUID.randomUUID().toString();
+    private final String url;
+    private final Duration refreshInterval;
+    // When this replica last received a snapshot fetched by a peer
+    private volatile Instant lastPeerFetch;
+
+    @Autowired
+    public ReplicaCoherence(Optional<ReplicaTransport> transport, EmployeeSnapshotStore store, EmployeeSnapshotLoader loader,
+                            PendingEmployeeWrites pendingWrites, CacheManager cacheManager, ObjectMapper objectMapper,
+                            RestTemplateBuilder restTemplateBuilder, MappingJackson2SmileHttpMessageConverter smileConverter,
+                            EmployeeReplicaProperties properties, EmployeeRefreshProperties refreshProperties) {
+        this(transport, store, loader, pendingWrites, cacheManager, objectMapper,
+                restTemplateBuilder
+                        .setConnectTimeout(properties.getPullTimeout())
+                        .setReadTimeout(properties.getPullTimeout())
+                        .messageConverters(smileConverter)
+                        .build(),
+                Executors.newSingleThreadExecutor(new CustomizableThreadFactory("replica-coherence-")),
+                properties.getUrl(), refreshProperties.getInterval());
+    }
+
+    ReplicaCoherence(Optional<ReplicaTransport> transport, EmployeeSnapshotStore store, EmployeeSnapshotLoader loader,
+                     PendingEmployeeWrites pendingWrites, CacheManager cacheManager, ObjectMapper objectMapper,
+                     RestTemplate peerClient, Executor executor, String url, Duration refreshInterval) {
+        this.transport = transport;
+        this.store = store;
+        this.loader = loader;
+        this.pendingWrites = pendingWrites;
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+        this.peerClient = peerClient;
+        this.executor = executor;
+        this.url = url;
+        this.refreshInterval = refreshInterval;
+    }
+
+    // Messages are handled one at a time off the transport's thread, as a pull may take a while
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        transport.ifPresent(replicas -> {
+            log.info("Replica {} joining the other replicas, pulled from at {}", replica, url);
+            replicas.subscribe(message -> executor.execute(() -> receive(message)));
+        });
+    }
+
+    // Whether a peer fetched the employees recently enough for this replica to skip its own fetch
+    public boolean peerFetchedRecently() {
+        Instant last = lastPeerFetch;
+        return last != null && last.plus(refreshInterval).isAfter(Instant.now());
+    }
+
+    public void fetched(EmployeeSnapshot snapshot) {
+        send(ReplicaMessage.builder()
+                .type(ReplicaMessage.Type.FETCHED)
+                .version(snapshot.getVersionTag())
+                .fetchedAt(snapshot.getFetchedAt()));
+    }
+
+    // Patches the cached snapshot and sends the patch to the other replicas
+    public void patch(List<Employee> added, Collection<Long> removed) {
+        patch(added, removed, false, List.of());
+    }
+
+    // As patch, for writes still pending at this replica
+    public void patchPending(List<Employee> added, Collection<Long> removed) {
+        patch(added, removed, true, List.of());
+    }
+
+    // As patch, also telling the other replicas which of the pending writes it sent, by employee id, settled
+    public void patchSettled(List<Employee> added, Collection<Long> removed, Collection<Long> settled) {
+        patch(added, removed, false, settled);
+    }
+
+    private void patch(List<Employee> added, Collection<Long> removed, boolean pending, Collection<Long> settled) {
+        Optional<EmployeeSnapshot> patched = store.update(snapshot -> snapshot.withEmployees(added).withoutEmployees(removed));
+        send(ReplicaMessage.builder()
+                .type(ReplicaMessage.Type.PATCHED)
+                .version(patched.map(EmployeeSnapshot::getVersionTag).orElse(null))
+                .fetchedAt(patched.map(EmployeeSnapshot::getFetchedAt).orElse(null))
+                .added(added)
+                .removed(List.copyOf(removed))
+                .pending(pending)
+                .settled(List.copyOf(settled)));
+    }
+
+    private void send(ReplicaMessage.ReplicaMessageBuilder message) {
+        if (transport.isEmpty()) {
+            return;
+        }
+        try {
+            transport.get().publish(objectMapper.writeValueAsString(message.replica(replica).url(url).build()));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Could not send replica message: {}", e.toString());
+        }
+    }
+
+    void receive(String json) {
+        ReplicaMessage message;
+        try {
+            message = objectMapper.readValue(json, ReplicaMessage.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable replica message: {}", e.toString());
+            return;
+        }
+        if (replica.equals(message.getReplica()) || message.getType() == null) {
+            return;
+        }
+        if (message.getType() == ReplicaMessage.Type.FETCHED) {
+            if (!isCurrent(message.getVersion()) && !pull(message)) {
+                return;
+            }
+            lastPeerFetch = Instant.now();
+        } else {
+            patched(message);
+        }
+    }
+
+    private void patched(ReplicaMessage message) {
+        List<Employee> added = message.getAdded() != null ? message.getAdded() : List.of();
+        List<Long> removed = message.getRemoved() != null ? message.getRemoved() : List.of();
+        if (message.getSettled() != null) {
+            message.getSettled().forEach(pendingWrites::settled);
+        }
+        if (message.isPending()) {
+            added.forEach(pendingWrites::created);
+            removed.forEach(pendingWrites::deleted);
+        }
+        Cache employeeCache = Objects.requireNonNull(cacheManager.getCache(CacheConfig.EMPLOYEE_CACHE));
+        removed.forEach(employeeCache::evict);
+        Optional<EmployeeSnapshot> patched = store.update(snapshot -> snapshot.withEmployees(added).withoutEmployees(removed));
+        if (patched.isPresent() && message.getVersion() != null
+                && !patched.get().getVersionTag().equals(message.getVersion())) {
+            log.info("Snapshot diverged from replica {} after its patch, pulling its patched snapshot", message.getReplica());
+            pullPatched(message);
+        }
+    }
+
+    private boolean isCurrent(String version) {
+        return version != null && store.peek().map(EmployeeSnapshot::getVersionTag).filter(version::equals).isPresent();
+    }
+
+    private boolean pull(ReplicaMessage message) {
+        Optional<List<Employee>> employees = pull(message, SNAPSHOT_PATH);
+        employees.ifPresent(pulled -> {
+            EmployeeSnapshot snapshot = loader.fromPeer(pulled, fetchedAt(message));
+            store.replace(snapshot);
+            log.debug("Pulled {} employees from replica {}", snapshot.size(), message.getReplica());
+        });
+        return employees.isPresent();
+    }
+
+    // The fetched snapshot would lack the patches the sender applied since its fetch, the one that showed the
+    // divergence included, so the snapshot as patched is pulled and replaces this replica's as a patch would
+    private void pullPatched(ReplicaMessage message) {
+        pull(message, PATCHED_SNAPSHOT_PATH).ifPresent(pulled -> {
+            EmployeeSnapshot snapshot = loader.patchedByPeer(pulled, fetchedAt(message));
+            store.update(diverged -> snapshot);
+            log.debug("Pulled {} patched employees from replica {}", snapshot.size(), message.getReplica());
+        });
+    }
+
+    private Optional<List<Employee>> pull(ReplicaMessage message, String path) {
+        if (message.getUrl() == null) {
+            return Optional.empty();
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(JacksonConfig.APPLICATION_SMILE));
+        try {
+            Employee[] employees = peerClient.exchange(message.getUrl() + path, HttpMethod.GET,
+                    new HttpEntity<>(headers), Employee[].class).getBody();
+            return Optional.of(Arrays.asList(employees != null ? employees : new Employee[0]));
+        } catch (RestClientException e) {
+            log.warn("Could not pull employees from replica {} at {}: {}", message.getReplica(), message.getUrl(), e.toString());
+            return Optional.empty();
+        }
+    }
+
+    private static Instant fetchedAt(ReplicaMessage message) {
+        return message.getFetchedAt() != null ? message.getFetchedAt() : Instant.now();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.rqchallenge.employees.replica;
+
+import com.example.rqchallenge.employees.dto.Employee;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * What one replica tells the others, as JSON on the {@link ReplicaTransport}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ReplicaMessage {
+    public enum Type {
+        // The sender fetched the employees from the upstream
+        FETCHED,
+        // The sender created or deleted employees
+        PATCHED
+    }
+
+    private Type type;
+    private String replica;
+    // Where the sender's snapshot can be pulled from, null if it cannot
+    private String url;
+    // Of the sender's snapshot once fetched or patched, null if it had none
+    private String version;
+    // When the sender fetched the employees its snapshot holds
+    private Instant fetchedAt;
+    private List<Employee> added;
+    private List<Long> removed;
+    // The added and removed employees are writes still pending at the sender, which the receivers keep applied to
+    // every snapshot they load until told they settled
+    private boolean pending;
+    // Ids of the employees whose pending writes at the sender settled
+    private List<Long> settled;
+}
@@ -0,0 +1,14 @@
+package com.example.rqchallenge.employees.replica;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries messages between the replicas of this service. Every subscriber receives every message published
+ * after it subscribed, its own replica's included, at most once and possibly not at all.
+ */
+public interface ReplicaTransport {
+
+    void publish(String message);
+
+    void subscribe(Consumer<String> listener);
+}
@@ -0,0 +1,79 @@
+package com.example.rqchallenge.employees.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Runs one asynchronous call per item with at most {@code concurrency} of them in flight: each call that
+ * completes starts the next pending item, so a slow item never holds back the rest of its window. Calls
+ * are expected to turn their own failures into results; the returned future completes with the results
+ * in item order once every call has completed.
+ */
+final class BoundedFanOut<I, R> {
+    private final List<I> items;
+    private final BiFunction<Integer, I, CompletableFuture<R>> call;
+    private final Object[] results;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final CompletableFuture<List<R>> done = new CompletableFuture<>();
+
+    private BoundedFanOut(List<I> items, BiFunction<Integer, I, CompletableFuture<R>> call) {
+        this.items = items;
+        this.call = call;
+        this.results = new Object[items.size()];
+    }
+
+    static <I, R> CompletableFuture<List<R>> map(List<I> items, int concurrency,
+                                                 BiFunction<Integer, I, CompletableFuture<R>> call) {
+        BoundedFanOut<I, R> fanOut = new BoundedFanOut<>(items, call);
+        if (items.isEmpty()) {
+            fanOut.done.complete(List.of());
+        }
+        for (int i = 0; i < Math.min(concurrency, items.size()); i++) {
+            fanOut.runNext();
+        }
+        return fanOut.done;
+    }
+
+    // Loops instead of recursing while calls complete synchronously, e.g. when answered from the snapshot
+    private void runNext() {
+        int index;
+        while ((index = next.getAndIncrement()) < items.size()) {
+            CompletableFuture<R> result = start(index);
+            if (!result.isDone()) {
+                int position = index;
+                result.whenComplete((value, error) -> {
+                    complete(position, result);
+                    runNext();
+                });
+                return;
+            }
+            complete(index, result);
+        }
+    }
+
+    private CompletableFuture<R> start(int index) {
+        try {
+            return call.apply(index, items.get(index));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void complete(int index, CompletableFuture<R> result) {
+        try {
+            results[index] = result.join();
+        } catch (RuntimeException e) {
+            done.completeExceptionally(e);
+            return;
+        }
+        if (completed.incrementAndGet() == results.length) {
+            @SuppressWarnings("unchecked")
+            List<R> values = (List<R>) Arrays.asList(results);
+            done.complete(values);
+        }
+    }
+}
@@ -1,114 +1,450 @@
 package com.example.rqchallenge.employees.service;
 
-import com.example.rqchallenge.employees.dto.EmployeeResponse;
-import com.example.rqchallenge.employees.dto.EmployeesResponse;
+import com.example.rqchallenge.employees.client.EmployeeApiClient;
+import com.example.rqchallenge.employees.client.Futures;
+import com.example.rqchallenge.employees.config.CacheConfig;
+import com.example.rqchallenge.employees.dto.BatchItemResult;
+import com.example.rqchallenge.employees.dto.BatchResult;
 import com.example.rqchallenge.employees.dto.Employee;
 import com.example.rqchallenge.employees.exception.EmployeeNotFoundException;
+import com.example.rqchallenge.employees.exception.InvalidRequestException;
+import com.example.rqchallenge.employees.replica.ReplicaCoherence;
+import com.example.rqchallenge.employees.snapshot.EmployeeChangeFeed;
+import com.example.rqchallenge.employees.snapshot.EmployeePage;
+import com.example.rqchallenge.employees.snapshot.EmployeeQuery;
+import com.example.rqchallenge.employees.snapshot.EmployeeSnapshot;
+import com.example.rqchallenge.employees.snapshot.EmployeeSnapshotStore;
+import com.example.rqchallenge.employees.snapshot.EmployeeStats;
+import com.example.rqchallenge.employees.snapshot.EmployeeStatsQuery;
+import com.example.rqchallenge.employees.snapshot.SnapshotValue;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Every read has a blocking and a non-blocking ({@code *Async}) form; both evaluate against the same
+ * snapshot logic and differ only in how the snapshot or the upstream response is obtained. Non-blocking
+ * snapshot reads return the snapshot alongside the value so callers can tell when it is served stale.
+ */
 @Slf4j
 @Service
 public class EmployeeService {
-    @Value("${dummy.api.url}")
-    private String DUMMY_API_URL;
+    private final EmployeeApiClient employeeApiClient;
+    private final EmployeeSnapshotStore snapshotStore;
+    private final EmployeeChangeFeed changeFeed;
+    private final ReplicaCoherence replicas;
+    private final CacheManager cacheManager;
 
-    private final RestTemplate restTemplate;
+    @Value("${employees.top-earners.max-n:1000}")
+    private int maxTopEarners;
 
-    // Use caching if we had exclusive access to the dummy API
-    private static final String EMPLOYEES_CACHE = "employees";
-    private static final String HIGHEST_SALARY_CACHE = "highestSalary";
-    private static final String TOP_TEN_HIGHEST_EARNING_EMPLOYEE_NAMES_CACHE = "topTenHighestEarningEmployeeNames";
+    @Value("${employees.search.max-results:100}")
+    private int maxSearchResults;
+
+    @Value("${employees.lookup.concurrency:8}")
+    private int lookupConcurrency;
+
+    @Value("${employees.lookup.max-ids:500}")
+    private int maxLookupIds;
+
+    @Value("${employees.batch.concurrency:8}")
+    private int batchConcurrency;
+
+    @Value("${employees.batch.max-size:5000}")
+    private int maxBatchSize;
+
+    @Value("${employees.stats.percentiles:25,50,75,90,95,99}")
+    private double[] statsPercentiles;
+
+    @Value("${employees.stats.salary-bucket-width:10000}")
+    private int statsSalaryBucketWidth;
+
+    @Value("${employees.stats.age-bucket-width:10}")
+    private int statsAgeBucketWidth;
+
+    @Value("${employees.stats.top-earners:10}")
+    private int statsTopEarners;
 
     @Autowired
-    public EmployeeService(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    public EmployeeService(EmployeeApiClient employeeApiClient, EmployeeSnapshotStore snapshotStore,
+                           EmployeeChangeFeed changeFeed, ReplicaCoherence replicas, CacheManager cacheManager) {
+        this.employeeApiClient = employeeApiClient;
+        this.snapshotStore = snapshotStore;
+        this.changeFeed = changeFeed;
+        this.replicas = replicas;
+        this.cacheManager = cacheManager;
     }
-    @Cacheable(EMPLOYEES_CACHE)
+
     public List<Employee> getEmployees() {
-        log.info("Fetching all employees from the API");
-        EmployeesResponse response = restTemplate.getForObject(DUMMY_API_URL + "/employees", EmployeesResponse.class);
-        return response != null ? response.getData() : Collections.emptyList();
+        return snapshotStore.current().getEmployees();
+    }
+
+    public CompletableFuture<SnapshotValue<List<Employee>>> getEmployeesAsync() {
+        return fromSnapshot(EmployeeSnapshot::getEmployees);
+    }
+
+    public EmployeePage getEmployeePage(EmployeeQuery query) {
+        validateQuery(query);
+        return snapshotStore.current().query(query);
+    }
+
+    public CompletableFuture<SnapshotValue<EmployeePage>> getEmployeePageAsync(EmployeeQuery query) {
+        validateQuery(query);
+        return fromSnapshot(snapshot -> snapshot.query(query));
     }
 
     public List<Employee> getEmployeeByName(String name) {
-        log.info("Fetching employee with name: {}", name);
-        List<Employee> employees = getEmployees();
-        List<Employee> matchingEmployees = employees.stream()
-                .filter(employee -> employee.getEmployee_name().equals(name)).collect(Collectors.toList());
+        return matchingName(snapshotStore.current(), name);
+    }
+
+    public CompletableFuture<SnapshotValue<List<Employee>>> getEmployeeByNameAsync(String name) {
+        return fromSnapshot(snapshot -> matchingName(snapshot, name));
+    }
+
+    // Ranked name search; a null limit returns up to the configured maximum
+    public List<Employee> searchEmployeesByName(String query, Integer limit) {
+        int resultLimit = validateSearchLimit(limit);
+        return searchResults(snapshotStore.current(), query, resultLimit);
+    }
+
+    public CompletableFuture<SnapshotValue<List<Employee>>> searchEmployeesByNameAsync(String query, Integer limit) {
+        int resultLimit = validateSearchLimit(limit);
+        return fromSnapshot(snapshot -> searchResults(snapshot, query, resultLimit));
+    }
+
+    public Employee getEmployeeById(String id) {
+        Optional<Employee> cached = findLoaded(id);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        return cached(id, requireFound(id, employeeApiClient.getEmployeeById(id)));
+    }
+
+    public CompletableFuture<Employee> getEmployeeByIdAsync(String id) {
+        Optional<Employee> cached = findLoaded(id);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached.get());
+        }
+        return employeeApiClient.getEmployeeByIdAsync(id).thenApply(employee -> cached(id, requireFound(id, employee)));
+    }
+
+    public List<Employee> getEmployeesByIds(List<String> ids) {
+        return Futures.join(getEmployeesByIdsAsync(ids));
+    }
+
+    // Employees in the order of the distinct ids, leaving out the ones that do not exist. Hits are served like
+    // single lookups and up to the configured number of misses are fetched from the upstream at once
+    public CompletableFuture<List<Employee>> getEmployeesByIdsAsync(List<String> ids) {
+        List<String> distinct = validateIds(ids);
+        return BoundedFanOut.map(distinct, lookupConcurrency, (index, id) -> getEmployeeByIdAsync(id)
+                        .exceptionally(error -> {
+                            if (Futures.unwrap(error) instanceof EmployeeNotFoundException) {
+                                return null;
+                            }
+                            throw Futures.propagate(error);
+                        }))
+                .thenApply(employees -> employees.stream().filter(Objects::nonNull).collect(Collectors.toList()));
+    }
+
+    public Integer getHighestSalaryOfEmployees() {
+        return snapshotStore.current().getHighestSalary();
+    }
+
+    public CompletableFuture<SnapshotValue<Integer>> getHighestSalaryOfEmployeesAsync() {
+        return fromSnapshot(EmployeeSnapshot::getHighestSalary);
+    }
+
+    public List<String> getTopTenHighestEarningEmployeeNames() {
+        return topTen(snapshotStore.current());
+    }
+
+    public CompletableFuture<SnapshotValue<List<String>>> getTopTenHighestEarningEmployeeNamesAsync() {
+        return fromSnapshot(this::topTen);
+    }
+
+    public List<Employee> getTopEarners(int n) {
+        validateTopEarners(n);
+        return snapshotStore.current().topEarners(n);
+    }
+
+    public CompletableFuture<SnapshotValue<List<Employee>>> getTopEarnersAsync(int n) {
+        validateTopEarners(n);
+        return fromSnapshot(snapshot -> snapshot.topEarners(n));
+    }
+
+    // Unset parameters take the configured defaults
+    public EmployeeStats getEmployeeStats(List<Double> percentiles, Integer salaryBucketWidth,
+                                          Integer ageBucketWidth, Integer topEarners) {
+        EmployeeStatsQuery query = statsQuery(percentiles, salaryBucketWidth, ageBucketWidth, topEarners);
+        return snapshotStore.current().stats(query);
+    }
+
+    public CompletableFuture<SnapshotValue<EmployeeStats>> getEmployeeStatsAsync(List<Double> percentiles, Integer salaryBucketWidth,
+                                                                                 Integer ageBucketWidth, Integer topEarners) {
+        EmployeeStatsQuery query = statsQuery(percentiles, salaryBucketWidth, ageBucketWidth, topEarners);
+        return fromSnapshot(snapshot -> snapshot.stats(query));
+    }
+
+    // Changes after the given version, when it is still known, then as they happen; returns what unsubscribes
+    public Runnable subscribeToChanges(String since, EmployeeChangeFeed.Subscriber subscriber) {
+        return changeFeed.subscribe(since, subscriber);
+    }
+
+    // The cached snapshot, and those of the other replicas, is patched in place of a full reload
+    public Employee createEmployee(Map<String, Object> employeeInput) {
+        return created(employeeApiClient.createEmployee(employeeInput));
+    }
+
+    public CompletableFuture<Employee> createEmployeeAsync(Map<String, Object> employeeInput) {
+        return employeeApiClient.createEmployeeAsync(employeeInput).thenApply(this::created);
+    }
+
+    public String deleteEmployee(String id) {
+        Employee employeeToDelete = getEmployeeById(id);
+        employeeApiClient.deleteEmployee(id);
+        return deleted(employeeToDelete);
+    }
+
+    public CompletableFuture<String> deleteEmployeeAsync(String id) {
+        return getEmployeeByIdAsync(id).thenCompose(employeeToDelete -> employeeApiClient.deleteEmployeeAsync(id)
+                .thenApply(ignored -> deleted(employeeToDelete)));
+    }
+
+    public BatchResult createEmployees(List<Map<String, Object>> employeeInputs) {
+        return Futures.join(createEmployeesAsync(employeeInputs));
+    }
+
+    // Up to the configured number of creates are in flight at once; the snapshot is patched once per batch
+    public CompletableFuture<BatchResult> createEmployeesAsync(List<Map<String, Object>> employeeInputs) {
+        validateBatch(employeeInputs);
+        return BoundedFanOut.map(employeeInputs, batchConcurrency, (index, employeeInput) -> employeeApiClient
+                        .createEmployeeAsync(employeeInput)
+                        .handle((employee, error) -> itemResult(index, employee != null ? String.valueOf(employee.getId()) : null,
+                                employee, employee == null && error == null ? new IllegalStateException("No employee created") : error)))
+                .thenApply(items -> {
+                    List<Employee> created = succeeded(items);
+                    if (!created.isEmpty()) {
+                        replicas.patch(created, List.of());
+                    }
+                    return batchResult("create", items);
+                });
+    }
+
+    public BatchResult deleteEmployees(List<String> ids) {
+        return Futures.join(deleteEmployeesAsync(ids));
+    }
+
+    // Each item looks the employee up and deletes it in one pipeline, so lookups overlap with other items' deletes
+    public CompletableFuture<BatchResult> deleteEmployeesAsync(List<String> ids) {
+        validateBatch(ids);
+        return BoundedFanOut.map(ids, batchConcurrency, (index, id) -> getEmployeeByIdAsync(id)
+                        .thenCompose(employee -> employeeApiClient.deleteEmployeeAsync(id).thenApply(ignored -> employee))
+                        .handle((employee, error) -> itemResult(index, id, employee, error)))
+                .thenApply(items -> {
+                    List<Long> deleted = succeeded(items).stream()
+                            .map(Employee::getId)
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toList());
+                    if (!deleted.isEmpty()) {
+                        deleted.forEach(employeeCache()::evict);
+                        replicas.patch(List.of(), deleted);
+                    }
+                    return batchResult("delete", items);
+                });
+    }
+
+    private <T> CompletableFuture<SnapshotValue<T>> fromSnapshot(Function<EmployeeSnapshot, T> read) {
+        return snapshotStore.currentAsync().thenApply(snapshot -> SnapshotValue.of(snapshot, read.apply(snapshot)));
+    }
+
+    private List<Employee> matchingName(EmployeeSnapshot snapshot, String name) {
+        log.debug("Fetching employees by name name={}", name);
+        List<Employee> matchingEmployees = snapshot.findByName(name);
         if(matchingEmployees.isEmpty()){
             throw new EmployeeNotFoundException(name);
         }
         return matchingEmployees;
     }
-    public Employee getEmployeeById(String id) {
-        log.info("Fetching employee with ID: {}", id);
-        EmployeeResponse response = restTemplate.getForObject(DUMMY_API_URL + "/employee/" + id, EmployeeResponse.class);
-        if (response == null || response.getData() == null) {
+
+    private static List<Employee> searchResults(EmployeeSnapshot snapshot, String query, int limit) {
+        log.debug("Searching employees by name query={} limit={}", query, limit);
+        List<Employee> results = snapshot.search(query, limit);
+        if (results.isEmpty()) {
+            throw new EmployeeNotFoundException(query);
+        }
+        return results;
+    }
+
+    // Use the snapshot when one is loaded, but never pull the whole list just for one employee; then the id cache
+    private Optional<Employee> findLoaded(String id) {
+        return parseId(id).flatMap(employeeId -> snapshotStore.peek().flatMap(snapshot -> snapshot.findById(employeeId))
+                .or(() -> Optional.ofNullable(employeeCache().get(employeeId, Employee.class))));
+    }
+
+    private Employee cached(String id, Employee employee) {
+        parseId(id).ifPresent(employeeId -> employeeCache().put(employeeId, employee));
+        return employee;
+    }
+
+    private Cache employeeCache() {
+        return Objects.requireNonNull(cacheManager.getCache(CacheConfig.EMPLOYEE_CACHE));
+    }
+
+    private static Employee requireFound(String id, Employee employee) {
+        if (employee == null) {
             throw new EmployeeNotFoundException(Long.parseLong(id));
         }
-        return response.getData();
+        return employee;
     }
 
-    @Cacheable(HIGHEST_SALARY_CACHE)
-    public Integer getHighestSalaryOfEmployees() {
-        List<Employee> employees = getEmployees();
-        int maxSalary = 0;
-        for (Employee employee : employees) {
-            maxSalary = Math.max(maxSalary, employee.getEmployee_salary());
+    private List<String> topTen(EmployeeSnapshot snapshot) {
+        if (log.isDebugEnabled()) {
+            snapshot.topEarners(10).forEach(earner -> log.debug("Top earner: {}, Salary: {}", earner.getEmployee_name(), earner.getEmployee_salary()));
         }
-        return maxSalary;
+        return snapshot.getTopTenHighestEarningEmployeeNames();
     }
 
-    @Cacheable(TOP_TEN_HIGHEST_EARNING_EMPLOYEE_NAMES_CACHE)
-    public List<String> getTopTenHighestEarningEmployeeNames() {
-        List<Employee> employees = getEmployees();
-        employees.sort((e1, e2) -> e2.getEmployee_salary() - e1.getEmployee_salary());
-        List<Employee> topEarners = new ArrayList<>();
-        int tenthRankedSalary = 0;
-        for (int i = 0; i < employees.size(); i++) {
-            if(i==9){
-                tenthRankedSalary = employees.get(i).getEmployee_salary();
-            }
-            if (i > 9 && employees.get(i).getEmployee_salary() < tenthRankedSalary) {
-                // include all employees with the same salary as the 10th ranked employee
-                break;
+    private void validateTopEarners(int n) {
+        if (n < 1 || n > maxTopEarners) {
+            throw new InvalidRequestException("n must be between 1 and " + maxTopEarners);
+        }
+    }
+
+    private int validateSearchLimit(Integer limit) {
+        if (limit == null) {
+            return maxSearchResults;
+        }
+        if (limit < 1 || limit > maxSearchResults) {
+            throw new InvalidRequestException("limit must be between 1 and " + maxSearchResults);
+        }
+        return limit;
+    }
+
+    private EmployeeStatsQuery statsQuery(List<Double> percentiles, Integer salaryBucketWidth,
+                                          Integer ageBucketWidth, Integer topEarners) {
+        List<Double> requested = percentiles != null && !percentiles.isEmpty()
+                ? percentiles
+                : Arrays.stream(statsPercentiles).boxed().collect(Collectors.toList());
+        for (Double percentile : requested) {
+            if (percentile == null || percentile <= 0 || percentile > 100) {
+                throw new InvalidRequestException("percentiles must be above 0 and at most 100");
             }
-            topEarners.add(employees.get(i));
         }
-        if (log.isDebugEnabled()) {
-            topEarners.forEach(earner -> log.debug("Top earner: {}, Salary: {}", earner.getEmployee_name(), earner.getEmployee_salary()));
+        int salaryWidth = salaryBucketWidth != null ? salaryBucketWidth : statsSalaryBucketWidth;
+        int ageWidth = ageBucketWidth != null ? ageBucketWidth : statsAgeBucketWidth;
+        if (salaryWidth < 1 || ageWidth < 1) {
+            throw new InvalidRequestException("bucket widths must be at least 1");
+        }
+        int top = topEarners != null ? topEarners : statsTopEarners;
+        if (top < 0 || top > maxTopEarners) {
+            throw new InvalidRequestException("topEarners must be between 0 and " + maxTopEarners);
+        }
+        return EmployeeStatsQuery.builder()
+                .percentiles(requested)
+                .salaryBucketWidth(salaryWidth)
+                .ageBucketWidth(ageWidth)
+                .topEarners(top)
+                .build();
+    }
+
+    private List<String> validateIds(List<String> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > maxLookupIds) {
+            throw new InvalidRequestException("ids must hold between 1 and " + maxLookupIds + " ids");
+        }
+        return List.copyOf(new LinkedHashSet<>(ids));
+    }
+
+    private void validateBatch(List<?> items) {
+        if (items == null || items.isEmpty() || items.size() > maxBatchSize) {
+            throw new InvalidRequestException("a batch must hold between 1 and " + maxBatchSize + " items");
+        }
+    }
+
+    private static BatchItemResult itemResult(int index, String id, Employee employee, Throwable error) {
+        if (error != null) {
+            return BatchItemResult.builder()
+                    .index(index)
+                    .id(id)
+                    .status(BatchItemResult.Status.FAILED)
+                    .error(Futures.unwrap(error).getMessage())
+                    .build();
         }
-        return topEarners.stream()
-                .map(Employee::getEmployee_name)
+        return BatchItemResult.builder()
+                .index(index)
+                .id(id)
+                .status(BatchItemResult.Status.SUCCEEDED)
+                .employee(employee)
+                .build();
+    }
+
+    private static List<Employee> succeeded(List<BatchItemResult> items) {
+        return items.stream()
+                .filter(item -> item.getStatus() == BatchItemResult.Status.SUCCEEDED)
+                .map(BatchItemResult::getEmployee)
                 .collect(Collectors.toList());
     }
 
-    @CacheEvict(value = {EMPLOYEES_CACHE, HIGHEST_SALARY_CACHE, TOP_TEN_HIGHEST_EARNING_EMPLOYEE_NAMES_CACHE}, allEntries = true)
-    public Employee createEmployee(Map<String, Object> employeeInput) {
+    private static BatchResult batchResult(String operation, List<BatchItemResult> items) {
+        int succeeded = succeeded(items).size();
+        log.info("Batch {} finished size={} succeeded={} failed={}", operation, items.size(), succeeded, items.size() - succeeded);
+        return BatchResult.builder()
+                .succeeded(succeeded)
+                .failed(items.size() - succeeded)
+                .items(items)
+                .build();
+    }
 
-        log.info("Creating new employee with input: {}", employeeInput);
-        EmployeeResponse response = restTemplate.postForObject(DUMMY_API_URL + "/create", employeeInput, EmployeeResponse.class);
-        return response != null ? response.getData() : null;
+    private static void validateQuery(EmployeeQuery query) {
+        if (query.getOffset() < 0) {
+            throw new InvalidRequestException("offset must not be negative");
+        }
+        if (query.getLimit() != null && query.getLimit() < 1) {
+            throw new InvalidRequestException("limit must be at least 1");
+        }
+        validateRange("salary", query.getMinSalary(), query.getMaxSalary());
+        validateRange("age", query.getMinAge(), query.getMaxAge());
     }
 
-    @CacheEvict(value = {EMPLOYEES_CACHE, HIGHEST_SALARY_CACHE, TOP_TEN_HIGHEST_EARNING_EMPLOYEE_NAMES_CACHE}, allEntries = true)
-    public String deleteEmployee(String id) {
-        log.info("Deleting employee with ID: {}", id);
-        Employee employeeToDelete = getEmployeeById(id);
-        restTemplate.delete(DUMMY_API_URL + "/delete/" + id);
-        return employeeToDelete.getEmployee_name();
+    private static void validateRange(String name, Integer min, Integer max) {
+        if (min != null && max != null && min > max) {
+            throw new InvalidRequestException("min " + name + " must not exceed max " + name);
+        }
+    }
+
+    private Employee created(Employee employee) {
+        if (employee != null) {
+            replicas.patch(List.of(employee), List.of());
+        }
+        return employee;
+    }
+
+    private String deleted(Employee employee) {
+        if (employee.getId() != null) {
+            employeeCache().evict(employee.getId());
+            replicas.patch(List.of(), List.of(employee.getId()));
+        }
+        return employee.getEmployee_name();
+    }
+
+    private static Optional<Long> parseId(String id) {
+        try {
+            return Optional.of(Long.parseLong(id));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
     }
 
-}
\ No newline at end of file
+}
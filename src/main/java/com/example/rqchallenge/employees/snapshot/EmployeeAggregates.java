@@ -0,0 +1,377 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.exception.InvalidRequestException;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Salary and age aggregates of a snapshot. Employees are kept in a persistent treap ordered by salary, then
+ * row, where every node also holds the size and salary sum of its subtree: count, mean, min, max, any
+ * percentile and the count below any histogram boundary each take one descent. Adding or removing an
+ * employee copies only the nodes on its path, O(log n) expected, and shares the rest with the previous
+ * version, so patched snapshots carry the aggregates over instead of recomputing them.
+ * <p>
+ * Nodes hold the row of their employee in the {@link EmployeeColumns} and its salary, not the employee: the
+ * aggregates hold for any columns that number rows as the ones they were built from, and the top earners are
+ * only read from the columns when stats are asked for.
+ */
+final class EmployeeAggregates {
+    static final int MAX_AGE = 150;
+    static final int MAX_BUCKETS = 1000;
+    // Employees without a salary sort first and are left out of every salary figure
+    private static final long NO_SALARY = Long.MIN_VALUE;
+
+    private final Node root;
+    private final int unknownSalaries;
+    // Employees per age, older ages counted as MAX_AGE; shared between versions unless an age count changes
+    private final int[] ages;
+
+    private EmployeeAggregates(Node root, int unknownSalaries, int[] ages) {
+        this.root = root;
+        this.unknownSalaries = unknownSalaries;
+        this.ages = ages;
+    }
+
+    static EmployeeAggregates of(EmployeeColumns columns) {
+        int[] rows = IntStream.range(0, columns.size()).map(columns::row).toArray();
+        int unknownSalaries = 0;
+        int[] ages = new int[MAX_AGE + 1];
+        for (int row : rows) {
+            if (!columns.hasSalary(row)) {
+                unknownSalaries++;
+            }
+            if (columns.hasAge(row)) {
+                ages[ageIndex(columns.age(row))]++;
+            }
+        }
+        RowSorter.sort(rows, (a, b) -> compare(salaryKey(columns, a), a, salaryKey(columns, b), b));
+        Node[] nodes = new Node[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            nodes[i] = new Node(rows[i], salaryKey(columns, rows[i]), null, null);
+        }
+        return new EmployeeAggregates(build(nodes), unknownSalaries, ages);
+    }
+
+    // Cartesian tree over the sorted nodes in one pass: the treap that repeated inserts would produce
+    private static Node build(Node[] sorted) {
+        Node[] spine = new Node[sorted.length];
+        int top = -1;
+        for (Node node : sorted) {
+            Node last = null;
+            while (top >= 0 && spine[top].priority < node.priority) {
+                last = spine[top--];
+            }
+            node.left = last;
+            if (top >= 0) {
+                spine[top].right = node;
+            }
+            spine[++top] = node;
+        }
+        Node root = top >= 0 ? spine[0] : null;
+        summarize(root);
+        return root;
+    }
+
+    private static void summarize(Node node) {
+        if (node != null) {
+            summarize(node.left);
+            summarize(node.right);
+            node.summarize();
+        }
+    }
+
+    // Adds the employee in the row of the columns
+    EmployeeAggregates withAdded(int row, EmployeeColumns columns) {
+        Node node = new Node(row, salaryKey(columns, row), null, null);
+        return new EmployeeAggregates(insert(root, node),
+                unknownSalaries + (columns.hasSalary(row) ? 0 : 1), withAge(columns, row, 1));
+    }
+
+    // Removes the employee in the row of the columns, which may already be marked removed there
+    EmployeeAggregates withRemoved(int row, EmployeeColumns columns) {
+        Node updated = remove(root, salaryKey(columns, row), row);
+        if (updated == root) {
+            return this;
+        }
+        return new EmployeeAggregates(updated,
+                unknownSalaries - (columns.hasSalary(row) ? 0 : 1), withAge(columns, row, -1));
+    }
+
+    private int[] withAge(EmployeeColumns columns, int row, int delta) {
+        if (!columns.hasAge(row)) {
+            return ages;
+        }
+        int[] updated = ages.clone();
+        updated[ageIndex(columns.age(row))] += delta;
+        return updated;
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    // Reads the top earners from the columns
+    EmployeeStats stats(EmployeeStatsQuery query, EmployeeColumns columns) {
+        int count = size();
+        int salaried = count - unknownSalaries;
+        if (salaried == 0) {
+            return new EmployeeStats(count, 0, null, null, null, null, Collections.emptyMap(),
+                    Collections.emptyList(), ageBuckets(query.getAgeBucketWidth()), Collections.emptyList());
+        }
+        int min = salaryAt(0);
+        int max = salaryAt(salaried - 1);
+        double median = salaried % 2 == 1
+                ? salaryAt(salaried / 2)
+                : ((double) salaryAt(salaried / 2 - 1) + salaryAt(salaried / 2)) / 2;
+        Map<String, Integer> percentiles = new LinkedHashMap<>();
+        for (double percentile : query.getPercentiles()) {
+            int rank = (int) Math.ceil(percentile / 100 * salaried);
+            percentiles.put("p" + BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString(),
+                    salaryAt(Math.max(rank, 1) - 1));
+        }
+        return new EmployeeStats(count, salaried, min, max, (double) root.sum / salaried, median,
+                Collections.unmodifiableMap(percentiles), salaryHistogram(min, max, query.getSalaryBucketWidth()),
+                ageBuckets(query.getAgeBucketWidth()), columns.list(topEarners(query.getTopEarners())));
+    }
+
+    // Buckets aligned to multiples of the width, from the one holding the lowest salary to the highest
+    private List<EmployeeStats.Bucket> salaryHistogram(int min, int max, int width) {
+        long from = Math.floorDiv(min, width) * (long) width;
+        long buckets = (max - from) / width + 1;
+        if (buckets > MAX_BUCKETS) {
+            throw new InvalidRequestException("salary bucket width yields more than " + MAX_BUCKETS + " buckets");
+        }
+        List<EmployeeStats.Bucket> histogram = new ArrayList<>((int) buckets);
+        int below = countBelow(from);
+        for (long lower = from; lower <= max; lower += width) {
+            int belowNext = countBelow(lower + width);
+            histogram.add(new EmployeeStats.Bucket(lower, lower + width, belowNext - below));
+            below = belowNext;
+        }
+        return Collections.unmodifiableList(histogram);
+    }
+
+    // Buckets aligned to multiples of the width, from the youngest to the oldest known age
+    private List<EmployeeStats.Bucket> ageBuckets(int width) {
+        int youngest = 0;
+        while (youngest <= MAX_AGE && ages[youngest] == 0) {
+            youngest++;
+        }
+        int oldest = MAX_AGE;
+        while (oldest >= youngest && ages[oldest] == 0) {
+            oldest--;
+        }
+        List<EmployeeStats.Bucket> buckets = new ArrayList<>();
+        for (int lower = youngest / width * width; lower <= oldest; lower += width) {
+            int count = 0;
+            for (int age = lower; age < lower + width && age <= MAX_AGE; age++) {
+                count += ages[age];
+            }
+            buckets.add(new EmployeeStats.Bucket(lower, (long) lower + width, count));
+        }
+        return Collections.unmodifiableList(buckets);
+    }
+
+    /**
+     * Rows of the {@code k} highest earners, plus everyone who earns the same as the k-th, highest salary
+     * first and equal salaries by row, which is the order {@link TopEarnersSelector} ranks them in as rows are
+     * numbered in position order. Walks down from the maximum, so it costs O(k + log n).
+     */
+    int[] topEarners(int k) {
+        int[] earners = new int[Math.min(k, size())];
+        int found = 0;
+        int runStart = 0;
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        long cutOff = NO_SALARY;
+        while (node != null || !path.isEmpty()) {
+            while (node != null) {
+                path.push(node);
+                node = node.right;
+            }
+            node = path.pop();
+            if (node.salary == NO_SALARY || (found >= k && node.salary != cutOff)) {
+                break;
+            }
+            if (node.salary != cutOff) {
+                reverse(earners, runStart, found);
+                runStart = found;
+            }
+            if (found == earners.length) {
+                earners = Arrays.copyOf(earners, found * 2);
+            }
+            earners[found++] = node.row;
+            cutOff = node.salary;
+            node = node.left;
+        }
+        reverse(earners, runStart, found);
+        return Arrays.copyOf(earners, found);
+    }
+
+    // Within equal salaries the walk runs from the highest row down
+    private static void reverse(int[] rows, int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            int row = rows[i];
+            rows[i] = rows[j];
+            rows[j] = row;
+        }
+    }
+
+    // The salary at the given rank among the employees with a known salary, lowest first
+    private int salaryAt(int rank) {
+        int index = unknownSalaries + rank;
+        Node node = root;
+        while (true) {
+            int left = size(node.left);
+            if (index < left) {
+                node = node.left;
+            } else if (index == left) {
+                return (int) node.salary;
+            } else {
+                index -= left + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    // Number of employees with a known salary below the given one
+    private int countBelow(long salary) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.salary < salary) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count - unknownSalaries;
+    }
+
+    private static Node insert(Node tree, Node node) {
+        if (tree == null) {
+            return node;
+        }
+        if (node.priority > tree.priority) {
+            Node[] parts = split(tree, node.salary, node.row);
+            return node.with(parts[0], parts[1]);
+        }
+        if (compare(node.salary, node.row, tree) < 0) {
+            return tree.with(insert(tree.left, node), tree.right);
+        }
+        return tree.with(tree.left, insert(tree.right, node));
+    }
+
+    // Nodes ordered before the key on the left, the others on the right
+    private static Node[] split(Node tree, long salary, int row) {
+        if (tree == null) {
+            return new Node[2];
+        }
+        if (compare(salary, row, tree) > 0) {
+            Node[] parts = split(tree.right, salary, row);
+            parts[0] = tree.with(tree.left, parts[0]);
+            return parts;
+        }
+        Node[] parts = split(tree.left, salary, row);
+        parts[1] = tree.with(parts[1], tree.right);
+        return parts;
+    }
+
+    private static Node remove(Node tree, long salary, int row) {
+        if (tree == null) {
+            return null;
+        }
+        int comparison = compare(salary, row, tree);
+        if (comparison == 0) {
+            return merge(tree.left, tree.right);
+        }
+        if (comparison < 0) {
+            Node left = remove(tree.left, salary, row);
+            return left == tree.left ? tree : tree.with(left, tree.right);
+        }
+        Node right = remove(tree.right, salary, row);
+        return right == tree.right ? tree : tree.with(tree.left, right);
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority >= right.priority) {
+            return left.with(left.left, merge(left.right, right));
+        }
+        return right.with(merge(left, right.left), right.right);
+    }
+
+    private static int compare(long salary, int row, Node node) {
+        return compare(salary, row, node.salary, node.row);
+    }
+
+    // By salary, then row, which also tells apart employees sharing an id
+    private static int compare(long salary, int row, long otherSalary, int otherRow) {
+        int comparison = Long.compare(salary, otherSalary);
+        return comparison != 0 ? comparison : Integer.compare(row, otherRow);
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static int ageIndex(int age) {
+        return Math.max(0, Math.min(age, MAX_AGE));
+    }
+
+    private static long salaryKey(EmployeeColumns columns, int row) {
+        return columns.hasSalary(row) ? columns.salary(row) : NO_SALARY;
+    }
+
+    // Children, size and sum are only assigned before a node becomes reachable from an aggregate
+    private static final class Node {
+        final int row;
+        final long salary;
+        final int priority;
+        Node left;
+        Node right;
+        int size;
+        long sum;
+
+        Node(int row, long salary, Node left, Node right) {
+            this.row = row;
+            this.salary = salary;
+            this.priority = priority(row);
+            this.left = left;
+            this.right = right;
+            summarize();
+        }
+
+        Node with(Node left, Node right) {
+            return new Node(row, salary, left, right);
+        }
+
+        void summarize() {
+            size = 1 + size(left) + size(right);
+            sum = (salary != NO_SALARY ? salary : 0)
+                    + (left != null ? left.sum : 0) + (right != null ? right.sum : 0);
+        }
+
+        // Pseudo-random but stable per row, so every version of the treap agrees on the shape
+        private static int priority(int row) {
+            long mixed = row * 0x9E3779B97F4A7C15L;
+            mixed ^= mixed >>> 32;
+            return (int) mixed;
+        }
+    }
+}
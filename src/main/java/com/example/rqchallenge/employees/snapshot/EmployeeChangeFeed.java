@@ -0,0 +1,276 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.exception.InvalidRequestException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tells subscribers what changed each time a snapshot with other employees is published, whether fetched from
+ * the upstream or patched by a local create or delete. The last employees.changes.replay-size changes are kept,
+ * so a subscriber can resume from the version it last saw. One resuming from a version no longer kept, or
+ * subscribed when a change of more than employees.changes.max-employees employees happens, is told to reset
+ * instead, i.e. to read the whole listing again.
+ * <p>
+ * Snapshots are diffed on one thread, in the order they were published, so publishers never wait for subscribers
+ * and every subscriber sees the same sequence; with more than a few snapshots waiting the feed skips to the newest.
+ * Each subscriber has its own buffer of employees.changes.buffer-size deliveries, sent from a pool of delivery
+ * threads, so one that stops reading holds up no other. When its buffer overflows, what it missed is replaced by
+ * a reset.
+ */
+@Slf4j
+@Component
+public class EmployeeChangeFeed {
+    // Versions as written in ETags, which clients may pass on as they are
+    private static final Pattern VERSION = Pattern.compile("(W/)?\"?([0-9a-fA-F]{1,16})\"?");
+    // Snapshots waiting to be diffed, beyond which a published one replaces the last waiting
+    private static final int MAX_QUEUED = 16;
+
+    /**
+     * Receives changes one at a time on a delivery thread; one that throws is unsubscribed.
+     */
+    public interface Subscriber {
+        void changes(EmployeeChanges changes) throws IOException;
+
+        // The subscriber has to read the listing again, which is at this version
+        void reset(String version) throws IOException;
+    }
+
+    private interface Delivery {
+        void to(Subscriber subscriber) throws IOException;
+    }
+
+    private final ExecutorService executor;
+    private final Executor delivery;
+    private final int replaySize;
+    private final int maxEmployees;
+    private final int bufferSize;
+    // Only touched on the executor
+    private final Deque<EmployeeChanges> replay = new ArrayDeque<>();
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    private EmployeeSnapshot current;
+    // Guarded by this: snapshots queued on the executor, and the newest one published while MAX_QUEUED were
+    private int queued;
+    private EmployeeSnapshot skipped;
+
+    @Autowired
+    public EmployeeChangeFeed(@Value("${employees.changes.replay-size:256}") int replaySize,
+                              @Value("${employees.changes.max-employees:10000}") int maxEmployees,
+                              @Value("${employees.changes.buffer-size:64}") int bufferSize) {
+        this(Executors.newSingleThreadExecutor(new CustomizableThreadFactory("employee-changes-")),
+                Executors.newCachedThreadPool(new CustomizableThreadFactory("employee-changes-delivery-")),
+                replaySize, maxEmployees, bufferSize);
+    }
+
+    EmployeeChangeFeed(ExecutorService executor, Executor delivery, int replaySize, int maxEmployees, int bufferSize) {
+        this.executor = executor;
+        this.delivery = delivery;
+        this.replaySize = replaySize;
+        this.maxEmployees = maxEmployees;
+        this.bufferSize = Math.max(1, bufferSize);
+    }
+
+    public void publish(EmployeeSnapshot snapshot) {
+        synchronized (this) {
+            if (queued >= MAX_QUEUED) {
+                skipped = snapshot;
+                return;
+            }
+            skipped = null;
+            queued++;
+        }
+        execute(() -> advanceQueued(snapshot));
+    }
+
+    /**
+     * Delivers the changes after the given version, when it is still known, then every change to come. A null
+     * version only subscribes to changes to come.
+     *
+     * @return unsubscribes
+     */
+    public Runnable subscribe(String since, Subscriber subscriber) {
+        String version = since != null ? parseVersion(since) : null;
+        Subscription subscription = new Subscription(subscriber);
+        execute(() -> {
+            resume(version, subscription);
+            subscriptions.add(subscription);
+        });
+        return () -> {
+            subscription.close();
+            execute(() -> subscriptions.remove(subscription));
+        };
+    }
+
+    private void advanceQueued(EmployeeSnapshot snapshot) {
+        advance(snapshot);
+        EmployeeSnapshot newest;
+        synchronized (this) {
+            queued--;
+            newest = queued == 0 ? skipped : null;
+            skipped = null;
+        }
+        if (newest != null) {
+            advance(newest);
+        }
+    }
+
+    private void advance(EmployeeSnapshot snapshot) {
+        EmployeeSnapshot previous = current;
+        current = snapshot;
+        if (previous == null) {
+            // Subscribed before the first snapshot, so with nothing to resume from
+            subscriptions.forEach(subscription -> subscription.offer(reset()));
+            return;
+        }
+        if (previous.getVersion() == snapshot.getVersion()) {
+            return;
+        }
+        EmployeeChanges changes = snapshot.changesSince(previous);
+        if (changes.count() > maxEmployees) {
+            log.info("{} employees changed at once, resetting change feed subscribers", changes.count());
+            replay.clear();
+            subscriptions.forEach(subscription -> subscription.offer(reset()));
+            return;
+        }
+        replay.addLast(changes);
+        while (replay.size() > replaySize) {
+            replay.removeFirst();
+        }
+        subscriptions.forEach(subscription -> subscription.offer(subscriber -> subscriber.changes(changes)));
+    }
+
+    // Replays what the subscriber missed since its version
+    private void resume(String since, Subscription subscription) {
+        if (since == null || current == null || since.equals(current.getVersionTag())) {
+            return;
+        }
+        // Walks back to the latest change that left the subscriber at its version, as versions recur when
+        // employees are removed and added back
+        Deque<EmployeeChanges> missed = new ArrayDeque<>();
+        boolean found = false;
+        for (Iterator<EmployeeChanges> changes = replay.descendingIterator(); changes.hasNext() && !found; ) {
+            EmployeeChanges change = changes.next();
+            if (change.getVersion().equals(since)) {
+                found = true;
+            } else {
+                missed.addFirst(change);
+                found = change.getPreviousVersion().equals(since);
+            }
+        }
+        if (!found) {
+            subscription.offer(reset());
+            return;
+        }
+        for (EmployeeChanges change : missed) {
+            subscription.offer(subscriber -> subscriber.changes(change));
+        }
+    }
+
+    private Delivery reset() {
+        String version = current.getVersionTag();
+        return subscriber -> subscriber.reset(version);
+    }
+
+    private void execute(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.debug("Change feed is shut down");
+        }
+    }
+
+    private final class Subscription {
+        private final Subscriber subscriber;
+        // Guarded by this
+        private final Deque<Delivery> buffer = new ArrayDeque<>();
+        private boolean sending;
+        private boolean closed;
+
+        Subscription(Subscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        // On the feed's thread, which is never made to wait for the subscriber
+        void offer(Delivery next) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (buffer.size() >= bufferSize) {
+                    log.debug("Change feed subscriber fell {} changes behind, resetting it", buffer.size());
+                    buffer.clear();
+                    buffer.add(reset());
+                } else {
+                    buffer.add(next);
+                }
+                if (sending) {
+                    return;
+                }
+                sending = true;
+            }
+            try {
+                delivery.execute(this::send);
+            } catch (RejectedExecutionException e) {
+                log.debug("Change feed is shut down");
+            }
+        }
+
+        private void send() {
+            while (true) {
+                Delivery next;
+                synchronized (this) {
+                    next = closed ? null : buffer.poll();
+                    if (next == null) {
+                        sending = false;
+                        return;
+                    }
+                }
+                try {
+                    next.to(subscriber);
+                } catch (IOException | RuntimeException e) {
+                    log.debug("Dropping change feed subscriber: {}", e.toString());
+                    close();
+                    execute(() -> subscriptions.remove(this));
+                    return;
+                }
+            }
+        }
+
+        synchronized void close() {
+            closed = true;
+            buffer.clear();
+        }
+    }
+
+    private static String parseVersion(String since) {
+        Matcher matcher = VERSION.matcher(since.trim());
+        if (!matcher.matches()) {
+            throw new InvalidRequestException("since must be a version from the ETag or the change feed");
+        }
+        return Long.toHexString(Long.parseUnsignedLong(matcher.group(2), 16));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        if (delivery instanceof ExecutorService) {
+            ((ExecutorService) delivery).shutdown();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.dto.Employee;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * What changed from one snapshot version to the next, by employee id. Versions are written as in the
+ * listing's ETag, without its quotes.
+ */
+@Value
+public class EmployeeChanges {
+    String previousVersion;
+    String version;
+    Instant modifiedAt;
+    List<Employee> added;
+    // As they are now
+    List<Employee> changed;
+    List<Long> removed;
+
+    // Number of employees that changed
+    public int count() {
+        return added.size() + changed.size() + removed.size();
+    }
+}
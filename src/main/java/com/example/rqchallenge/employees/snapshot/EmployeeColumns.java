@@ -0,0 +1,665 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.dto.Employee;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Employees stored column by column in primitive arrays: ids, salaries and ages as {@code long}s and
+ * {@code int}s with a bit per absent value, names packed as UTF-8 into one byte array and profile images,
+ * which repeat across employees, as codes into a table of their distinct values. Rows are looked up by id
+ * through an open addressing table and by name through row numbers sorted by name hash. {@link Employee}s
+ * are only created when a row is read through one of the list views, so a snapshot holds no per-employee
+ * objects.
+ * <p>
+ * Patching does not copy the columns. Added employees go into small columns of their own, whose rows are
+ * numbered after those of the base. Removed rows are only marked. Row numbers therefore stay the same across
+ * patches. A position is an index into the employees in order, which skips removed rows. A patch that leaves
+ * more than {@link #MAX_OVERLAY} rows added or removed merges them into new columns, as the next fetch would.
+ * Nor does a patch walk the rows it keeps: the content hash is a sum of row hashes, so a patch adds those of
+ * the rows it adds and subtracts those of the rows it removes, and salaries by position are laid out on first
+ * use.
+ */
+final class EmployeeColumns {
+    static final int MAX_OVERLAY = 1024;
+    private static final int NO_IMAGE = -1;
+    private static final int[] NO_ROWS = new int[0];
+    // Hashed for an absent value, so that it differs from a present 0
+    private static final long ABSENT = 0x5bd1e995_a5a5a5a5L;
+    static final EmployeeColumns EMPTY = new Builder(0).build();
+
+    // Employees, not counting removed rows
+    private final int size;
+    // Rows of the arrays below, which every patch of these columns shares
+    private final int baseRows;
+    private final long[] ids;
+    private final BitSet idAbsent;
+    // 0 when absent, which is how every salary figure but the stats counts a missing salary
+    private final int[] salaries;
+    private final BitSet salaryAbsent;
+    private final int[] ages;
+    private final BitSet ageAbsent;
+    private final byte[] names;
+    private final int[] nameOffsets;
+    private final BitSet nameAbsent;
+    private final String[] images;
+    private final int[] imageCodes;
+    // Row + 1 per slot, 0 for an empty slot
+    private final int[] idTable;
+    // Whether no two rows of the base share an id, so that the table finds every row of an id
+    private final boolean uniqueIds;
+    private final int[] nameHashes;
+    private final int[] rowsByNameHash;
+    // Rows added since the base, numbered from baseRows on, or null; and the rows removed since, sorted
+    private final EmployeeColumns added;
+    private final int[] removed;
+    // Laid out on first use for patched columns, which many writes in a row may never ask for
+    private volatile int[] salariesByPosition;
+    private final long contentHash;
+
+    private EmployeeColumns(Builder builder) {
+        this.size = builder.size;
+        this.baseRows = size;
+        // A builder is built once, so arrays it sized exactly, as for a list of known size, are taken over as they are
+        this.ids = builder.ids.length == size ? builder.ids : Arrays.copyOf(builder.ids, size);
+        this.idAbsent = builder.idAbsent;
+        this.salaries = builder.salaries.length == size ? builder.salaries : Arrays.copyOf(builder.salaries, size);
+        this.salaryAbsent = builder.salaryAbsent;
+        this.ages = builder.ages.length == size ? builder.ages : Arrays.copyOf(builder.ages, size);
+        this.ageAbsent = builder.ageAbsent;
+        int nameBytes = builder.nameOffsets[size];
+        this.names = builder.names.length == nameBytes ? builder.names : Arrays.copyOf(builder.names, nameBytes);
+        this.nameOffsets = builder.nameOffsets.length == size + 1
+                ? builder.nameOffsets : Arrays.copyOf(builder.nameOffsets, size + 1);
+        this.nameAbsent = builder.nameAbsent;
+        this.images = new String[builder.images.size()];
+        builder.images.forEach((image, code) -> images[code] = image);
+        this.imageCodes = builder.imageCodes.length == size ? builder.imageCodes : Arrays.copyOf(builder.imageCodes, size);
+
+        this.idTable = new int[Integer.highestOneBit(Math.max(1, size)) << 2];
+        boolean unique = true;
+        for (int row = 0; row < size; row++) {
+            if (!idAbsent.get(row)) {
+                // A later row with the same id takes the slot, as a later put would in a map
+                int slot = slot(ids[row]);
+                unique &= idTable[slot] == 0;
+                idTable[slot] = row + 1;
+            }
+        }
+        this.uniqueIds = unique;
+        int[] hashes = new int[size];
+        for (int row = 0; row < size; row++) {
+            hashes[row] = nameHash(row);
+        }
+        this.rowsByNameHash = new int[size - nameAbsent.cardinality()];
+        for (int row = 0, i = 0; i < rowsByNameHash.length; row++) {
+            if (!nameAbsent.get(row)) {
+                rowsByNameHash[i++] = row;
+            }
+        }
+        // Stable, so rows with equal hashes stay in row order
+        RowSorter.sort(rowsByNameHash, (a, b) -> Integer.compare(hashes[a], hashes[b]));
+        this.nameHashes = new int[rowsByNameHash.length];
+        for (int i = 0; i < rowsByNameHash.length; i++) {
+            nameHashes[i] = hashes[rowsByNameHash[i]];
+        }
+        this.added = null;
+        this.removed = NO_ROWS;
+        this.salariesByPosition = salaries;
+        long hash = 0;
+        for (int row = 0; row < size; row++) {
+            hash += hashRow(row);
+        }
+        this.contentHash = hash;
+    }
+
+    // The base of the given columns with another overlay, holding employees with the given content hash
+    private EmployeeColumns(EmployeeColumns base, EmployeeColumns added, int[] removed, long contentHash) {
+        this.baseRows = base.baseRows;
+        this.ids = base.ids;
+        this.idAbsent = base.idAbsent;
+        this.salaries = base.salaries;
+        this.salaryAbsent = base.salaryAbsent;
+        this.ages = base.ages;
+        this.ageAbsent = base.ageAbsent;
+        this.names = base.names;
+        this.nameOffsets = base.nameOffsets;
+        this.nameAbsent = base.nameAbsent;
+        this.images = base.images;
+        this.imageCodes = base.imageCodes;
+        this.idTable = base.idTable;
+        this.uniqueIds = base.uniqueIds;
+        this.nameHashes = base.nameHashes;
+        this.rowsByNameHash = base.rowsByNameHash;
+        this.added = added;
+        this.removed = removed;
+        this.size = baseRows + (added != null ? added.size : 0) - removed.length;
+        this.contentHash = contentHash;
+    }
+
+    // The columns that a list of all their employees, as list() returns it, reads from; null for any other list
+    static EmployeeColumns backing(List<Employee> employees) {
+        return employees instanceof Rows && ((Rows) employees).rows == null ? ((Rows) employees).columns : null;
+    }
+
+    static EmployeeColumns of(Collection<Employee> employees) {
+        Builder builder = new Builder(employees.size());
+        employees.forEach(builder::add);
+        return builder.build();
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Rows numbered so far, including removed ones: every row is below it
+    int rowCount() {
+        return baseRows + (added != null ? added.size : 0);
+    }
+
+    // Whether the columns number rows as the other columns do, as patches of the same columns do
+    boolean sharesRowsWith(EmployeeColumns other) {
+        return ids == other.ids;
+    }
+
+    // Equal for columns holding the same employees, in whatever order
+    long contentHash() {
+        return contentHash;
+    }
+
+    // Salaries by position; shared with the caller, which must not modify them
+    int[] salaries() {
+        int[] laidOut = salariesByPosition;
+        if (laidOut == null) {
+            // Racing callers lay out equal arrays, so either may win
+            int[] rows = rows();
+            laidOut = new int[size];
+            for (int position = 0; position < size; position++) {
+                laidOut[position] = salary(rows[position]);
+            }
+            salariesByPosition = laidOut;
+        }
+        return laidOut;
+    }
+
+    // The row at the position
+    int row(int position) {
+        if (removed.length == 0) {
+            return position;
+        }
+        // removed[i] - i rows are in front of the i-th removed row
+        int low = 0;
+        int high = removed.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (removed[middle] - middle <= position) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return position + low;
+    }
+
+    // Replaces each position with its row
+    int[] rowsAt(int[] positions) {
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = row(positions[i]);
+        }
+        return positions;
+    }
+
+    boolean isRemoved(int row) {
+        return removed.length > 0 && Arrays.binarySearch(removed, row) >= 0;
+    }
+
+    boolean hasSalary(int row) {
+        return row < baseRows ? !salaryAbsent.get(row) : added.hasSalary(row - baseRows);
+    }
+
+    int salary(int row) {
+        return row < baseRows ? salaries[row] : added.salary(row - baseRows);
+    }
+
+    boolean hasAge(int row) {
+        return row < baseRows ? !ageAbsent.get(row) : added.hasAge(row - baseRows);
+    }
+
+    int age(int row) {
+        return row < baseRows ? ages[row] : added.age(row - baseRows);
+    }
+
+    boolean hasName(int row) {
+        return row < baseRows ? !nameAbsent.get(row) : added.hasName(row - baseRows);
+    }
+
+    String name(int row) {
+        if (row >= baseRows) {
+            return added.name(row - baseRows);
+        }
+        if (nameAbsent.get(row)) {
+            return null;
+        }
+        return new String(names, nameOffsets[row], nameOffsets[row + 1] - nameOffsets[row], StandardCharsets.UTF_8);
+    }
+
+    // Length of the name in UTF-8, 0 when absent
+    int nameLength(int row) {
+        EmployeeColumns holder = holder(row);
+        int r = local(row);
+        return holder.nameOffsets[r + 1] - holder.nameOffsets[r];
+    }
+
+    // Copies the packed UTF-8 name into the buffer as it is, without decoding it
+    void putName(int row, ByteBuffer buffer) {
+        EmployeeColumns holder = holder(row);
+        int r = local(row);
+        buffer.put(holder.names, holder.nameOffsets[r], holder.nameOffsets[r + 1] - holder.nameOffsets[r]);
+    }
+
+    boolean hasId(int row) {
+        return row < baseRows ? !idAbsent.get(row) : added.hasId(row - baseRows);
+    }
+
+    long id(int row) {
+        return row < baseRows ? ids[row] : added.id(row - baseRows);
+    }
+
+    Employee employee(int row) {
+        if (row >= baseRows) {
+            return added.employee(row - baseRows);
+        }
+        return new Employee(idAbsent.get(row) ? null : ids[row], name(row),
+                salaryAbsent.get(row) ? null : salaries[row], ageAbsent.get(row) ? null : ages[row],
+                image(row));
+    }
+
+    // Whether the row holds the same employee as a row of other columns, compared without creating either
+    boolean sameAs(int row, EmployeeColumns other, int otherRow) {
+        EmployeeColumns a = holder(row);
+        EmployeeColumns b = other.holder(otherRow);
+        int r = local(row);
+        int s = other.local(otherRow);
+        return a.ids[r] == b.ids[s] && a.idAbsent.get(r) == b.idAbsent.get(s)
+                && a.salaries[r] == b.salaries[s] && a.salaryAbsent.get(r) == b.salaryAbsent.get(s)
+                && a.ages[r] == b.ages[s] && a.ageAbsent.get(r) == b.ageAbsent.get(s)
+                && a.nameAbsent.get(r) == b.nameAbsent.get(s)
+                && Arrays.equals(a.names, a.nameOffsets[r], a.nameOffsets[r + 1],
+                        b.names, b.nameOffsets[s], b.nameOffsets[s + 1])
+                && Objects.equals(a.image(r), b.image(s));
+    }
+
+    // The row of the employee with the id, -1 if there is none
+    int rowOf(Long id) {
+        return id != null ? rowOf(id.longValue()) : -1;
+    }
+
+    // Removing an id removes every row holding it, so when its last row is removed, all of them are
+    int rowOf(long id) {
+        if (added != null) {
+            int row = added.rowOf(id);
+            if (row >= 0) {
+                return isRemoved(baseRows + row) ? -1 : baseRows + row;
+            }
+        }
+        int row = baseRowOf(id);
+        return row >= 0 && !isRemoved(row) ? row : -1;
+    }
+
+    // Rows of the employees with exactly this name, in row order
+    int[] rowsNamed(String name) {
+        if (name == null) {
+            return NO_ROWS;
+        }
+        byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+        int hash = Arrays.hashCode(encoded);
+        IntStream rows = IntStream.empty();
+        int from = Arrays.binarySearch(nameHashes, hash);
+        if (from >= 0) {
+            while (from > 0 && nameHashes[from - 1] == hash) {
+                from--;
+            }
+            rows = IntStream.range(from, nameHashes.length)
+                    .takeWhile(i -> nameHashes[i] == hash)
+                    .map(i -> rowsByNameHash[i])
+                    .filter(row -> Arrays.equals(names, nameOffsets[row], nameOffsets[row + 1], encoded, 0, encoded.length));
+        }
+        if (added != null) {
+            rows = IntStream.concat(rows, Arrays.stream(added.rowsNamed(name)).map(row -> baseRows + row));
+        }
+        return rows.filter(row -> !isRemoved(row)).toArray();
+    }
+
+    // Rows in the order of the sort; compares names as Strings so the order matches EmployeeSort.comparator()
+    int[] sortedRows(EmployeeSort sort) {
+        int[] rows = rows();
+        RowSorter.RowComparator primary = comparator(sort.getKey(), rows);
+        RowSorter.sort(rows, (sort.isDescending() ? primary.reversed() : primary)
+                .thenComparing(comparator(EmployeeSort.Key.ID, rows)));
+        return rows;
+    }
+
+    private RowSorter.RowComparator comparator(EmployeeSort.Key key, int[] rows) {
+        switch (key) {
+            case ID:
+                return absentLast(this::hasId, (a, b) -> Long.compare(id(a), id(b)));
+            case EMPLOYEE_SALARY:
+                return absentLast(this::hasSalary, (a, b) -> Integer.compare(salary(a), salary(b)));
+            case EMPLOYEE_AGE:
+                return absentLast(this::hasAge, (a, b) -> Integer.compare(age(a), age(b)));
+            default:
+                String[] decoded = new String[rowCount()];
+                for (int row : rows) {
+                    decoded[row] = name(row);
+                }
+                return absentLast(this::hasName, (a, b) -> decoded[a].compareTo(decoded[b]));
+        }
+    }
+
+    private static RowSorter.RowComparator absentLast(IntPredicate present, RowSorter.RowComparator compare) {
+        return (a, b) -> {
+            boolean presentA = present.test(a);
+            boolean presentB = present.test(b);
+            return presentA && presentB ? compare.compare(a, b) : Boolean.compare(presentB, presentA);
+        };
+    }
+
+    EmployeeColumns with(Collection<Employee> employees) {
+        int addedRows = added != null ? added.size : 0;
+        Builder builder = new Builder(addedRows + employees.size());
+        for (int row = 0; row < addedRows; row++) {
+            builder.copy(added, row);
+        }
+        employees.forEach(builder::add);
+        EmployeeColumns overlay = builder.build();
+        long hash = contentHash;
+        for (int row = addedRows; row < overlay.size; row++) {
+            hash += overlay.hashRow(row);
+        }
+        return new EmployeeColumns(this, overlay, removed, hash).mergedIfLarge();
+    }
+
+    EmployeeColumns without(Set<Long> removedIds) {
+        return withoutRows(rowsWithIds(removedIds));
+    }
+
+    // The rows must not be removed yet and must be sorted, as rowsWithIds returns them
+    EmployeeColumns withoutRows(int[] rows) {
+        if (rows.length == 0) {
+            return this;
+        }
+        int[] merged = new int[removed.length + rows.length];
+        System.arraycopy(removed, 0, merged, 0, removed.length);
+        System.arraycopy(rows, 0, merged, removed.length, rows.length);
+        Arrays.sort(merged);
+        long hash = contentHash;
+        for (int row : rows) {
+            hash -= holder(row).hashRow(local(row));
+        }
+        return new EmployeeColumns(this, added, merged, hash).mergedIfLarge();
+    }
+
+    // Rows not removed yet that hold one of the ids, sorted
+    int[] rowsWithIds(Set<Long> wanted) {
+        IntStream rows;
+        if (uniqueIds) {
+            rows = wanted.stream().filter(Objects::nonNull).mapToInt(this::baseRowOf).filter(row -> row >= 0);
+        } else {
+            rows = IntStream.range(0, baseRows).filter(row -> !idAbsent.get(row) && wanted.contains(ids[row]));
+        }
+        if (added != null) {
+            rows = IntStream.concat(rows, IntStream.range(0, added.size)
+                    .filter(row -> added.hasId(row) && wanted.contains(added.id(row)))
+                    .map(row -> baseRows + row));
+        }
+        return rows.filter(row -> !isRemoved(row)).sorted().toArray();
+    }
+
+    private EmployeeColumns mergedIfLarge() {
+        if (rowCount() - baseRows + removed.length <= MAX_OVERLAY) {
+            return this;
+        }
+        Builder builder = new Builder(size);
+        for (int row : rows()) {
+            builder.copy(holder(row), local(row));
+        }
+        return builder.build();
+    }
+
+    // The employees in order
+    List<Employee> list() {
+        return new Rows(this, null);
+    }
+
+    List<Employee> list(int[] rows) {
+        return new Rows(this, rows);
+    }
+
+    // Rows in position order
+    int[] rows() {
+        if (removed.length == 0 && added == null) {
+            return IntStream.range(0, size).toArray();
+        }
+        int[] rows = new int[size];
+        int next = 0;
+        for (int row = 0, position = 0; position < size; row++) {
+            if (next < removed.length && removed[next] == row) {
+                next++;
+            } else {
+                rows[position++] = row;
+            }
+        }
+        return rows;
+    }
+
+    // The columns whose arrays hold the row, and its number there
+    private EmployeeColumns holder(int row) {
+        return row < baseRows ? this : added;
+    }
+
+    private int local(int row) {
+        return row < baseRows ? row : row - baseRows;
+    }
+
+    private int baseRowOf(long id) {
+        int mask = idTable.length - 1;
+        for (int slot = mix(id) & mask; idTable[slot] != 0; slot = (slot + 1) & mask) {
+            if (ids[idTable[slot] - 1] == id) {
+                return idTable[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    private int slot(long id) {
+        int mask = idTable.length - 1;
+        int slot = mix(id) & mask;
+        while (idTable[slot] != 0 && ids[idTable[slot] - 1] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Rows of the same columns with the same image share its String
+    String image(int row) {
+        if (row >= baseRows) {
+            return added.image(row - baseRows);
+        }
+        return imageCodes[row] != NO_IMAGE ? images[imageCodes[row]] : null;
+    }
+
+    private static int mix(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // 64-bit so that an unchanged hash can stand for unchanged content; every name byte goes in, not just the
+    // 32-bit name hash, as short names with equal hashes are common. The content hash adds these up, so that
+    // a patch can update it row by row; it therefore does not see the order of the rows
+    private long hashRow(int row) {
+        long hash = mix(ABSENT, idAbsent.get(row) ? ABSENT : ids[row]);
+        hash = mix(hash, salaryAbsent.get(row) ? ABSENT : salaries[row]);
+        hash = mix(hash, ageAbsent.get(row) ? ABSENT : ages[row]);
+        hash = mix(hash, nameAbsent.get(row) ? ABSENT : nameOffsets[row + 1] - nameOffsets[row]);
+        for (int i = nameOffsets[row]; i < nameOffsets[row + 1]; i++) {
+            hash = mix(hash, names[i]);
+        }
+        String image = image(row);
+        hash = mix(hash, image != null ? image.length() : ABSENT);
+        for (int i = 0; image != null && i < image.length(); i++) {
+            hash = mix(hash, image.charAt(i));
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        long h = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    private int nameHash(int row) {
+        int hash = 1;
+        for (int i = nameOffsets[row]; i < nameOffsets[row + 1]; i++) {
+            hash = 31 * hash + names[i];
+        }
+        return hash;
+    }
+
+    /**
+     * Read-only list over rows, creating an {@link Employee} on every {@link #get(int)}.
+     */
+    private static final class Rows extends AbstractList<Employee> implements RandomAccess {
+        private final EmployeeColumns columns;
+        private final int[] rows;
+
+        Rows(EmployeeColumns columns, int[] rows) {
+            this.columns = columns;
+            this.rows = rows;
+        }
+
+        @Override
+        public Employee get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+            }
+            return columns.employee(rows != null ? rows[index] : columns.row(index));
+        }
+
+        @Override
+        public int size() {
+            return rows != null ? rows.length : columns.size;
+        }
+    }
+
+    static final class Builder {
+        private int size;
+        private long[] ids;
+        private final BitSet idAbsent = new BitSet();
+        private int[] salaries;
+        private final BitSet salaryAbsent = new BitSet();
+        private int[] ages;
+        private final BitSet ageAbsent = new BitSet();
+        private byte[] names;
+        private int[] nameOffsets;
+        private final BitSet nameAbsent = new BitSet();
+        private final Map<String, Integer> images = new HashMap<>();
+        private int[] imageCodes;
+
+        Builder(int capacity) {
+            this.ids = new long[capacity];
+            this.salaries = new int[capacity];
+            this.ages = new int[capacity];
+            this.names = new byte[capacity * 16];
+            this.nameOffsets = new int[capacity + 1];
+            this.imageCodes = new int[capacity];
+        }
+
+        void add(Employee employee) {
+            String image = employee.getProfile_image();
+            int row = append(employee.getId(), employee.getEmployee_salary(), employee.getEmployee_age(),
+                    image != null ? images.computeIfAbsent(image, key -> images.size()) : NO_IMAGE);
+            appendName(row, employee.getEmployee_name());
+        }
+
+        void copy(EmployeeColumns source, int row) {
+            int code = source.imageCodes[row];
+            int copied = append(source.idAbsent.get(row) ? null : source.ids[row],
+                    source.salaryAbsent.get(row) ? null : source.salaries[row],
+                    source.ageAbsent.get(row) ? null : source.ages[row],
+                    code != NO_IMAGE ? images.computeIfAbsent(source.images[code], key -> images.size()) : NO_IMAGE);
+            if (source.nameAbsent.get(row)) {
+                appendName(copied, null);
+            } else {
+                appendName(copied, source.names, source.nameOffsets[row], source.nameOffsets[row + 1]);
+            }
+        }
+
+        private int append(Long id, Integer salary, Integer age, int imageCode) {
+            if (size == ids.length) {
+                int capacity = Math.max(8, size * 2);
+                ids = Arrays.copyOf(ids, capacity);
+                salaries = Arrays.copyOf(salaries, capacity);
+                ages = Arrays.copyOf(ages, capacity);
+                imageCodes = Arrays.copyOf(imageCodes, capacity);
+                nameOffsets = Arrays.copyOf(nameOffsets, capacity + 1);
+            }
+            int row = size++;
+            ids[row] = id != null ? id : 0;
+            idAbsent.set(row, id == null);
+            salaries[row] = salary != null ? salary : 0;
+            salaryAbsent.set(row, salary == null);
+            ages[row] = age != null ? age : 0;
+            ageAbsent.set(row, age == null);
+            imageCodes[row] = imageCode;
+            return row;
+        }
+
+        // ASCII names, the common case, are written byte for byte without encoding them into an array first
+        private void appendName(int row, String name) {
+            nameAbsent.set(row, name == null);
+            int offset = nameOffsets[row];
+            int length = name != null ? name.length() : 0;
+            reserveNames(offset + length);
+            for (int i = 0; i < length; i++) {
+                char c = name.charAt(i);
+                if (c >= 0x80) {
+                    byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+                    appendName(row, encoded, 0, encoded.length);
+                    return;
+                }
+                names[offset + i] = (byte) c;
+            }
+            nameOffsets[row + 1] = offset + length;
+        }
+
+        private void appendName(int row, byte[] bytes, int from, int to) {
+            int offset = nameOffsets[row];
+            reserveNames(offset + to - from);
+            System.arraycopy(bytes, from, names, offset, to - from);
+            nameOffsets[row + 1] = offset + to - from;
+        }
+
+        private void reserveNames(int length) {
+            if (length > names.length) {
+                names = Arrays.copyOf(names, Math.max(names.length * 2, length));
+            }
+        }
+
+        EmployeeColumns build() {
+            return new EmployeeColumns(this);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.dto.Employee;
+import com.example.rqchallenge.employees.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Opaque listing cursors. A sorted listing resumes after the sort value and id of the last employee
+ * returned, so it stays consistent when employees are added or removed between pages; a listing in
+ * upstream order has no key to resume from and resumes at a position instead.
+ */
+final class EmployeeCursor {
+    private static final String POSITION = "@";
+    private static final String SEPARATOR = "|";
+
+    private EmployeeCursor() {
+    }
+
+    static String at(int position) {
+        return encode(POSITION + position);
+    }
+
+    static String after(EmployeeSort sort, Employee last) {
+        String value = sort.getKey().format(last);
+        return encode(sort + SEPARATOR + (last.getId() != null ? last.getId() : "") + SEPARATOR
+                + (value != null ? "=" + value : "-"));
+    }
+
+    // Index in the ordered list at which the listing continues
+    static int resume(String cursor, EmployeeSort sort, List<Employee> ordered) {
+        String decoded = decode(cursor);
+        try {
+            if (decoded.startsWith(POSITION)) {
+                requireSort(sort == null);
+                int position = Integer.parseInt(decoded.substring(POSITION.length()));
+                if (position < 0) {
+                    throw new InvalidRequestException("Invalid cursor");
+                }
+                return position;
+            }
+            String[] parts = decoded.split("\\" + SEPARATOR, 3);
+            requireSort(parts.length == 3 && sort != null && sort.toString().equals(parts[0]));
+            Employee probe = new Employee();
+            if (!parts[1].isEmpty()) {
+                probe.setId(Long.valueOf(parts[1]));
+            }
+            if (parts[2].startsWith("=")) {
+                sort.getKey().parse(probe, parts[2].substring(1));
+            }
+            int index = Collections.binarySearch(ordered, probe, sort.comparator());
+            return index >= 0 ? index + 1 : -(index + 1);
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
+    }
+
+    private static void requireSort(boolean matches) {
+        if (!matches) {
+            throw new InvalidRequestException("cursor does not belong to a listing with this sort");
+        }
+    }
+
+    private static String encode(String cursor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.dto.Employee;
+
+import java.util.List;
+
+/**
+ * Collects employees one at a time straight into {@link EmployeeColumns}, for parsers that read them record
+ * by record: an employee added here can be dropped right away. The list it builds reads from the columns,
+ * and {@link EmployeeSnapshot#of(List)} takes those over instead of storing the employees a second time.
+ */
+public final class EmployeeListBuilder {
+    private final EmployeeColumns.Builder columns = new EmployeeColumns.Builder(0);
+
+    // Null employees are skipped, as EmployeeSnapshot.of skips them
+    public void add(Employee employee) {
+        if (employee != null) {
+            columns.add(employee);
+        }
+    }
+
+    public List<Employee> build() {
+        return columns.build().list();
+    }
+}
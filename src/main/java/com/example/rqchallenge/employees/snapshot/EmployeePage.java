@@ -0,0 +1,15 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.dto.Employee;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class EmployeePage {
+    List<Employee> employees;
+    // Number of employees matching the filters across all pages
+    int total;
+    // Resumes the listing after this page, null on the last page
+    String nextCursor;
+}
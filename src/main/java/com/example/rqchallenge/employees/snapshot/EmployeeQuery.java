@@ -0,0 +1,49 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.dto.Employee;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Filters, order and page of a listing. Bounds are inclusive and an employee without the bounded value
+ * never matches; without a sort the upstream order is kept. A cursor from a previous page takes precedence
+ * over the offset, and a null limit means the rest of the list.
+ */
+@Value
+@Builder
+public class EmployeeQuery {
+    Integer minSalary;
+    Integer maxSalary;
+    Integer minAge;
+    Integer maxAge;
+    EmployeeSort sort;
+    String cursor;
+    int offset;
+    Integer limit;
+
+    public boolean isFiltered() {
+        return minSalary != null || maxSalary != null || minAge != null || maxAge != null;
+    }
+
+    public boolean matches(Employee employee) {
+        return within(employee.getEmployee_salary(), minSalary, maxSalary)
+                && within(employee.getEmployee_age(), minAge, maxAge);
+    }
+
+    // Same as matches(Employee) on a row of the columns, without creating the employee
+    boolean matches(EmployeeColumns columns, int row) {
+        return within(columns.hasSalary(row), columns.salary(row), minSalary, maxSalary)
+                && within(columns.hasAge(row), columns.age(row), minAge, maxAge);
+    }
+
+    private static boolean within(Integer value, Integer min, Integer max) {
+        return within(value != null, value != null ? value : 0, min, max);
+    }
+
+    private static boolean within(boolean present, int value, Integer min, Integer max) {
+        if (min == null && max == null) {
+            return true;
+        }
+        return present && (min == null || value >= min) && (max == null || value <= max);
+    }
+}
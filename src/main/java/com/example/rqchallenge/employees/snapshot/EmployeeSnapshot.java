@@ -0,0 +1,392 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.dto.Employee;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, indexed view of the employee list as returned by one upstream fetch, stored in
+ * {@link EmployeeColumns}: the employees it returns are created from the columns when read, typically while
+ * the response is written, and are copies that can be modified without affecting the snapshot.
+ * All indexes are built once in {@link #of(List)} so reads never scan the list; top earner
+ * selections beyond the top ten are computed on first use and memoized. The name index and the salary and
+ * age aggregates are built on first use and patched, not rebuilt, when an employee is added or removed;
+ * both refer to employees by row, so a patch that merges the columns, numbering rows anew, drops them until
+ * their next use. A patch reads the highest salary and the top ten from the patched aggregates, as later top
+ * earner selections do, instead of scanning the salaries again.
+ * A snapshot remembers when it was fetched and whether it is being served stale, i.e. as a fallback after
+ * a failed fetch. Its version is a hash of its employees, so it only changes when they do, not when only
+ * their order does, and its modification time is when they last changed.
+ */
+public final class EmployeeSnapshot {
+    private static final int TOP_EARNERS = 10;
+    // Bounds the per-snapshot memo of top earner selections so arbitrary n values cannot grow it
+    private static final int MAX_MEMOIZED_SELECTIONS = 32;
+    private static final EmployeeSnapshot EMPTY =
+            new EmployeeSnapshot(EmployeeColumns.EMPTY, new int[0], Instant.EPOCH, Instant.EPOCH);
+
+    private final EmployeeColumns columns;
+    private final List<Employee> employees;
+    private final int highestSalary;
+    private final List<String> topTenHighestEarningEmployeeNames;
+    private final Map<Integer, List<Employee>> topEarners;
+    // Rows in each sort order
+    private final Map<EmployeeSort, int[]> sorted;
+    private final Instant fetchedAt;
+    private final Instant modifiedAt;
+    private final boolean stale;
+    // Built on the first search and carried over incrementally to snapshots derived from this one
+    private volatile NameSearchIndex nameIndex;
+    private volatile EmployeeAggregates aggregates;
+
+    // The top ten are rows, highest salary first, so the first one also earns the highest salary
+    private EmployeeSnapshot(EmployeeColumns columns, int[] topTen, Instant fetchedAt, Instant modifiedAt) {
+        this.columns = columns;
+        this.employees = columns.list();
+        this.fetchedAt = fetchedAt;
+        this.modifiedAt = modifiedAt;
+        this.stale = false;
+        this.topEarners = new ConcurrentHashMap<>();
+        this.sorted = new ConcurrentHashMap<>();
+        // A missing salary counts as 0, so the highest salary is never below it
+        this.highestSalary = topTen.length > 0 ? Math.max(0, columns.salary(topTen[0])) : 0;
+        // Not toUnmodifiableList(), which rejects the null name of an employee without one
+        this.topTenHighestEarningEmployeeNames = Collections.unmodifiableList(
+                Arrays.stream(topTen).mapToObj(columns::name).collect(Collectors.toList()));
+    }
+
+    // Shares every index with the source, so marking a snapshot stale costs nothing
+    private EmployeeSnapshot(EmployeeSnapshot source, boolean stale, Instant modifiedAt) {
+        this.columns = source.columns;
+        this.employees = source.employees;
+        this.highestSalary = source.highestSalary;
+        this.topTenHighestEarningEmployeeNames = source.topTenHighestEarningEmployeeNames;
+        this.topEarners = source.topEarners;
+        this.sorted = source.sorted;
+        this.fetchedAt = source.fetchedAt;
+        this.modifiedAt = modifiedAt;
+        this.stale = stale;
+        this.nameIndex = source.nameIndex;
+        this.aggregates = source.aggregates;
+    }
+
+    public static EmployeeSnapshot of(List<Employee> employees) {
+        return of(employees, Instant.now());
+    }
+
+    public static EmployeeSnapshot of(List<Employee> employees, Instant fetchedAt) {
+        if (employees == null || employees.isEmpty()) {
+            return new EmployeeSnapshot(EmployeeColumns.EMPTY, new int[0], fetchedAt, fetchedAt);
+        }
+        // Employees parsed into columns, see EmployeeListBuilder, or those of another snapshot are not copied
+        EmployeeColumns backing = EmployeeColumns.backing(employees);
+        if (backing != null) {
+            return new EmployeeSnapshot(backing, select(backing, TOP_EARNERS), fetchedAt, fetchedAt);
+        }
+        List<Employee> present = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            if (employee != null) {
+                present.add(employee);
+            }
+        }
+        EmployeeColumns columns = EmployeeColumns.of(present);
+        return new EmployeeSnapshot(columns, select(columns, TOP_EARNERS), fetchedAt, fetchedAt);
+    }
+
+    public static EmployeeSnapshot empty() {
+        return EMPTY;
+    }
+
+    public List<Employee> getEmployees() {
+        return employees;
+    }
+
+    // What the employees are read from, for writers that copy them column by column
+    EmployeeColumns columns() {
+        return columns;
+    }
+
+    public Instant getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public Instant getModifiedAt() {
+        return modifiedAt;
+    }
+
+    public long getVersion() {
+        return columns.contentHash();
+    }
+
+    // The version as written in ETags and the change feed
+    public String getVersionTag() {
+        return Long.toHexString(getVersion());
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public EmployeeSnapshot asStale() {
+        return stale ? this : new EmployeeSnapshot(this, true, modifiedAt);
+    }
+
+    // A fetch that brings the same employees as the previous one does not count as a modification
+    public EmployeeSnapshot unchangedSince(EmployeeSnapshot previous) {
+        if (previous == null || previous.getVersion() != getVersion() || !previous.modifiedAt.isBefore(modifiedAt)) {
+            return this;
+        }
+        return new EmployeeSnapshot(this, stale, previous.modifiedAt);
+    }
+
+    public int size() {
+        return employees.size();
+    }
+
+    public Optional<Employee> findById(Long id) {
+        int row = columns.rowOf(id);
+        return row >= 0 ? Optional.of(columns.employee(row)) : Optional.empty();
+    }
+
+    public List<Employee> findByName(String name) {
+        return columns.list(columns.rowsNamed(name));
+    }
+
+    public int getHighestSalary() {
+        return highestSalary;
+    }
+
+    public List<String> getTopTenHighestEarningEmployeeNames() {
+        return topTenHighestEarningEmployeeNames;
+    }
+
+    /**
+     * The {@code n} highest earners, plus everyone who earns the same as the n-th ranked employee. Read from
+     * the aggregates once they are built, as they are for a patched snapshot, and otherwise selected from the
+     * salaries.
+     */
+    public List<Employee> topEarners(int n) {
+        if (n <= 0) {
+            return Collections.emptyList();
+        }
+        List<Employee> memoized = topEarners.get(n);
+        if (memoized != null) {
+            return memoized;
+        }
+        EmployeeAggregates built = aggregates;
+        List<Employee> selected = columns.list(built != null ? topEarners(built, columns, n) : select(columns, n));
+        if (topEarners.size() < MAX_MEMOIZED_SELECTIONS) {
+            topEarners.putIfAbsent(n, selected);
+        }
+        return selected;
+    }
+
+    /**
+     * Up to {@code limit} employees whose name matches the query, best matches first; see {@link NameSearchIndex}.
+     */
+    public List<Employee> search(String query, int limit) {
+        NameSearchIndex index = nameIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = nameIndex;
+                if (index == null) {
+                    index = NameSearchIndex.of(columns);
+                    nameIndex = index;
+                }
+            }
+        }
+        return columns.list(index.search(query, limit, columns));
+    }
+
+    /**
+     * Salary and age statistics of every employee; see {@link EmployeeAggregates}.
+     */
+    public EmployeeStats stats(EmployeeStatsQuery query) {
+        return aggregates().stats(query, columns);
+    }
+
+    private EmployeeAggregates aggregates() {
+        EmployeeAggregates built = aggregates;
+        if (built == null) {
+            synchronized (this) {
+                built = aggregates;
+                if (built == null) {
+                    built = EmployeeAggregates.of(columns);
+                    aggregates = built;
+                }
+            }
+        }
+        return built;
+    }
+
+    /**
+     * One page of the employees matching the query. Each sort order is computed on first use and kept
+     * with the snapshot, so paging through a sorted listing only walks the requested page.
+     */
+    public EmployeePage query(EmployeeQuery query) {
+        EmployeeSort sort = query.getSort();
+        int[] rows = sort != null ? sortedBy(sort) : null;
+        List<Employee> ordered = sort != null ? columns.list(rows) : employees;
+        int start = query.getCursor() != null ? EmployeeCursor.resume(query.getCursor(), sort, ordered) : query.getOffset();
+        int limit = query.getLimit() != null ? query.getLimit() : Integer.MAX_VALUE;
+
+        List<Employee> page;
+        int total;
+        int last = -1;
+        boolean more = false;
+        if (!query.isFiltered()) {
+            total = ordered.size();
+            int end = (int) Math.min((long) start + limit, ordered.size());
+            page = start < end ? ordered.subList(start, end) : Collections.emptyList();
+            last = end - 1;
+            more = end < ordered.size();
+        } else {
+            // Filters require a full pass anyway to count the matches; it reads the columns, not employees
+            int[] matches = new int[Math.min(limit, columns.size())];
+            int found = 0;
+            total = 0;
+            for (int i = 0; i < columns.size(); i++) {
+                int row = rows != null ? rows[i] : columns.row(i);
+                if (!query.matches(columns, row)) {
+                    continue;
+                }
+                total++;
+                if (i < start) {
+                    continue;
+                }
+                if (found < limit) {
+                    matches[found++] = row;
+                    last = i;
+                } else {
+                    more = true;
+                }
+            }
+            page = columns.list(Arrays.copyOf(matches, found));
+        }
+        String nextCursor = null;
+        if (more && !page.isEmpty()) {
+            nextCursor = sort != null ? EmployeeCursor.after(sort, page.get(page.size() - 1)) : EmployeeCursor.at(last + 1);
+        }
+        return new EmployeePage(page, total, nextCursor);
+    }
+
+    private int[] sortedBy(EmployeeSort sort) {
+        return sorted.computeIfAbsent(sort, columns::sortedRows);
+    }
+
+    /**
+     * The employees added, changed and removed since the previous snapshot, matched by id. Employees without an
+     * id cannot be matched and are left out; of employees sharing an id, the one {@link #findById(Long)} returns
+     * is compared.
+     */
+    public EmployeeChanges changesSince(EmployeeSnapshot previous) {
+        EmployeeColumns before = previous.columns;
+        List<Employee> added = new ArrayList<>();
+        List<Employee> changed = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            int row = columns.row(i);
+            if (!columns.hasId(row) || columns.rowOf(columns.id(row)) != row) {
+                continue;
+            }
+            int previousRow = before.rowOf(columns.id(row));
+            if (previousRow < 0) {
+                added.add(columns.employee(row));
+            } else if (!columns.sameAs(row, before, previousRow)) {
+                changed.add(columns.employee(row));
+            }
+        }
+        for (int i = 0; i < before.size(); i++) {
+            int row = before.row(i);
+            if (before.hasId(row) && before.rowOf(before.id(row)) == row && columns.rowOf(before.id(row)) < 0) {
+                removed.add(before.id(row));
+            }
+        }
+        return new EmployeeChanges(previous.getVersionTag(), getVersionTag(), modifiedAt,
+                Collections.unmodifiableList(added), Collections.unmodifiableList(changed),
+                Collections.unmodifiableList(removed));
+    }
+
+    public EmployeeSnapshot withEmployee(Employee employee) {
+        return withEmployees(List.of(employee));
+    }
+
+    public EmployeeSnapshot withoutEmployee(Long id) {
+        return withoutEmployees(List.of(id));
+    }
+
+    // A batch is applied as one patch, so the columns are merged at most once however many employees it holds
+    public EmployeeSnapshot withEmployees(Collection<Employee> added) {
+        if (added.isEmpty()) {
+            return this;
+        }
+        List<Employee> present = new ArrayList<>(added.size());
+        for (Employee employee : added) {
+            if (employee != null) {
+                present.add(employee);
+            }
+        }
+        EmployeeColumns updated = columns.with(present);
+        if (!updated.sharesRowsWith(columns)) {
+            return derived(updated, null);
+        }
+        EmployeeAggregates current = aggregates();
+        for (int row = columns.rowCount(); row < updated.rowCount(); row++) {
+            current = current.withAdded(row, updated);
+        }
+        return derived(updated, current);
+    }
+
+    public EmployeeSnapshot withoutEmployees(Collection<Long> ids) {
+        int[] rows = columns.rowsWithIds(new HashSet<>(ids));
+        if (rows.length == 0) {
+            return this;
+        }
+        EmployeeColumns updated = columns.withoutRows(rows);
+        if (!updated.sharesRowsWith(columns)) {
+            return derived(updated, null);
+        }
+        EmployeeAggregates current = aggregates();
+        for (int row : rows) {
+            current = current.withRemoved(row, columns);
+        }
+        return derived(updated, current);
+    }
+
+    // A local patch keeps the fetch time and staleness of the snapshot it was applied to. While the rows keep
+    // their numbers the index and the patched aggregates carry over and the top ten come from the aggregates,
+    // in O(log n); columns merged anew are scanned as a fetch is
+    private EmployeeSnapshot derived(EmployeeColumns updated, EmployeeAggregates patched) {
+        int[] topTen = patched != null ? topEarners(patched, updated, TOP_EARNERS) : select(updated, TOP_EARNERS);
+        EmployeeSnapshot snapshot = new EmployeeSnapshot(updated, topTen, fetchedAt, Instant.now());
+        if (patched != null) {
+            snapshot.nameIndex = nameIndex;
+            snapshot.aggregates = patched;
+        }
+        return stale ? snapshot.asStale() : snapshot;
+    }
+
+    private static int[] select(EmployeeColumns columns, int n) {
+        return columns.rowsAt(TopEarnersSelector.select(columns.salaries(), n));
+    }
+
+    // The aggregates leave out employees without a salary, which the selection counts as earning 0; they
+    // agree whenever n employees earn more than that, and the selection decides otherwise
+    private static int[] topEarners(EmployeeAggregates aggregates, EmployeeColumns columns, int n) {
+        int[] rows = aggregates.topEarners(n);
+        if (rows.length >= n && columns.salary(rows[n - 1]) > 0) {
+            return rows;
+        }
+        return select(columns, n);
+    }
+}
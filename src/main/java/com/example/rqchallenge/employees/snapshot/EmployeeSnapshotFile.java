@@ -0,0 +1,150 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.dto.Employee;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Compact binary copy of a snapshot on local disk, written and read through a memory-mapped file.
+ * Layout: magic, version, fetch time in epoch millis and record count, then per employee the id, salary
+ * and age followed by the length-prefixed UTF-8 name and profile image. Absent numbers are stored as
+ * their type's MIN_VALUE and absent strings with length -1. A new copy is written next to the file and
+ * moved over it, so readers never see a partial write.
+ */
+public class EmployeeSnapshotFile {
+    private static final int MAGIC = 0x52514553;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = Integer.BYTES * 2 + Long.BYTES + Integer.BYTES;
+    private static final int RECORD_BYTES = Long.BYTES + Integer.BYTES * 2 + Integer.BYTES * 2;
+    private static final int ABSENT = -1;
+
+    private final Path path;
+
+    public EmployeeSnapshotFile(Path path) {
+        this.path = path;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    // Written from the columns: names are copied as packed, and each distinct image is encoded once
+    public void write(EmployeeSnapshot snapshot) throws IOException {
+        EmployeeColumns columns = snapshot.columns();
+        int[] rows = columns.rows();
+        Map<String, byte[]> images = new HashMap<>();
+        long size = HEADER_BYTES;
+        for (int row : rows) {
+            String image = columns.image(row);
+            byte[] encoded = image != null ? images.computeIfAbsent(image, EmployeeSnapshotFile::encode) : null;
+            size += RECORD_BYTES + columns.nameLength(row) + length(encoded);
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot of " + rows.length + " employees is too large to map");
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(snapshot.getFetchedAt().toEpochMilli())
+                    .putInt(rows.length);
+            for (int row : rows) {
+                buffer.putLong(columns.hasId(row) ? columns.id(row) : Long.MIN_VALUE)
+                        .putInt(columns.hasSalary(row) ? columns.salary(row) : Integer.MIN_VALUE)
+                        .putInt(columns.hasAge(row) ? columns.age(row) : Integer.MIN_VALUE);
+                if (columns.hasName(row)) {
+                    buffer.putInt(columns.nameLength(row));
+                    columns.putName(row, buffer);
+                } else {
+                    buffer.putInt(ABSENT);
+                }
+                String image = columns.image(row);
+                put(buffer, image != null ? images.get(image) : null);
+            }
+            buffer.force();
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Empty when nothing was persisted yet; a file in an unknown format or cut short fails with an IOException
+    public Optional<EmployeeSnapshot> read() throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Unrecognized employee snapshot file " + path);
+            }
+            Instant fetchedAt = Instant.ofEpochMilli(buffer.getLong());
+            int count = buffer.getInt();
+            if (count < 0 || (long) count * RECORD_BYTES > buffer.remaining()) {
+                throw new IOException("Corrupt employee snapshot file " + path);
+            }
+            List<Employee> employees = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long id = buffer.getLong();
+                int salary = buffer.getInt();
+                int age = buffer.getInt();
+                employees.add(Employee.builder()
+                        .id(id != Long.MIN_VALUE ? id : null)
+                        .employee_salary(salary != Integer.MIN_VALUE ? salary : null)
+                        .employee_age(age != Integer.MIN_VALUE ? age : null)
+                        .employee_name(get(buffer))
+                        .profile_image(get(buffer))
+                        .build());
+            }
+            return Optional.of(EmployeeSnapshot.of(employees, fetchedAt));
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            throw new IOException("Truncated employee snapshot file " + path, e);
+        }
+    }
+
+    private static byte[] encode(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes != null ? bytes.length : 0;
+    }
+
+    private static void put(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(ABSENT);
+        } else {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static String get(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == ABSENT) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.client.EmployeeApiClient;
+import com.example.rqchallenge.employees.client.Futures;
+import com.example.rqchallenge.employees.config.EmployeeResilienceProperties;
+import com.example.rqchallenge.employees.config.EmployeeSnapshotProperties;
+import com.example.rqchallenge.employees.dto.Employee;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Builds snapshots from upstream fetches and keeps the last good one, in memory and on local disk.
+ * When a fetch fails that snapshot is returned marked stale instead of the error, and the copy on
+ * disk lets a restarted instance answer before the upstream is reachable again. Writes still pending are
+ * applied to every snapshot handed out, but neither kept as the last good one nor persisted.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(EmployeeSnapshotProperties.class)
+public class EmployeeSnapshotLoader {
+    private final EmployeeApiClient employeeApiClient;
+    private final EmployeeChangeFeed changeFeed;
+    private final PendingEmployeeWrites pendingWrites;
+    private final boolean serveLastKnownGood;
+    private final EmployeeSnapshotFile file;
+    private final ExecutorService writer;
+    private final AtomicReference<EmployeeSnapshot> pendingWrite = new AtomicReference<>();
+    private final EmployeeSnapshot restored;
+    private volatile EmployeeSnapshot lastKnownGood;
+
+    public EmployeeSnapshotLoader(EmployeeApiClient employeeApiClient,
+                                  EmployeeChangeFeed changeFeed,
+                                  PendingEmployeeWrites pendingWrites,
+                                  EmployeeResilienceProperties resilienceProperties,
+                                  EmployeeSnapshotProperties properties) {
+        this.employeeApiClient = employeeApiClient;
+        this.changeFeed = changeFeed;
+        this.pendingWrites = pendingWrites;
+        this.serveLastKnownGood = resilienceProperties.isServeLastKnownGood();
+        this.file = properties.isPersist() ? new EmployeeSnapshotFile(properties.getFile()) : null;
+        this.writer = file != null ? Executors.newSingleThreadExecutor(new CustomizableThreadFactory("snapshot-writer-")) : null;
+        this.restored = restore();
+        this.lastKnownGood = restored;
+    }
+
+    public EmployeeSnapshot load() {
+        try {
+            return loaded(employeeApiClient.getEmployees());
+        } catch (RuntimeException e) {
+            return lastKnownGoodOrThrow(e);
+        }
+    }
+
+    public CompletableFuture<EmployeeSnapshot> loadAsync() {
+        return employeeApiClient.getEmployeesAsync()
+                .thenApply(this::loaded)
+                .exceptionally(this::lastKnownGoodOrThrow);
+    }
+
+    // Employees another replica fetched from the upstream at the given time, kept as if this one had fetched them
+    public EmployeeSnapshot fromPeer(List<Employee> employees, Instant fetchedAt) {
+        return loaded(EmployeeSnapshot.of(employees, fetchedAt));
+    }
+
+    // Employees another replica holds after patching what it fetched. They are not kept as the last good snapshot,
+    // which only holds what was fetched from the upstream
+    public EmployeeSnapshot patchedByPeer(List<Employee> employees, Instant fetchedAt) {
+        return pendingWrites.applyTo(EmployeeSnapshot.of(employees, fetchedAt));
+    }
+
+    // The last snapshot fetched from the upstream, without pending writes; what the other replicas pull
+    public Optional<EmployeeSnapshot> lastKnownGood() {
+        return Optional.ofNullable(lastKnownGood);
+    }
+
+    // The snapshot persisted by a previous run, already marked stale
+    public Optional<EmployeeSnapshot> restored() {
+        return Optional.ofNullable(restored).map(pendingWrites::applyTo);
+    }
+
+    private EmployeeSnapshot loaded(List<Employee> employees) {
+        return loaded(EmployeeSnapshot.of(employees));
+    }
+
+    private EmployeeSnapshot loaded(EmployeeSnapshot fetched) {
+        EmployeeSnapshot snapshot = fetched.unchangedSince(lastKnownGood);
+        lastKnownGood = snapshot;
+        persist(snapshot);
+        EmployeeSnapshot pending = pendingWrites.applyTo(snapshot);
+        changeFeed.publish(pending);
+        return pending;
+    }
+
+    private EmployeeSnapshot lastKnownGoodOrThrow(Throwable error) {
+        EmployeeSnapshot snapshot = lastKnownGood;
+        if (!serveLastKnownGood || snapshot == null) {
+            throw Futures.propagate(error);
+        }
+        log.warn("Upstream unavailable, serving employee snapshot fetched at {}: {}",
+                snapshot.getFetchedAt(), Futures.unwrap(error).toString());
+        return pendingWrites.applyTo(snapshot.asStale());
+    }
+
+    // Disk writes stay off the request path; a snapshot still waiting to be written is replaced by a newer one
+    private void persist(EmployeeSnapshot snapshot) {
+        if (file != null && pendingWrite.getAndSet(snapshot) == null) {
+            writer.execute(this::writePending);
+        }
+    }
+
+    private void writePending() {
+        EmployeeSnapshot snapshot = pendingWrite.getAndSet(null);
+        try {
+            file.write(snapshot);
+            log.debug("Persisted {} employees to {}", snapshot.size(), file.getPath());
+        } catch (IOException e) {
+            log.warn("Could not persist employee snapshot to {}: {}", file.getPath(), e.toString());
+        }
+    }
+
+    private EmployeeSnapshot restore() {
+        if (file == null) {
+            return null;
+        }
+        try {
+            Optional<EmployeeSnapshot> snapshot = file.read();
+            snapshot.ifPresent(restored -> log.info("Restored {} employees fetched at {} from {}",
+                    restored.size(), restored.getFetchedAt(), file.getPath()));
+            return snapshot.map(EmployeeSnapshot::asStale).orElse(null);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable employee snapshot {}: {}", file.getPath(), e.toString());
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.config.EmployeeRefreshProperties;
+import com.example.rqchallenge.employees.replica.ReplicaCoherence;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fetches the employee list every employees.refresh.interval, give or take employees.refresh.jitter so that
+ * replicas do not fetch in step, and caches it, so requests find a current snapshot instead of fetching one.
+ * The next fetch is timed from the end of the previous one, so slow fetches never overlap. A fetch is skipped
+ * while this replica holds a snapshot another replica fetched recently; see {@link ReplicaCoherence}.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(EmployeeRefreshProperties.class)
+public class EmployeeSnapshotRefresher {
+    private final EmployeeSnapshotStore store;
+    private final ReplicaCoherence replicas;
+    private final EmployeeRefreshProperties properties;
+    private final ScheduledExecutorService scheduler;
+
+    public EmployeeSnapshotRefresher(EmployeeSnapshotStore store, ReplicaCoherence replicas,
+                                     EmployeeRefreshProperties properties) {
+        this.store = store;
+        this.replicas = replicas;
+        this.properties = properties;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("snapshot-refresher-"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (properties.isEnabled()) {
+            log.info("Refreshing employees every {} with jitter {}", properties.getInterval(), properties.getJitter());
+            schedule(Duration.ZERO);
+        }
+    }
+
+    private void refresh() {
+        try {
+            if (replicas.peerFetchedRecently()) {
+                log.debug("Skipping employee refresh, another replica fetched them recently");
+            } else {
+                EmployeeSnapshot snapshot = store.refresh();
+                if (!snapshot.isStale()) {
+                    replicas.fetched(snapshot);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Background employee refresh failed: {}", e.toString());
+        } finally {
+            schedule(nextDelay());
+        }
+    }
+
+    private Duration nextDelay() {
+        long interval = properties.getInterval().toMillis();
+        double jitter = properties.getJitter() * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return Duration.ofMillis(Math.max(0, Math.round(interval * (1 + jitter))));
+    }
+
+    private void schedule(Duration delay) {
+        try {
+            scheduler.schedule(this::refresh, delay.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("Employee refresher is shut down");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.client.Futures;
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.UnaryOperator;
+
+import static com.example.rqchallenge.employees.config.CacheConfig.EMPLOYEES_CACHE;
+
+/**
+ * Holds the current {@link EmployeeSnapshot} in the employees cache, loading it from the upstream on a miss
+ * or when refreshed in the background. Snapshots patched here are published to the change feed; fetched ones
+ * are published by the loader.
+ */
+@Slf4j
+@Component
+public class EmployeeSnapshotStore {
+    private final CacheManager cacheManager;
+    private final EmployeeSnapshotLoader loader;
+    private final EmployeeChangeFeed changeFeed;
+
+    public EmployeeSnapshotStore(CacheManager cacheManager, EmployeeSnapshotLoader loader, EmployeeChangeFeed changeFeed) {
+        this.cacheManager = cacheManager;
+        this.loader = loader;
+        this.changeFeed = changeFeed;
+    }
+
+    // Serve the snapshot persisted by the previous run until the first fetch replaces it, so a restart
+    // does not send every early request to the upstream at once
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        nativeCache().ifPresent(cache -> loader.restored().ifPresent(restored -> {
+            if (cache.asMap().putIfAbsent(SimpleKey.EMPTY, restored) == null) {
+                changeFeed.publish(restored);
+                log.info("Warmed the employees cache with {} persisted employees, refreshing", restored.size());
+                // The restored snapshot keeps being served, and the background refresh keeps trying
+                loader.loadAsync().whenComplete((fresh, error) -> {
+                    if (error != null) {
+                        log.warn("Refreshing the warmed employees cache failed: {}", Futures.unwrap(error).toString());
+                    } else {
+                        cache.asMap().replace(SimpleKey.EMPTY, restored, fresh);
+                    }
+                });
+            }
+        }));
+    }
+
+    public EmployeeSnapshot current() {
+        return Objects.requireNonNull(cache().get(SimpleKey.EMPTY, loader::load));
+    }
+
+    // Non-blocking variant of current(); a loaded snapshot only replaces what is cached if nothing was cached meanwhile
+    public CompletableFuture<EmployeeSnapshot> currentAsync() {
+        Optional<EmployeeSnapshot> cached = peek();
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached.get());
+        }
+        return loader.loadAsync().thenApply(loaded -> nativeCache()
+                // putIfAbsent yields the previously cached snapshot, or null (an empty Optional) when ours went in
+                .map(cache -> (EmployeeSnapshot) cache.asMap().putIfAbsent(SimpleKey.EMPTY, loaded))
+                .orElse(loaded));
+    }
+
+    // The cached snapshot if there is one, without triggering an upstream fetch
+    public Optional<EmployeeSnapshot> peek() {
+        return nativeCache().map(cache -> (EmployeeSnapshot) cache.getIfPresent(SimpleKey.EMPTY));
+    }
+
+    // Fetches the employees and caches them, whether or not a snapshot is cached. A failed fetch marks the cached
+    // snapshot stale rather than replacing it with the last fetched one, which would undo local patches
+    public EmployeeSnapshot refresh() {
+        EmployeeSnapshot loaded = loader.load();
+        if (!loaded.isStale()) {
+            replace(loaded);
+            return loaded;
+        }
+        nativeCache().ifPresent(cache -> cache.asMap()
+                .merge(SimpleKey.EMPTY, loaded, (cached, failed) -> ((EmployeeSnapshot) cached).asStale()));
+        return loaded;
+    }
+
+    public void replace(EmployeeSnapshot snapshot) {
+        cache().put(SimpleKey.EMPTY, snapshot);
+    }
+
+    // Atomic against a concurrent refresh; no-op when nothing is cached yet. Published while the entry is
+    // locked, so the change feed sees patches in the order they were applied. Returns the updated snapshot
+    public Optional<EmployeeSnapshot> update(UnaryOperator<EmployeeSnapshot> update) {
+        return nativeCache().map(cache -> (EmployeeSnapshot) cache.asMap()
+                .computeIfPresent(SimpleKey.EMPTY, (key, snapshot) -> {
+                    EmployeeSnapshot updated = update.apply((EmployeeSnapshot) snapshot);
+                    if (updated != snapshot) {
+                        changeFeed.publish(updated);
+                    }
+                    return updated;
+                }));
+    }
+
+    private org.springframework.cache.Cache cache() {
+        return Objects.requireNonNull(cacheManager.getCache(EMPLOYEES_CACHE));
+    }
+
+    private Optional<Cache<Object, Object>> nativeCache() {
+        org.springframework.cache.Cache cache = cache();
+        return cache instanceof CaffeineCache ? Optional.of(((CaffeineCache) cache).getNativeCache()) : Optional.empty();
+    }
+}
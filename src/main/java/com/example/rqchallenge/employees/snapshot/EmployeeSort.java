@@ -0,0 +1,79 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.dto.Employee;
+import com.example.rqchallenge.employees.exception.InvalidRequestException;
+import lombok.Value;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static java.util.Comparator.naturalOrder;
+import static java.util.Comparator.nullsLast;
+
+/**
+ * Sort order for listings, written as the JSON property name with a leading '-' for descending order.
+ * Employees without a value sort last in ascending order; ties are broken by ascending id.
+ */
+@Value
+public class EmployeeSort {
+    Key key;
+    boolean descending;
+
+    public enum Key {
+        ID("id", Employee::getId, (employee, value) -> employee.setId(Long.valueOf(value))),
+        EMPLOYEE_NAME("employee_name", Employee::getEmployee_name, Employee::setEmployee_name),
+        EMPLOYEE_SALARY("employee_salary", Employee::getEmployee_salary, (employee, value) -> employee.setEmployee_salary(Integer.valueOf(value))),
+        EMPLOYEE_AGE("employee_age", Employee::getEmployee_age, (employee, value) -> employee.setEmployee_age(Integer.valueOf(value)));
+
+        private final String property;
+        private final Function<Employee, ? extends Comparable<?>> value;
+        private final BiConsumer<Employee, String> parser;
+
+        Key(String property, Function<Employee, ? extends Comparable<?>> value, BiConsumer<Employee, String> parser) {
+            this.property = property;
+            this.value = value;
+            this.parser = parser;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Comparator<Employee> comparator() {
+            return Comparator.comparing((Function) value, nullsLast(naturalOrder()));
+        }
+
+        // String form of the employee's value, null when absent
+        String format(Employee employee) {
+            Object key = value.apply(employee);
+            return key != null ? key.toString() : null;
+        }
+
+        // Sets a value written by format(Employee) on the employee
+        void parse(Employee employee, String formatted) {
+            parser.accept(employee, formatted);
+        }
+    }
+
+    public static EmployeeSort parse(String sort) {
+        boolean descending = sort.startsWith("-");
+        String property = descending ? sort.substring(1) : sort;
+        return Arrays.stream(Key.values())
+                .filter(key -> key.property.equals(property))
+                .findFirst()
+                .map(key -> new EmployeeSort(key, descending))
+                .orElseThrow(() -> new InvalidRequestException("sort must be one of " + Arrays.stream(Key.values())
+                        .map(key -> key.property)
+                        .collect(Collectors.joining(", ")) + ", optionally prefixed with '-'"));
+    }
+
+    public Comparator<Employee> comparator() {
+        Comparator<Employee> primary = descending ? key.comparator().reversed() : key.comparator();
+        return primary.thenComparing(Key.ID.comparator());
+    }
+
+    @Override
+    public String toString() {
+        return (descending ? "-" : "") + key.property;
+    }
+}
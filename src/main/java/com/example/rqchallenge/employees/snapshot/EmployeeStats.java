@@ -0,0 +1,33 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.dto.Employee;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+@Value
+public class EmployeeStats {
+    int count;
+    // Salary figures cover the employees with a known salary and are null when there are none
+    int salaried;
+    Integer minSalary;
+    Integer maxSalary;
+    Double meanSalary;
+    Double medianSalary;
+    // Keyed like "p90"
+    Map<String, Integer> salaryPercentiles;
+    List<Bucket> salaryHistogram;
+    List<Bucket> ageBuckets;
+    List<Employee> topEarners;
+
+    /**
+     * Number of employees with a value from {@code from} inclusive to {@code to} exclusive.
+     */
+    @Value
+    public static class Bucket {
+        long from;
+        long to;
+        int count;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Shape of the statistics to compute: which salary percentiles (0 to 100, nearest rank), the width of the
+ * salary histogram and age buckets, and how many top earners to include, ties with the last one included.
+ */
+@Value
+@Builder
+public class EmployeeStatsQuery {
+    List<Double> percentiles;
+    int salaryBucketWidth;
+    int ageBucketWidth;
+    int topEarners;
+}
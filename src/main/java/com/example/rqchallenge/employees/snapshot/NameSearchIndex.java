@@ -0,0 +1,446 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Case and accent insensitive name search. Results are ranked by how the query matches:
+ * <ol>
+ *     <li>the whole name starts with it (exact matches first, then alphabetically)</li>
+ *     <li>a word of the name starts with it (alphabetically by word)</li>
+ *     <li>the name contains it, for queries of three or more characters (in list order)</li>
+ *     <li>a word, or for queries of several words the whole name, is within one typo of it, two for
+ *         queries of eight or more characters (closest first)</li>
+ * </ol>
+ * Prefixes are found by binary search over sorted names and words, substrings by intersecting trigram
+ * postings, and typos by comparing the query with the distinct words sharing trigrams with it, so no
+ * lookup scans every name.
+ * <p>
+ * Documents are the rows of the {@link EmployeeColumns} the index was built from, so it holds normalized
+ * names and row numbers but no employees. It serves any columns patched from those, which number rows the
+ * same way: rows removed since are skipped, and the few rows added since, at most
+ * {@link EmployeeColumns#MAX_OVERLAY}, are matched one by one on each search.
+ */
+final class NameSearchIndex {
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int[] NO_DOCS = new int[0];
+
+    // Normalized name per row, empty for rows without a name or removed when the index was built
+    private final String[] names;
+    private final int[] byName;
+    private final String[] words;
+    private final int[] wordDocs;
+    private final Map<Long, int[]> trigrams;
+    // Distinct words, each owning the range of words from its start up to the next word's start
+    private final String[] vocabulary;
+    private final int[] vocabularyStart;
+    private final Map<Long, int[]> vocabularyTrigrams;
+
+    private NameSearchIndex(EmployeeColumns columns) {
+        this.names = new String[columns.rowCount()];
+        List<String> wordList = new ArrayList<>();
+        List<Integer> wordDocList = new ArrayList<>();
+        Map<Long, Postings> postings = new HashMap<>();
+        for (int doc = 0; doc < names.length; doc++) {
+            String name = columns.isRemoved(doc) ? "" : normalize(columns.name(doc));
+            names[doc] = name;
+            if (name.isEmpty()) {
+                continue;
+            }
+            for (String word : name.split(" ")) {
+                wordList.add(word);
+                wordDocList.add(doc);
+            }
+            for (int i = 0; i + 3 <= name.length(); i++) {
+                postings.computeIfAbsent(trigram(name, i), key -> new Postings()).add(doc);
+            }
+        }
+        this.byName = IntStream.range(0, names.length).filter(doc -> !names[doc].isEmpty()).toArray();
+        RowSorter.sort(byName, (a, b) -> names[a].compareTo(names[b]));
+        int[] wordOrder = IntStream.range(0, wordList.size()).toArray();
+        RowSorter.sort(wordOrder, (a, b) -> wordList.get(a).compareTo(wordList.get(b)));
+        this.words = new String[wordOrder.length];
+        this.wordDocs = new int[wordOrder.length];
+        for (int i = 0; i < wordOrder.length; i++) {
+            words[i] = wordList.get(wordOrder[i]);
+            wordDocs[i] = wordDocList.get(wordOrder[i]);
+        }
+        this.trigrams = toArrays(postings);
+
+        List<String> distinct = new ArrayList<>();
+        List<Integer> starts = new ArrayList<>();
+        Map<Long, Postings> wordPostings = new HashMap<>();
+        for (int i = 0; i < words.length; i++) {
+            if (i == 0 || !words[i].equals(words[i - 1])) {
+                int id = distinct.size();
+                distinct.add(words[i]);
+                starts.add(i);
+                String padded = padded(words[i]);
+                for (int j = 0; j + 3 <= padded.length(); j++) {
+                    wordPostings.computeIfAbsent(trigram(padded, j), key -> new Postings()).add(id);
+                }
+            }
+        }
+        starts.add(words.length);
+        this.vocabulary = distinct.toArray(new String[0]);
+        this.vocabularyStart = starts.stream().mapToInt(Integer::intValue).toArray();
+        this.vocabularyTrigrams = toArrays(wordPostings);
+    }
+
+    static NameSearchIndex of(EmployeeColumns columns) {
+        return new NameSearchIndex(columns);
+    }
+
+    // Rows of the columns, which must number rows as those the index was built from
+    int[] search(String query, int limit, EmployeeColumns columns) {
+        String normalized = normalize(query);
+        Results results = new Results(limit, columns);
+        if (normalized.isEmpty()) {
+            return results.rows();
+        }
+        namePrefix(normalized, results);
+        addedMatching(normalized, results, Match.NAME_PREFIX);
+        wordPrefix(normalized, results);
+        addedMatching(normalized, results, Match.WORD_PREFIX);
+        substring(normalized, results);
+        addedMatching(normalized, results, Match.SUBSTRING);
+        typos(normalized, results);
+        return results.rows();
+    }
+
+    static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String normalized = name.trim().toLowerCase(Locale.ROOT);
+        for (int i = 0; i < normalized.length(); i++) {
+            if (normalized.charAt(i) > 127) {
+                normalized = MARKS.matcher(Normalizer.normalize(normalized, Normalizer.Form.NFD)).replaceAll("");
+                break;
+            }
+        }
+        return WHITESPACE.matcher(normalized).replaceAll(" ");
+    }
+
+    private void namePrefix(String query, Results results) {
+        for (int i = lowerBound(byName.length, index -> names[byName[index]], query);
+             i < byName.length && !results.isFull() && names[byName[i]].startsWith(query); i++) {
+            results.add(byName[i]);
+        }
+    }
+
+    private void wordPrefix(String query, Results results) {
+        if (query.indexOf(' ') >= 0) {
+            return;
+        }
+        for (int i = lowerBound(words.length, index -> words[index], query);
+             i < words.length && !results.isFull() && words[i].startsWith(query); i++) {
+            results.add(wordDocs[i]);
+        }
+    }
+
+    private void substring(String query, Results results) {
+        if (query.length() < 3 || results.isFull()) {
+            return;
+        }
+        int[][] lists = postings(trigrams, query, true);
+        if (lists.length == 0) {
+            return;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.length));
+        for (int doc : lists[0]) {
+            if (results.isFull()) {
+                return;
+            }
+            if (inAll(lists, doc) && names[doc].contains(query)) {
+                results.add(doc);
+            }
+        }
+    }
+
+    private void typos(String query, Results results) {
+        int maxDistance = maxDistance(query);
+        if (maxDistance == 0 || results.isFull()) {
+            return;
+        }
+        if (query.indexOf(' ') < 0) {
+            // Words closest to the query first, and documents of equally close words alphabetically by word
+            for (int[] word : closeWords(query, maxDistance)) {
+                for (int i = vocabularyStart[word[1]]; i < vocabularyStart[word[1] + 1] && !results.isFull(); i++) {
+                    results.add(wordDocs[i]);
+                }
+            }
+        } else {
+            // Candidates contain a word within one typo of the longest query word and are checked against the
+            // whole name
+            String longest = Arrays.stream(query.split(" ")).max(Comparator.comparingInt(String::length)).orElse(query);
+            List<int[]> candidates = new ArrayList<>();
+            for (int[] word : closeWords(longest, Math.min(1, maxDistance(longest)))) {
+                for (int i = vocabularyStart[word[1]]; i < vocabularyStart[word[1] + 1]; i++) {
+                    int doc = wordDocs[i];
+                    int distance = results.contains(doc) ? maxDistance + 1 : boundedDistance(query, names[doc], maxDistance);
+                    if (distance <= maxDistance) {
+                        candidates.add(new int[]{distance, doc});
+                    }
+                }
+            }
+            candidates.sort(Comparator.<int[]>comparingInt(candidate -> candidate[0]).thenComparingInt(candidate -> candidate[1]));
+            for (int[] candidate : candidates) {
+                if (results.isFull()) {
+                    break;
+                }
+                results.add(candidate[1]);
+            }
+        }
+        for (int row = names.length; row < results.columns.rowCount(); row++) {
+            if (results.isFull()) {
+                return;
+            }
+            String name = normalize(results.columns.name(row));
+            if (match(name, query) == null && distance(query, name, maxDistance) <= maxDistance) {
+                results.add(row);
+            }
+        }
+    }
+
+    // {distance, vocabulary id} of the distinct words within maxDistance of the word, closest first
+    private List<int[]> closeWords(String word, int maxDistance) {
+        List<int[]> close = new ArrayList<>();
+        if (maxDistance == 0) {
+            int id = Arrays.binarySearch(vocabulary, word);
+            if (id >= 0) {
+                close.add(new int[]{0, id});
+            }
+            return close;
+        }
+        int[][] lists = postings(vocabularyTrigrams, padded(word), false);
+        // An edit changes at most three trigrams and a transposition four, so a close word shares all but
+        // 4 * maxDistance of them
+        int required = Math.max(1, lists.length - 4 * maxDistance);
+        int[] shared = new int[vocabulary.length];
+        int[] touched = new int[Math.min(vocabulary.length, Arrays.stream(lists).mapToInt(list -> list.length).sum())];
+        int touchedCount = 0;
+        for (int[] list : lists) {
+            for (int id : list) {
+                if (shared[id]++ == 0) {
+                    touched[touchedCount++] = id;
+                }
+            }
+        }
+        for (int i = 0; i < touchedCount; i++) {
+            int id = touched[i];
+            if (shared[id] >= required) {
+                int distance = boundedDistance(word, vocabulary[id], maxDistance);
+                if (distance <= maxDistance) {
+                    close.add(new int[]{distance, id});
+                }
+            }
+        }
+        close.sort(Comparator.<int[]>comparingInt(candidate -> candidate[0]).thenComparingInt(candidate -> candidate[1]));
+        return close;
+    }
+
+    // Rows added since the index was built, whose best match is the given one
+    private void addedMatching(String query, Results results, Match tier) {
+        for (int row = names.length; row < results.columns.rowCount(); row++) {
+            if (results.isFull()) {
+                return;
+            }
+            if (match(normalize(results.columns.name(row)), query) == tier) {
+                results.add(row);
+            }
+        }
+    }
+
+    private static Match match(String name, String query) {
+        if (name.startsWith(query)) {
+            return Match.NAME_PREFIX;
+        }
+        if (query.indexOf(' ') < 0) {
+            for (String word : name.split(" ")) {
+                if (word.startsWith(query)) {
+                    return Match.WORD_PREFIX;
+                }
+            }
+        }
+        if (query.length() >= 3 && name.contains(query)) {
+            return Match.SUBSTRING;
+        }
+        return null;
+    }
+
+    private static int[][] postings(Map<Long, int[]> index, String query, boolean requireAll) {
+        Set<Long> seen = new HashSet<>();
+        List<int[]> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= query.length(); i++) {
+            long trigram = trigram(query, i);
+            if (seen.add(trigram)) {
+                int[] docs = index.getOrDefault(trigram, NO_DOCS);
+                if (docs.length == 0 && requireAll) {
+                    return new int[0][];
+                }
+                lists.add(docs);
+            }
+        }
+        return lists.toArray(new int[0][]);
+    }
+
+    private static boolean inAll(int[][] lists, int doc) {
+        for (int i = 1; i < lists.length; i++) {
+            if (Arrays.binarySearch(lists[i], doc) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int maxDistance(String query) {
+        if (query.length() < 4) {
+            return 0;
+        }
+        return query.length() < 8 ? 1 : 2;
+    }
+
+    // Closest edit distance of the query to the whole name or, for single word queries, to one of its words
+    private static int distance(String query, String name, int maxDistance) {
+        int distance = boundedDistance(query, name, maxDistance);
+        if (query.indexOf(' ') < 0) {
+            for (String word : name.split(" ")) {
+                distance = Math.min(distance, boundedDistance(query, word, maxDistance));
+            }
+        }
+        return distance;
+    }
+
+    // Optimal string alignment distance, or maxDistance + 1 as soon as it is known to exceed maxDistance
+    static int boundedDistance(String a, String b, int maxDistance) {
+        if (Math.abs(a.length() - b.length()) > maxDistance) {
+            return maxDistance + 1;
+        }
+        int[] previousPrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], previousPrevious[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], maxDistance + 1);
+    }
+
+    // Words never contain spaces, so padding with them marks where a word starts and ends
+    private static String padded(String word) {
+        return "  " + word + "  ";
+    }
+
+    private static Map<Long, int[]> toArrays(Map<Long, Postings> postings) {
+        Map<Long, int[]> arrays = new HashMap<>(postings.size() * 2);
+        postings.forEach((trigram, ids) -> arrays.put(trigram, ids.toArray()));
+        return arrays;
+    }
+
+    private static long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    private static int lowerBound(int length, IntFunction<String> key, String query) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (key.apply(middle).compareTo(query) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private enum Match {
+        NAME_PREFIX, WORD_PREFIX, SUBSTRING
+    }
+
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            // Ids arrive in ascending order, so a trigram repeated within one name or word is the last entry
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+
+    private static final class Results {
+        private final int limit;
+        private final EmployeeColumns columns;
+        private final Set<Integer> docs = new HashSet<>();
+        private int[] rows = new int[8];
+        private int size;
+
+        Results(int limit, EmployeeColumns columns) {
+            this.limit = limit;
+            this.columns = columns;
+        }
+
+        boolean isFull() {
+            return size >= limit;
+        }
+
+        boolean contains(int doc) {
+            return docs.contains(doc);
+        }
+
+        void add(int doc) {
+            if (!columns.isRemoved(doc) && docs.add(doc)) {
+                if (size == rows.length) {
+                    rows = Arrays.copyOf(rows, size * 2);
+                }
+                rows[size++] = doc;
+            }
+        }
+
+        int[] rows() {
+            return Arrays.copyOf(rows, size);
+        }
+    }
+}
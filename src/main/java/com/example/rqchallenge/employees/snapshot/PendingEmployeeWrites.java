@@ -0,0 +1,51 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.dto.Employee;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Creates and deletes accepted but not yet written to the upstream. Every snapshot the loader builds has them
+ * applied, so a fetch that completes before they are written does not make them disappear from reads again.
+ * Pending creates carry provisional negative ids, which the upstream never hands out. Besides this replica's own,
+ * they hold those the other replicas told it about, so several may be pending deletes of the same employee; it
+ * stays deleted until each of them settled.
+ */
+@Component
+public class PendingEmployeeWrites {
+    private final Map<Long, Employee> created = new ConcurrentHashMap<>();
+    // Pending deletes of each employee
+    private final Map<Long, Integer> deleted = new ConcurrentHashMap<>();
+
+    public void created(Employee employee) {
+        created.put(employee.getId(), employee);
+    }
+
+    public void deleted(Long id) {
+        deleted.merge(id, 1, Integer::sum);
+    }
+
+    // The write reached the upstream, failed or was cancelled; either way fetches now tell the truth about it
+    public void settled(Long id) {
+        created.remove(id);
+        deleted.computeIfPresent(id, (settledId, count) -> count > 1 ? count - 1 : null);
+    }
+
+    public boolean isEmpty() {
+        return created.isEmpty() && deleted.isEmpty();
+    }
+
+    public EmployeeSnapshot applyTo(EmployeeSnapshot snapshot) {
+        if (isEmpty()) {
+            return snapshot;
+        }
+        List<Employee> missing = created.values().stream()
+                .filter(employee -> snapshot.findById(employee.getId()).isEmpty())
+                .collect(Collectors.toList());
+        return snapshot.withEmployees(missing).withoutEmployees(deleted.keySet());
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.rqchallenge.employees.snapshot;
+
+/**
+ * Stable sort of row numbers by a comparator over rows, without boxing them: a bottom-up merge sort over
+ * the {@code int[]} and one scratch array of the same length, O(n log n) comparisons.
+ */
+final class RowSorter {
+
+    private RowSorter() {
+    }
+
+    @FunctionalInterface
+    interface RowComparator {
+        int compare(int a, int b);
+
+        default RowComparator reversed() {
+            return (a, b) -> compare(b, a);
+        }
+
+        default RowComparator thenComparing(RowComparator next) {
+            return (a, b) -> {
+                int comparison = compare(a, b);
+                return comparison != 0 ? comparison : next.compare(a, b);
+            };
+        }
+    }
+
+    // Sorts the rows in place; rows that compare equal keep their order
+    static void sort(int[] rows, RowComparator comparator) {
+        int[] from = rows;
+        int[] to = new int[rows.length];
+        for (int width = 1; width < rows.length; width *= 2) {
+            for (int start = 0; start < rows.length; start += 2 * width) {
+                int middle = Math.min(start + width, rows.length);
+                int end = Math.min(start + 2 * width, rows.length);
+                int left = start;
+                int right = middle;
+                for (int i = start; i < end; i++) {
+                    if (left < middle && (right >= end || comparator.compare(from[left], from[right]) <= 0)) {
+                        to[i] = from[left++];
+                    } else {
+                        to[i] = from[right++];
+                    }
+                }
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        if (from != rows) {
+            System.arraycopy(from, 0, rows, 0, rows.length);
+        }
+    }
+}
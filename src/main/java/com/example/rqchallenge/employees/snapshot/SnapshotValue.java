@@ -0,0 +1,12 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import lombok.Value;
+
+/**
+ * A value read from a snapshot, together with that snapshot so responses can describe how fresh it is.
+ */
+@Value(staticConstructor = "of")
+public class SnapshotValue<T> {
+    EmployeeSnapshot snapshot;
+    T value;
+}
@@ -0,0 +1,101 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import java.util.Arrays;
+
+/**
+ * Partial selection of the highest salaries over a primitive salary column. Runs in O(n log k) with a
+ * bounded min-heap of packed {@code long}s, never reorders its input and includes everyone who earns
+ * the same as the k-th ranked position.
+ */
+public final class TopEarnersSelector {
+
+    private TopEarnersSelector() {
+    }
+
+    /**
+     * Positions of the top {@code k} salaries plus ties with the k-th, highest salary first.
+     * Equal salaries are returned in position order.
+     */
+    public static int[] select(int[] salaries, int k) {
+        int n = salaries.length;
+        if (k <= 0 || n == 0) {
+            return new int[0];
+        }
+        if (k >= n) {
+            return fullOrder(salaries);
+        }
+        // Keys order by salary, then by lower position: the heap root is the weakest of the current top k
+        long[] heap = new long[k];
+        for (int i = 0; i < k; i++) {
+            heap[i] = key(salaries[i], i);
+        }
+        for (int i = k / 2 - 1; i >= 0; i--) {
+            siftDown(heap, i, k);
+        }
+        for (int i = k; i < n; i++) {
+            long key = key(salaries[i], i);
+            if (key > heap[0]) {
+                heap[0] = key;
+                siftDown(heap, 0, k);
+            }
+        }
+        long weakest = heap[0];
+        int cutOff = (int) (weakest >> 32);
+        int ties = 0;
+        for (int i = 0; i < n; i++) {
+            if (salaries[i] == cutOff && key(cutOff, i) < weakest) {
+                ties++;
+            }
+        }
+        Arrays.sort(heap);
+        int[] positions = new int[k + ties];
+        for (int i = 0; i < k; i++) {
+            positions[i] = position(heap[k - 1 - i]);
+        }
+        // Ties that did not fit in the heap all sit at later positions than the ones that did
+        for (int i = 0, next = k; next < positions.length; i++) {
+            if (salaries[i] == cutOff && key(cutOff, i) < weakest) {
+                positions[next++] = i;
+            }
+        }
+        return positions;
+    }
+
+    private static int[] fullOrder(int[] salaries) {
+        long[] keys = new long[salaries.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = key(salaries[i], i);
+        }
+        Arrays.sort(keys);
+        int[] positions = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            positions[i] = position(keys[keys.length - 1 - i]);
+        }
+        return positions;
+    }
+
+    private static long key(int salary, int position) {
+        return ((long) salary << 32) | (~position & 0xFFFFFFFFL);
+    }
+
+    private static int position(long key) {
+        return ~(int) key;
+    }
+
+    private static void siftDown(long[] heap, int index, int size) {
+        long key = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (key <= heap[child]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = key;
+    }
+}
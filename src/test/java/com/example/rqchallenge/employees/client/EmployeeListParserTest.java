@@ -0,0 +1,58 @@
+package com.example.rqchallenge.employees.client;
+
+import com.example.rqchallenge.employees.dto.Employee;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeListParserTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private List<Employee> parse(String body, int chunkSize) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        EmployeeListParser parser = new EmployeeListParser(objectMapper);
+        for (int from = 0; from < bytes.length; from += chunkSize) {
+            parser.feed(Arrays.copyOfRange(bytes, from, Math.min(bytes.length, from + chunkSize)));
+        }
+        return parser.finish();
+    }
+
+    @Test
+    void testParsesEmployeesSplitAcrossChunks() throws IOException {
+        // Arrange
+        String body = "{\"status\":\"success\",\"data\":[" +
+                "{\"id\":1,\"employee_name\":\"Zoë Ñúñez\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"}," +
+                "null," +
+                "{\"id\":2,\"employee_name\":\"Garrett Winters\",\"employee_salary\":170750,\"employee_age\":63,\"profile_image\":\"\"}" +
+                "],\"message\":\"Successfully! All records has been fetched.\"}";
+
+        // Act
+        List<Employee> whole = parse(body, body.length());
+        List<Employee> chunked = parse(body, 3);
+
+        // Assert
+        assertEquals(2, chunked.size());
+        assertEquals("Zoë Ñúñez", chunked.get(0).getEmployee_name());
+        assertEquals(170750, chunked.get(1).getEmployee_salary());
+        assertEquals(whole, chunked);
+    }
+
+    @Test
+    void testMissingOrNullDataIsEmpty() throws IOException {
+        assertEquals(List.of(), parse("{\"status\":\"success\",\"data\":null}", 4));
+        assertEquals(List.of(), parse("{\"status\":\"success\",\"message\":{\"data\":[{\"id\":1}]}}", 4));
+    }
+
+    @Test
+    void testTruncatedBodyFails() {
+        assertThrows(JsonParseException.class, () -> parse("{\"status\":\"success\",\"data\":[{\"id\":1}", 4));
+    }
+}
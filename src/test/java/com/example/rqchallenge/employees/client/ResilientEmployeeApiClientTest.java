@@ -0,0 +1,88 @@
+package com.example.rqchallenge.employees.client;
+
+import com.example.rqchallenge.employees.config.EmployeeResilienceProperties;
+import com.example.rqchallenge.employees.dto.Employee;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResilientEmployeeApiClientTest {
+    private final EmployeeApiClient upstream = Mockito.mock(EmployeeApiClient.class);
+    private final RetryRegistry retryRegistry = RetryRegistry.ofDefaults();
+    private ResilientEmployeeApiClient client;
+
+    @AfterEach
+    void shutdown() {
+        if (client != null) {
+            client.shutdown();
+        }
+    }
+
+    @Test
+    void testAsyncCallsDoNotWaitForRateLimiterPermits() {
+        // Arrange
+        Mockito.when(upstream.getEmployeeByIdAsync(Mockito.anyString())).thenAnswer(invocation -> CompletableFuture.completedFuture(
+                Employee.builder().id(Long.valueOf(invocation.<String>getArgument(0))).build()));
+        client = client(RateLimiterRegistry.of(RateLimiterConfig.custom()
+                        .limitForPeriod(1)
+                        .limitRefreshPeriod(Duration.ofMillis(300))
+                        .timeoutDuration(Duration.ofSeconds(1))
+                        .build()),
+                BulkheadRegistry.ofDefaults());
+
+        // Act
+        long started = System.nanoTime();
+        List<CompletableFuture<Employee>> futures = Stream.of("1", "2", "3")
+                .map(client::getEmployeeByIdAsync)
+                .collect(Collectors.toList());
+        Duration returnedAfter = Duration.ofNanos(System.nanoTime() - started);
+        List<Long> ids = futures.stream().map(CompletableFuture::join).map(Employee::getId).collect(Collectors.toList());
+
+        // Assert
+        assertTrue(returnedAfter.compareTo(Duration.ofMillis(200)) < 0, returnedAfter.toString());
+        assertEquals(List.of(1L, 2L, 3L), ids);
+    }
+
+    @Test
+    void testAsyncCallsRejectedByAFullBulkheadAreRetried() {
+        // Arrange
+        CompletableFuture<Void> firstWritten = new CompletableFuture<>();
+        Mockito.when(upstream.deleteEmployeeAsync("1")).thenReturn(firstWritten);
+        Mockito.when(upstream.deleteEmployeeAsync("2")).thenReturn(CompletableFuture.completedFuture(null));
+        client = client(RateLimiterRegistry.ofDefaults(),
+                BulkheadRegistry.of(BulkheadConfig.custom().maxConcurrentCalls(1).build()));
+
+        // Act
+        CompletableFuture<Void> first = client.deleteEmployeeAsync("1");
+        CompletableFuture<Void> second = client.deleteEmployeeAsync("2");
+        firstWritten.complete(null);
+        first.join();
+        second.join();
+
+        // Assert
+        Mockito.verify(upstream, Mockito.times(1)).deleteEmployeeAsync("2");
+        assertEquals(1, retryRegistry.retry(ResilientEmployeeApiClient.UPSTREAM + "-write-async")
+                .getMetrics().getNumberOfSuccessfulCallsWithRetryAttempt());
+    }
+
+    private ResilientEmployeeApiClient client(RateLimiterRegistry rateLimiterRegistry, BulkheadRegistry bulkheadRegistry) {
+        return new ResilientEmployeeApiClient(upstream, new EmployeeResilienceProperties(),
+                new UpstreamMetrics(new SimpleMeterRegistry(), "https://upstream.example/api/v1"),
+                CircuitBreakerRegistry.ofDefaults(), rateLimiterRegistry, bulkheadRegistry, retryRegistry);
+    }
+}
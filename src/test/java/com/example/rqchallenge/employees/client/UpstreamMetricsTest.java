@@ -0,0 +1,64 @@
+package com.example.rqchallenge.employees.client;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final UpstreamMetrics metrics = new UpstreamMetrics(registry, "https://upstream.example/api/v1");
+
+    @Test
+    void testCallsAreTimedByEndpointAndOutcome() {
+        // Arrange
+        CompletableFuture<String> failed = CompletableFuture.failedFuture(HttpClientErrorException.create(
+                HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+        // Act
+        metrics.timeAsync("employee", () -> CompletableFuture.completedFuture("found"));
+        metrics.timeAsync("employee", () -> failed);
+        assertThrows(IllegalStateException.class, () -> metrics.time("create", () -> {
+            throw new IllegalStateException();
+        }));
+
+        // Assert
+        assertEquals(1, registry.get(UpstreamMetrics.CALLS)
+                .tags("endpoint", "employee", "outcome", "SUCCESS", "exception", "None").timer().count());
+        assertEquals(1, registry.get(UpstreamMetrics.CALLS)
+                .tags("endpoint", "employee", "outcome", "CLIENT_ERROR", "exception", "NotFound").timer().count());
+        assertEquals(1, registry.get(UpstreamMetrics.CALLS)
+                .tags("endpoint", "create", "outcome", "UNKNOWN", "exception", "IllegalStateException").timer().count());
+    }
+
+    @Test
+    void testResponseSizeIsRecordedOnClose() throws Exception {
+        // Arrange
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET,
+                URI.create("https://upstream.example/api/v1/employee/42"));
+        byte[] body = "{\"status\":\"success\",\"data\":null}".getBytes();
+
+        // Act
+        try (ClientHttpResponse response = metrics.responseSizeInterceptor()
+                .intercept(request, new byte[0], (ignored, requestBody) -> new MockClientHttpResponse(body, HttpStatus.OK))) {
+            StreamUtils.drain(response.getBody());
+        }
+
+        // Assert
+        DistributionSummary size = registry.get(UpstreamMetrics.RESPONSE_SIZE).tag("endpoint", "employee").summary();
+        assertEquals(1, size.count());
+        assertEquals(body.length, size.totalAmount());
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.rqchallenge.employees.controller;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpServerMetricsFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final HttpServerMetricsFilter filter = new HttpServerMetricsFilter(registry);
+
+    @Test
+    void testResponseSizeAndActiveRequests() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/employees/7");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/v1/employees/{id}");
+        double[] activeDuringRequest = new double[1];
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            activeDuringRequest[0] = registry.get(HttpServerMetricsFilter.ACTIVE).gauge().value();
+            res.getOutputStream().write(new byte[1500]);
+        });
+
+        // Assert
+        DistributionSummary size = registry.get(HttpServerMetricsFilter.RESPONSE_SIZE)
+                .tags("method", "GET", "uri", "/v1/employees/{id}", "status", "200").summary();
+        assertEquals(1, size.count());
+        assertEquals(1500, size.totalAmount());
+        assertEquals(1, activeDuringRequest[0]);
+        assertEquals(0, registry.get(HttpServerMetricsFilter.ACTIVE).gauge().value());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.rqchallenge.employees.controller;
+
+import com.example.rqchallenge.employees.config.JacksonConfig;
+import com.example.rqchallenge.employees.dto.Employee;
+import com.example.rqchallenge.employees.snapshot.EmployeeSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderedResponsesTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MappingJackson2SmileHttpMessageConverter smileConverter = new MappingJackson2SmileHttpMessageConverter();
+    private final RenderedResponses renderedResponses = new RenderedResponses(objectMapper, smileConverter,
+            new MappingJackson2CborHttpMessageConverter(), new SimpleMeterRegistry(), DataSize.ofMegabytes(1));
+
+    private static List<Employee> employees(int size) {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            employees.add(new Employee((long) i, "Employee " + i, 1000 * i, 30, ""));
+        }
+        return employees;
+    }
+
+    @Test
+    void testRendersOncePerSnapshotVersion() throws IOException {
+        // Arrange
+        EmployeeSnapshot snapshot = EmployeeSnapshot.of(employees(100));
+        AtomicInteger renders = new AtomicInteger();
+
+        // Act
+        RenderedResponses.Body first = renderedResponses.get(snapshot, "employees", MediaType.APPLICATION_JSON, () -> {
+            renders.incrementAndGet();
+            return snapshot.getEmployees();
+        });
+        RenderedResponses.Body stale = renderedResponses.get(snapshot.asStale(), "employees", MediaType.APPLICATION_JSON, () -> {
+            renders.incrementAndGet();
+            return snapshot.getEmployees();
+        });
+        RenderedResponses.Body smile = renderedResponses.get(snapshot, "employees", JacksonConfig.APPLICATION_SMILE,
+                snapshot::getEmployees);
+        RenderedResponses.Body highestSalary = renderedResponses.get(snapshot, "highestSalary", MediaType.APPLICATION_JSON,
+                snapshot::getHighestSalary);
+
+        // Assert
+        assertEquals(1, renders.get());
+        assertSame(first, stale);
+        assertArrayEquals(objectMapper.writeValueAsBytes(snapshot.getEmployees()), first.getBytes());
+        assertArrayEquals(first.getBytes(), new GZIPInputStream(new ByteArrayInputStream(first.getGzip())).readAllBytes());
+        assertTrue(first.getGzip().length < first.getBytes().length);
+        assertEquals(snapshot.getEmployees(), List.of(smileConverter.getObjectMapper().readValue(smile.getBytes(), Employee[].class)));
+        assertTrue(smile.getBytes().length < first.getBytes().length);
+        assertEquals("100000", new String(highestSalary.getBytes()));
+        assertNull(highestSalary.getGzip());
+    }
+
+    @Test
+    void testMediaTypeFollowsAccept() {
+        // Act & Assert
+        assertEquals(MediaType.APPLICATION_JSON, renderedResponses.mediaType(null));
+        assertEquals(MediaType.APPLICATION_JSON, renderedResponses.mediaType("text/html,application/xhtml+xml,*/*;q=0.8"));
+        assertEquals(MediaType.APPLICATION_CBOR, renderedResponses.mediaType("application/cbor"));
+        assertEquals(JacksonConfig.APPLICATION_SMILE,
+                renderedResponses.mediaType("application/json;q=0.5, application/x-jackson-smile"));
+        assertEquals(MediaType.APPLICATION_JSON, renderedResponses.mediaType("application/xml"));
+    }
+
+    @Test
+    void testAcceptsGzip() {
+        // Act & Assert
+        assertTrue(RenderedResponses.acceptsGzip("gzip, deflate, br"));
+        assertTrue(RenderedResponses.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        assertTrue(RenderedResponses.acceptsGzip("*"));
+        assertFalse(RenderedResponses.acceptsGzip("gzip;q=0"));
+        assertFalse(RenderedResponses.acceptsGzip("identity"));
+        assertFalse(RenderedResponses.acceptsGzip(null));
+    }
+}
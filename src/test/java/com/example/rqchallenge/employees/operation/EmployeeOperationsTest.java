@@ -0,0 +1,182 @@
+package com.example.rqchallenge.employees.operation;
+
+import com.example.rqchallenge.employees.client.EmployeeApiClient;
+import com.example.rqchallenge.employees.config.EmployeeWriteProperties;
+import com.example.rqchallenge.employees.dto.Employee;
+import com.example.rqchallenge.employees.dto.EmployeeOperation;
+import com.example.rqchallenge.employees.replica.ReplicaFixture;
+import com.example.rqchallenge.employees.snapshot.EmployeeSnapshot;
+import com.example.rqchallenge.employees.snapshot.EmployeeSnapshotStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeOperationsTest {
+    private final EmployeeApiClient employeeApiClient = Mockito.mock(EmployeeApiClient.class);
+    private final List<EmployeeOperations> started = new ArrayList<>();
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void shutdown() throws Exception {
+        for (EmployeeOperations operations : started) {
+            operations.shutdown();
+        }
+    }
+
+    @Test
+    void testCreateIsAnsweredBeforeItIsWritten() {
+        // Arrange
+        Mockito.when(employeeApiClient.createEmployee(Mockito.anyMap()))
+                .thenReturn(Employee.builder().id(42L).employee_name("Jane Doe").employee_salary(5000).employee_age(30).build());
+        Writer writer = new Writer();
+
+        // Act
+        EmployeeOperation accepted = writer.operations.create(Map.of("name", "Jane Doe", "salary", 5000, "age", 30), "key-1");
+        EmployeeOperation repeated = writer.operations.create(Map.of("name", "Jane Doe", "salary", 5000, "age", 30), "key-1");
+        long provisionalId = Long.parseLong(accepted.getEmployeeId());
+        boolean shownWhilePending = writer.store.peek().orElseThrow().findById(provisionalId).isPresent();
+        writer.start();
+        EmployeeOperation written = writer.awaitDone(accepted.getId());
+        // The snapshot is patched after the outcome is recorded, outside the lock that guards it
+        await().atMost(Duration.ofSeconds(5)).until(() -> writer.store.peek().orElseThrow().findById(42L).isPresent());
+
+        // Assert
+        assertEquals(EmployeeOperation.Status.PENDING, accepted.getStatus());
+        assertEquals(accepted.getId(), repeated.getId());
+        assertTrue(provisionalId < 0);
+        assertTrue(shownWhilePending);
+        assertEquals(EmployeeOperation.Status.SUCCEEDED, written.getStatus());
+        assertEquals(42L, written.getEmployee().getId());
+        assertTrue(writer.store.peek().orElseThrow().findById(provisionalId).isEmpty());
+        Mockito.verify(employeeApiClient, Mockito.times(1)).createEmployee(Mockito.anyMap());
+    }
+
+    @Test
+    void testTransientFailuresAreRetried() {
+        // Arrange
+        Mockito.doThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE))
+                .doThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE))
+                .doNothing()
+                .when(employeeApiClient).deleteEmployee("1");
+        Writer writer = new Writer();
+
+        // Act
+        EmployeeOperation accepted = writer.operations.delete("1", null);
+        writer.start();
+        EmployeeOperation written = writer.awaitDone(accepted.getId());
+
+        // Assert
+        assertEquals(EmployeeOperation.Status.SUCCEEDED, written.getStatus());
+        assertEquals(3, written.getAttempts());
+        assertTrue(writer.store.peek().orElseThrow().findById(1L).isEmpty());
+        Mockito.verify(employeeApiClient, Mockito.times(3)).deleteEmployee("1");
+    }
+
+    @Test
+    void testARetryDoesNotHoldUpOtherEmployees() {
+        // Arrange
+        Mockito.doThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE))
+                .doNothing()
+                .when(employeeApiClient).deleteEmployee("1");
+        Writer writer = new Writer(1, Duration.ofSeconds(2));
+
+        // Act
+        EmployeeOperation failing = writer.operations.delete("1", null);
+        EmployeeOperation other = writer.operations.delete("2", null);
+        writer.start();
+        EmployeeOperation otherWritten = writer.awaitDone(other.getId());
+        EmployeeOperation parked = writer.operations.get(failing.getId()).orElseThrow();
+        EmployeeOperation retried = writer.awaitDone(failing.getId());
+
+        // Assert
+        assertEquals(EmployeeOperation.Status.SUCCEEDED, otherWritten.getStatus());
+        assertEquals(EmployeeOperation.Status.PENDING, parked.getStatus());
+        assertEquals(1, parked.getAttempts());
+        assertEquals(EmployeeOperation.Status.SUCCEEDED, retried.getStatus());
+        assertEquals(2, retried.getAttempts());
+    }
+
+    @Test
+    void testPendingOperationsAreWrittenAfterARestart() {
+        // Arrange
+        Writer before = new Writer();
+        EmployeeOperation accepted = before.operations.delete("2", null);
+
+        // Act
+        Writer after = new Writer();
+        EmployeeOperation resumed = after.operations.get(accepted.getId()).orElseThrow();
+        after.start();
+        EmployeeOperation written = after.awaitDone(accepted.getId());
+
+        // Assert
+        assertEquals(EmployeeOperation.Status.PENDING, resumed.getStatus());
+        assertEquals(EmployeeOperation.Status.SUCCEEDED, written.getStatus());
+        Mockito.verify(employeeApiClient, Mockito.times(1)).deleteEmployee("2");
+    }
+
+    @Test
+    void testDeletingAPendingCreateCancelsIt() {
+        // Arrange
+        Writer writer = new Writer();
+        EmployeeOperation create = writer.operations.create(Map.of("name", "Jane Doe", "salary", 5000, "age", 30), null);
+
+        // Act
+        EmployeeOperation delete = writer.operations.delete(create.getEmployeeId(), null);
+        writer.start();
+
+        // Assert
+        assertEquals(EmployeeOperation.Status.SUCCEEDED, delete.getStatus());
+        assertEquals(EmployeeOperation.Status.CANCELLED, writer.operations.get(create.getId()).orElseThrow().getStatus());
+        assertTrue(writer.store.peek().orElseThrow().findById(Long.parseLong(create.getEmployeeId())).isEmpty());
+        assertEquals(0, writer.operations.pending());
+        Mockito.verifyNoInteractions(employeeApiClient);
+    }
+
+    private class Writer {
+        final ReplicaFixture replica = new ReplicaFixture(employeeApiClient, Optional.empty(), null);
+        final EmployeeSnapshotStore store = replica.store;
+        final EmployeeOperations operations;
+
+        Writer() {
+            this(2, Duration.ofMillis(1));
+        }
+
+        Writer(int workers, Duration initialBackoff) {
+            store.replace(EmployeeSnapshot.of(List.of(
+                    Employee.builder().id(1L).employee_name("Employee 1").employee_salary(100).build(),
+                    Employee.builder().id(2L).employee_name("Employee 2").employee_salary(200).build())));
+            EmployeeWriteProperties properties = new EmployeeWriteProperties();
+            properties.setLog(directory.resolve("operations.log"));
+            properties.setSync(false);
+            properties.setWorkers(workers);
+            properties.setInitialBackoff(initialBackoff);
+            operations = new EmployeeOperations(employeeApiClient, store, replica.pendingWrites, replica.coherence,
+                    replica.cacheManager, ReplicaFixture.OBJECT_MAPPER, properties);
+            started.add(operations);
+        }
+
+        void start() {
+            operations.start();
+        }
+
+        EmployeeOperation awaitDone(String id) {
+            return await().atMost(Duration.ofSeconds(5))
+                    .until(() -> operations.get(id).orElseThrow(), operation -> operation.getStatus().isDone());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.rqchallenge.employees.replica;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoopbackReplicaTransportTest {
+
+    @Test
+    void testClosedTransportStopsReceiving() {
+        // Arrange
+        String channel = UUID.randomUUID().toString();
+        LoopbackReplicaTransport open = new LoopbackReplicaTransport(channel);
+        LoopbackReplicaTransport closed = new LoopbackReplicaTransport(channel);
+        List<String> received = new CopyOnWriteArrayList<>();
+        List<String> receivedAfterClose = new CopyOnWriteArrayList<>();
+        open.subscribe(received::add);
+        closed.subscribe(receivedAfterClose::add);
+
+        // Act
+        closed.close();
+        open.publish("patched");
+        open.close();
+        new LoopbackReplicaTransport(channel).publish("fetched");
+
+        // Assert
+        assertEquals(List.of("patched"), received);
+        assertTrue(receivedAfterClose.isEmpty());
+    }
+}
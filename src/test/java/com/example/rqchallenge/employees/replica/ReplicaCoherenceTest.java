@@ -0,0 +1,151 @@
+package com.example.rqchallenge.employees.replica;
+
+import com.example.rqchallenge.employees.client.EmployeeApiClient;
+import com.example.rqchallenge.employees.config.CacheConfig;
+import com.example.rqchallenge.employees.dto.Employee;
+import com.example.rqchallenge.employees.snapshot.EmployeeSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+class ReplicaCoherenceTest {
+    private final String channel = UUID.randomUUID().toString();
+    private final List<LoopbackReplicaTransport> transports = new ArrayList<>();
+
+    @AfterEach
+    void closeTransports() {
+        transports.forEach(LoopbackReplicaTransport::close);
+    }
+
+    private static List<Employee> employees(long... ids) {
+        return Arrays.stream(ids)
+                .mapToObj(id -> Employee.builder().id(id).employee_name("Employee " + id).employee_salary(100).build())
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void testPatchesReachTheOtherReplicas() {
+        // Arrange
+        ReplicaFixture a = replica("http://a");
+        ReplicaFixture b = replica("http://b");
+        a.store.replace(EmployeeSnapshot.of(employees(1, 2)));
+        b.store.replace(EmployeeSnapshot.of(employees(1, 2)));
+        b.cacheManager.getCache(CacheConfig.EMPLOYEE_CACHE).put(1L, employees(1).get(0));
+
+        // Act
+        a.coherence.patch(employees(3), List.of(1L));
+
+        // Assert
+        assertEquals(List.of(2L, 3L), ids(b.store.peek().orElseThrow()));
+        assertEquals(a.store.peek().orElseThrow().getVersion(), b.store.peek().orElseThrow().getVersion());
+        assertNull(b.cacheManager.getCache(CacheConfig.EMPLOYEE_CACHE).get(1L));
+        Mockito.verifyNoInteractions(b.peerClient);
+    }
+
+    @Test
+    void testDivergedReplicaPullsThePatchedSnapshot() {
+        // Arrange
+        ReplicaFixture a = replica("http://a");
+        ReplicaFixture b = replica("http://b");
+        a.store.replace(EmployeeSnapshot.of(employees(1, 2)));
+        b.store.replace(EmployeeSnapshot.of(employees(1)));
+        Mockito.when(b.peerClient.exchange(eq("http://a" + ReplicaCoherence.PATCHED_SNAPSHOT_PATH), eq(HttpMethod.GET), any(HttpEntity.class), eq(Employee[].class)))
+                .thenAnswer(invocation -> ResponseEntity.ok(a.store.peek().orElseThrow().getEmployees().toArray(new Employee[0])));
+
+        // Act
+        a.coherence.patch(employees(3), List.of());
+        a.coherence.patch(employees(4), List.of());
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(b.store.peek().orElseThrow()));
+        assertEquals(a.store.peek().orElseThrow().getVersion(), b.store.peek().orElseThrow().getVersion());
+        assertTrue(b.loader.lastKnownGood().isEmpty());
+        Mockito.verify(b.peerClient, Mockito.times(1)).exchange(any(String.class), any(HttpMethod.class), any(HttpEntity.class), eq(Employee[].class));
+    }
+
+    @Test
+    void testFetchedSnapshotIsPulledInsteadOfFetched() {
+        // Arrange
+        ReplicaFixture a = replica("http://a");
+        ReplicaFixture b = replica("http://b");
+        EmployeeSnapshot fetched = EmployeeSnapshot.of(employees(1, 2, 3));
+        a.store.replace(fetched);
+        b.store.replace(EmployeeSnapshot.of(employees(1)));
+        Mockito.when(b.peerClient.exchange(eq("http://a" + ReplicaCoherence.SNAPSHOT_PATH), eq(HttpMethod.GET), any(HttpEntity.class), eq(Employee[].class)))
+                .thenReturn(ResponseEntity.ok(employees(1, 2, 3).toArray(new Employee[0])));
+
+        // Act
+        a.coherence.fetched(fetched);
+
+        // Assert
+        assertEquals(fetched.getVersion(), b.store.peek().orElseThrow().getVersion());
+        assertEquals(fetched.getFetchedAt(), b.store.peek().orElseThrow().getFetchedAt());
+        assertTrue(b.coherence.peerFetchedRecently());
+        assertFalse(a.coherence.peerFetchedRecently());
+    }
+
+    @Test
+    void testPendingWritesStayOutOfThePulledSnapshot() {
+        // Arrange
+        ReplicaFixture a = replica("http://a");
+        ReplicaFixture b = replica("http://b");
+        EmployeeSnapshot fetched = EmployeeSnapshot.of(employees(1, 2, 3));
+        b.pendingWrites.deleted(2L);
+        b.store.replace(EmployeeSnapshot.of(employees(1)));
+        Mockito.when(b.peerClient.exchange(eq("http://a" + ReplicaCoherence.SNAPSHOT_PATH), eq(HttpMethod.GET), any(HttpEntity.class), eq(Employee[].class)))
+                .thenReturn(ResponseEntity.ok(employees(1, 2, 3).toArray(new Employee[0])));
+
+        // Act
+        a.coherence.fetched(fetched);
+
+        // Assert
+        assertEquals(List.of(1L, 3L), ids(b.store.peek().orElseThrow()));
+        assertEquals(List.of(1L, 2L, 3L), ids(b.loader.lastKnownGood().orElseThrow()));
+    }
+
+    @Test
+    void testPendingWritesOfAnotherReplicaStayAppliedUntilSettled() {
+        // Arrange
+        ReplicaFixture a = replica("http://a");
+        ReplicaFixture b = replica("http://b");
+        a.store.replace(EmployeeSnapshot.of(employees(1, 2)));
+        b.store.replace(EmployeeSnapshot.of(employees(1, 2)));
+
+        // Act
+        a.coherence.patchPending(employees(-3), List.of(1L));
+        EmployeeSnapshot pending = b.loader.fromPeer(employees(1, 2), Instant.now());
+        a.coherence.patchSettled(employees(3), List.of(-3L, 1L), List.of(-3L, 1L));
+        EmployeeSnapshot settled = b.loader.fromPeer(employees(2), Instant.now());
+
+        // Assert
+        assertEquals(List.of(2L, -3L), ids(pending));
+        assertEquals(List.of(2L), ids(settled));
+        assertEquals(List.of(2L, 3L), ids(b.store.peek().orElseThrow()));
+        assertTrue(b.pendingWrites.isEmpty());
+    }
+
+    private static List<Long> ids(EmployeeSnapshot snapshot) {
+        return snapshot.getEmployees().stream().map(Employee::getId).collect(Collectors.toList());
+    }
+
+    private ReplicaFixture replica(String url) {
+        LoopbackReplicaTransport transport = new LoopbackReplicaTransport(channel);
+        transports.add(transport);
+        return new ReplicaFixture(Mockito.mock(EmployeeApiClient.class), Optional.of(transport), url);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.rqchallenge.employees.replica;
+
+import com.example.rqchallenge.employees.client.EmployeeApiClient;
+import com.example.rqchallenge.employees.config.CacheConfig;
+import com.example.rqchallenge.employees.config.EmployeeResilienceProperties;
+import com.example.rqchallenge.employees.config.EmployeeSnapshotProperties;
+import com.example.rqchallenge.employees.snapshot.EmployeeChangeFeed;
+import com.example.rqchallenge.employees.snapshot.EmployeeSnapshotLoader;
+import com.example.rqchallenge.employees.snapshot.EmployeeSnapshotStore;
+import com.example.rqchallenge.employees.snapshot.PendingEmployeeWrites;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mockito.Mockito;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * One replica wired as the application wires it, minus Spring: change feed, pending writes, loader, store and
+ * coherence, with messages handled on the caller's thread, peers pulled through a mock and nothing persisted.
+ */
+public class ReplicaFixture {
+    public static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    public final CacheManager cacheManager = new CaffeineCacheManager(CacheConfig.EMPLOYEES_CACHE, CacheConfig.EMPLOYEE_CACHE);
+    public final RestTemplate peerClient = Mockito.mock(RestTemplate.class);
+    public final PendingEmployeeWrites pendingWrites = new PendingEmployeeWrites();
+    public final EmployeeSnapshotLoader loader;
+    public final EmployeeSnapshotStore store;
+    public final ReplicaCoherence coherence;
+
+    public ReplicaFixture(EmployeeApiClient employeeApiClient, Optional<ReplicaTransport> transport, String url) {
+        EmployeeChangeFeed changeFeed = new EmployeeChangeFeed(16, 100, 64);
+        EmployeeSnapshotProperties snapshotProperties = new EmployeeSnapshotProperties();
+        snapshotProperties.setPersist(false);
+        loader = new EmployeeSnapshotLoader(employeeApiClient, changeFeed, pendingWrites,
+                new EmployeeResilienceProperties(), snapshotProperties);
+        store = new EmployeeSnapshotStore(cacheManager, loader, changeFeed);
+        coherence = new ReplicaCoherence(transport, store, loader, pendingWrites, cacheManager, OBJECT_MAPPER,
+                peerClient, Runnable::run, url, Duration.ofMinutes(1));
+        coherence.start();
+    }
+}
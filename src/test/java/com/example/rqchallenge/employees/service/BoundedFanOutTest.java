@@ -0,0 +1,65 @@
+package com.example.rqchallenge.employees.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedFanOutTest {
+
+    @Test
+    void testKeepsAtMostConcurrencyCallsInFlight() throws Exception {
+        // Arrange
+        List<Integer> items = IntStream.range(0, 50).boxed().collect(Collectors.toList());
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<CompletableFuture<String>> pending = new ArrayList<>();
+
+        // Act
+        CompletableFuture<List<String>> results = BoundedFanOut.map(items, 4, (index, item) -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            CompletableFuture<String> call = new CompletableFuture<>();
+            synchronized (pending) {
+                pending.add(call);
+            }
+            return call.thenApply(ignored -> {
+                inFlight.decrementAndGet();
+                return "item " + item;
+            });
+        });
+        for (int completed = 0; completed < items.size(); completed++) {
+            CompletableFuture<String> call;
+            synchronized (pending) {
+                call = pending.get(completed);
+            }
+            call.complete("done");
+        }
+
+        // Assert
+        List<String> values = results.get(5, TimeUnit.SECONDS);
+        assertEquals(4, maxInFlight.get());
+        assertEquals("item 0", values.get(0));
+        assertEquals("item 49", values.get(49));
+    }
+
+    @Test
+    void testSynchronousAndEmptyBatches() throws Exception {
+        // Arrange
+        List<Integer> items = IntStream.range(0, 100_000).boxed().collect(Collectors.toList());
+
+        // Act
+        List<Integer> results = BoundedFanOut.map(items, 2, (index, item) -> CompletableFuture.completedFuture(item * 2)).get();
+
+        // Assert
+        assertEquals(100_000, results.size());
+        assertEquals(199_998, results.get(99_999));
+        assertEquals(List.of(), BoundedFanOut.map(List.of(), 2, (index, item) -> CompletableFuture.completedFuture(item)).get());
+    }
+}
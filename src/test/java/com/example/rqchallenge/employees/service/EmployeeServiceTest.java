@@ -1,8 +1,14 @@
 package com.example.rqchallenge.employees.service;
+import com.example.rqchallenge.employees.dto.BatchItemResult;
+import com.example.rqchallenge.employees.dto.BatchResult;
 import com.example.rqchallenge.employees.dto.Employee;
 import com.example.rqchallenge.employees.dto.EmployeeResponse;
 import com.example.rqchallenge.employees.dto.EmployeesResponse;
 import com.example.rqchallenge.employees.exception.EmployeeNotFoundException;
+import com.example.rqchallenge.employees.exception.InvalidRequestException;
+import com.example.rqchallenge.employees.snapshot.EmployeeStats;
+import com.example.rqchallenge.employees.snapshot.SnapshotValue;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -12,11 +18,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
 
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -34,6 +46,9 @@ class EmployeeServiceTest {
     @Autowired
     private EmployeeService employeeService;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     @MockBean
     private RestTemplate restTemplate;
 
@@ -57,6 +72,12 @@ class EmployeeServiceTest {
         mockEmployeesResponse = EmployeesResponse.builder().status("success").data(employees).build();
     }
 
+    @AfterEach
+    public void clearCaches() {
+        // Caches outlive a single test in the shared context and the mocks are reset after each test
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
     @Test
     public void testGetEmployees() {
         // Arrange
@@ -69,6 +90,115 @@ class EmployeeServiceTest {
         assertEquals(18, employees.size());
     }
 
+    @Test
+    void testGetEmployeesServedFromCache() {
+        // Arrange
+        when(restTemplate.getForObject(DUMMY_API_URL + "/employees", EmployeesResponse.class)).thenReturn(mockEmployeesResponse);
+
+        // Act
+        employeeService.getEmployees();
+        employeeService.getEmployeeByName("Jim Halpert");
+        Integer highestSalary = employeeService.getHighestSalaryOfEmployees();
+
+        // Assert
+        assertEquals(650000, highestSalary);
+        Mockito.verify(restTemplate, Mockito.times(1)).getForObject(DUMMY_API_URL + "/employees", EmployeesResponse.class);
+    }
+
+    @Test
+    void testCreateEmployeeUpdatesCachedEmployees() {
+        // Arrange
+        Employee newEmployee = Employee.builder().employee_name("SpongeBob SquarePants")
+                .employee_age(30).employee_salary(700000).id(19L).build();
+        when(restTemplate.getForObject(DUMMY_API_URL + "/employees", EmployeesResponse.class)).thenReturn(mockEmployeesResponse);
+        when(restTemplate.postForObject(eq(DUMMY_API_URL + "/create"), any(), eq(EmployeeResponse.class)))
+                .thenReturn(EmployeeResponse.builder().status("success").data(newEmployee).build());
+        assertEquals(650000, employeeService.getHighestSalaryOfEmployees());
+
+        // Act
+        employeeService.createEmployee(Map.of("name", "SpongeBob SquarePants", "age", 30, "salary", 700000));
+
+        // Assert
+        assertEquals(19, employeeService.getEmployees().size());
+        assertEquals(700000, employeeService.getHighestSalaryOfEmployees());
+        Mockito.verify(restTemplate, Mockito.times(1)).getForObject(DUMMY_API_URL + "/employees", EmployeesResponse.class);
+    }
+
+    @Test
+    void testEmployeeStatsFollowCreatedEmployees() {
+        // Arrange
+        Employee newEmployee = Employee.builder().employee_name("SpongeBob SquarePants")
+                .employee_age(30).employee_salary(700000).id(19L).build();
+        when(restTemplate.getForObject(DUMMY_API_URL + "/employees", EmployeesResponse.class)).thenReturn(mockEmployeesResponse);
+        when(restTemplate.postForObject(eq(DUMMY_API_URL + "/create"), any(), eq(EmployeeResponse.class)))
+                .thenReturn(EmployeeResponse.builder().status("success").data(newEmployee).build());
+        EmployeeStats before = employeeService.getEmployeeStats(List.of(50.0), null, null, 1);
+
+        // Act
+        employeeService.createEmployee(Map.of("name", "SpongeBob SquarePants", "age", 30, "salary", 700000));
+        EmployeeStats after = employeeService.getEmployeeStats(List.of(50.0), null, null, 1);
+
+        // Assert
+        assertEquals(18, before.getCount());
+        assertEquals(650000, before.getMaxSalary());
+        assertEquals(90000, before.getSalaryPercentiles().get("p50"));
+        assertEquals(19, after.getCount());
+        assertEquals(700000, after.getMaxSalary());
+        assertEquals("SpongeBob SquarePants", after.getTopEarners().get(0).getEmployee_name());
+        assertThrows(InvalidRequestException.class, () -> employeeService.getEmployeeStats(List.of(0.0), null, null, null));
+        Mockito.verify(restTemplate, Mockito.times(1)).getForObject(DUMMY_API_URL + "/employees", EmployeesResponse.class);
+    }
+
+    @Test
+    void testGetEmployeesRetriesAfterTooManyRequests() {
+        // Arrange
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "0");
+        when(restTemplate.getForObject(DUMMY_API_URL + "/employees", EmployeesResponse.class))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers, new byte[0], null))
+                .thenReturn(mockEmployeesResponse);
+
+        // Act
+        List<Employee> employees = employeeService.getEmployees();
+
+        // Assert
+        assertEquals(18, employees.size());
+        Mockito.verify(restTemplate, Mockito.times(2)).getForObject(DUMMY_API_URL + "/employees", EmployeesResponse.class);
+    }
+
+    @Test
+    void testGetEmployeesServesLastKnownGoodWhenUpstreamFails() {
+        // Arrange
+        when(restTemplate.getForObject(DUMMY_API_URL + "/employees", EmployeesResponse.class))
+                .thenReturn(mockEmployeesResponse)
+                .thenThrow(new ResourceAccessException("Connection refused"));
+        employeeService.getEmployees();
+        clearCaches();
+
+        // Act
+        List<Employee> employees = employeeService.getEmployees();
+
+        // Assert
+        assertEquals(18, employees.size());
+    }
+
+    @Test
+    void testGetEmployeesAsyncMarksLastKnownGoodStale() {
+        // Arrange
+        when(restTemplate.getForObject(DUMMY_API_URL + "/employees", EmployeesResponse.class))
+                .thenReturn(mockEmployeesResponse)
+                .thenThrow(new ResourceAccessException("Connection refused"));
+        assertFalse(employeeService.getEmployeesAsync().join().getSnapshot().isStale());
+        clearCaches();
+
+        // Act
+        SnapshotValue<List<Employee>> employees = employeeService.getEmployeesAsync().join();
+
+        // Assert
+        assertTrue(employees.getSnapshot().isStale());
+        assertEquals(18, employees.getValue().size());
+    }
+
     @Test
     void testGetEmployeeByName() {
         // Test with Duplicate Jims
@@ -106,6 +236,23 @@ class EmployeeServiceTest {
         assertTrue(actualMessage.contains(expectedMessage));
     }
 
+    @Test
+    void testSearchEmployeesByName() {
+        // Arrange
+        when(restTemplate.getForObject(DUMMY_API_URL + "/employees", EmployeesResponse.class)).thenReturn(mockEmployeesResponse);
+
+        // Act
+        List<Employee> jims = employeeService.searchEmployeesByName("halp", null);
+        List<Employee> typo = employeeService.searchEmployeesByName("Samanta", 1);
+
+        // Assert
+        assertEquals(2, jims.size());
+        assertEquals("Jim Halpert", jims.get(0).getEmployee_name());
+        assertEquals("Samantha Williams", typo.get(0).getEmployee_name());
+        assertThrows(EmployeeNotFoundException.class, () -> employeeService.searchEmployeesByName("Dwight", null));
+        assertThrows(InvalidRequestException.class, () -> employeeService.searchEmployeesByName("Jim", 0));
+    }
+
     @Test
     void testGetEmployeeById() {
         // Arrange
@@ -124,6 +271,27 @@ class EmployeeServiceTest {
 
     }
 
+    @Test
+    void testGetEmployeesByIdsFetchesMissesOnceAndCachesThem() {
+        // Arrange
+        for (long id = 1; id <= 3; id++) {
+            Employee employee = Employee.builder().employee_name("Employee " + id).id(id).build();
+            when(restTemplate.getForObject(DUMMY_API_URL + "/employee/" + id, EmployeeResponse.class))
+                    .thenReturn(EmployeeResponse.builder().status("success").data(employee).build());
+        }
+
+        // Act
+        List<Employee> first = employeeService.getEmployeesByIds(List.of("3", "1", "4", "3"));
+        List<Employee> second = employeeService.getEmployeesByIds(List.of("1", "2", "3"));
+
+        // Assert
+        assertEquals(List.of(3L, 1L), first.stream().map(Employee::getId).collect(Collectors.toList()));
+        assertEquals(List.of(1L, 2L, 3L), second.stream().map(Employee::getId).collect(Collectors.toList()));
+        Mockito.verify(restTemplate, Mockito.times(1)).getForObject(DUMMY_API_URL + "/employee/1", EmployeeResponse.class);
+        Mockito.verify(restTemplate, Mockito.times(1)).getForObject(DUMMY_API_URL + "/employee/3", EmployeeResponse.class);
+        Mockito.verify(restTemplate, Mockito.never()).getForObject(DUMMY_API_URL + "/employees", EmployeesResponse.class);
+    }
+
     @Test
     void testGetHighestSalaryOfEmployees() {
         // Arrange
@@ -190,6 +358,29 @@ class EmployeeServiceTest {
         );
     }
 
+    @Test
+    void testDeleteEmployeesReportsEachItemAndPatchesSnapshot() {
+        // Arrange
+        when(restTemplate.getForObject(DUMMY_API_URL + "/employees", EmployeesResponse.class)).thenReturn(mockEmployeesResponse);
+        Mockito.doThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", HttpHeaders.EMPTY, null, null))
+                .when(restTemplate).delete(DUMMY_API_URL + "/delete/3");
+        assertEquals(18, employeeService.getEmployees().size());
+
+        // Act
+        BatchResult result = employeeService.deleteEmployees(List.of("1", "2", "3"));
+
+        // Assert
+        assertEquals(2, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertEquals(List.of(BatchItemResult.Status.SUCCEEDED, BatchItemResult.Status.SUCCEEDED, BatchItemResult.Status.FAILED),
+                result.getItems().stream().map(BatchItemResult::getStatus).collect(Collectors.toList()));
+        assertEquals("Pam Beesley", result.getItems().get(1).getEmployee().getEmployee_name());
+        assertEquals(16, employeeService.getEmployees().size());
+        assertThrows(InvalidRequestException.class, () -> employeeService.deleteEmployees(List.of()));
+        Mockito.verify(restTemplate, Mockito.times(1)).getForObject(DUMMY_API_URL + "/employees", EmployeesResponse.class);
+        Mockito.verify(restTemplate, Mockito.never()).getForObject(eq(DUMMY_API_URL + "/employee/1"), any());
+    }
+
     @Test
     void deleteEmployee() {
         // Arrange
@@ -0,0 +1,130 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.dto.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeAggregatesTest {
+
+    private static final EmployeeStatsQuery QUERY = EmployeeStatsQuery.builder()
+            .percentiles(List.of(25.0, 50.0, 90.0, 100.0))
+            .salaryBucketWidth(100)
+            .ageBucketWidth(10)
+            .topEarners(2)
+            .build();
+
+    private static Employee employee(long id, Integer salary, Integer age) {
+        return Employee.builder().id(id).employee_name("Employee " + id).employee_salary(salary).employee_age(age).build();
+    }
+
+    @Test
+    void testStats() {
+        // Arrange
+        List<Employee> employees = List.of(employee(1, 100, 25), employee(2, 300, 31), employee(3, 200, 38),
+                employee(4, 300, 52), employee(5, null, null));
+
+        EmployeeColumns columns = EmployeeColumns.of(employees);
+
+        // Act
+        EmployeeStats stats = EmployeeAggregates.of(columns).stats(QUERY, columns);
+
+        // Assert
+        assertEquals(5, stats.getCount());
+        assertEquals(4, stats.getSalaried());
+        assertEquals(100, stats.getMinSalary());
+        assertEquals(300, stats.getMaxSalary());
+        assertEquals(225.0, stats.getMeanSalary());
+        assertEquals(250.0, stats.getMedianSalary());
+        assertEquals(Map.of("p25", 100, "p50", 200, "p90", 300, "p100", 300), stats.getSalaryPercentiles());
+        assertEquals(List.of(new EmployeeStats.Bucket(100, 200, 1), new EmployeeStats.Bucket(200, 300, 1),
+                new EmployeeStats.Bucket(300, 400, 2)), stats.getSalaryHistogram());
+        assertEquals(List.of(new EmployeeStats.Bucket(20, 30, 1), new EmployeeStats.Bucket(30, 40, 2),
+                new EmployeeStats.Bucket(40, 50, 0), new EmployeeStats.Bucket(50, 60, 1)), stats.getAgeBuckets());
+        assertEquals(List.of(2L, 4L), ids(stats.getTopEarners()));
+    }
+
+    @Test
+    void testTopEarnersIncludeTies() {
+        // Arrange
+        EmployeeColumns columns = EmployeeColumns.of(List.of(employee(1, 500, 30), employee(2, 400, 30),
+                employee(3, 400, 30), employee(4, 400, 30), employee(5, 100, 30), employee(6, null, 30)));
+        EmployeeAggregates aggregates = EmployeeAggregates.of(columns);
+
+        // Act & Assert
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(columns.list(aggregates.topEarners(2))));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), ids(columns.list(aggregates.topEarners(10))));
+        assertEquals(0, aggregates.topEarners(0).length);
+    }
+
+    @Test
+    void testTopEarnersBreakTiesAsTheSelectorDoes() {
+        // Arrange
+        EmployeeColumns columns = EmployeeColumns.of(List.of(employee(9, 400, 30), employee(3, 200, 30),
+                employee(7, 400, 30), employee(1, 400, 30), employee(5, 200, 30)))
+                .with(List.of(employee(2, 400, 30)));
+        EmployeeAggregates aggregates = EmployeeAggregates.of(columns);
+
+        // Act
+        List<Long> stats = ids(columns.list(aggregates.topEarners(2)));
+        List<Long> selected = ids(columns.list(columns.rowsAt(TopEarnersSelector.select(columns.salaries(), 2))));
+
+        // Assert
+        assertEquals(List.of(9L, 7L, 1L, 2L), stats);
+        assertEquals(selected, stats);
+    }
+
+    @Test
+    void testIncrementalUpdatesMatchRebuild() {
+        // Arrange
+        Random random = new Random(11);
+        List<Employee> employees = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            employees.add(employee(id, random.nextInt(10) == 0 ? null : random.nextInt(2000), 18 + random.nextInt(50)));
+        }
+        List<Employee> hires = new ArrayList<>();
+        for (long id = 501; id <= 1000; id++) {
+            hires.add(employee(id, random.nextInt(2000), 18 + random.nextInt(50)));
+        }
+        EmployeeColumns base = EmployeeColumns.of(employees);
+        EmployeeColumns columns = base.with(hires);
+        EmployeeAggregates original = EmployeeAggregates.of(base);
+        EmployeeAggregates aggregates = original;
+        List<Integer> rows = new ArrayList<>();
+        for (int row = 0; row < base.size(); row++) {
+            rows.add(row);
+        }
+        int removedRow = -1;
+
+        // Act
+        for (int row = base.size(); row < columns.rowCount(); row++) {
+            if (random.nextBoolean()) {
+                rows.add(row);
+                aggregates = aggregates.withAdded(row, columns);
+            } else {
+                removedRow = rows.remove(random.nextInt(rows.size()));
+                aggregates = aggregates.withRemoved(removedRow, columns);
+            }
+        }
+
+        // Assert
+        List<Employee> remaining = new ArrayList<>();
+        rows.forEach(row -> remaining.add(columns.employee(row)));
+        EmployeeColumns rebuiltColumns = EmployeeColumns.of(remaining);
+        EmployeeStats rebuilt = EmployeeAggregates.of(rebuiltColumns).stats(QUERY, rebuiltColumns);
+        assertEquals(rebuilt, aggregates.stats(QUERY, columns));
+        assertEquals(500, original.size());
+        assertSame(aggregates, aggregates.withRemoved(removedRow, columns));
+    }
+
+    private static List<Long> ids(List<Employee> employees) {
+        List<Long> ids = new ArrayList<>();
+        employees.forEach(employee -> ids.add(employee.getId()));
+        return ids;
+    }
+}
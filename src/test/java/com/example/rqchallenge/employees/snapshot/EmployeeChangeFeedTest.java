@@ -0,0 +1,155 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.dto.Employee;
+import com.example.rqchallenge.employees.exception.InvalidRequestException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeChangeFeedTest {
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private static EmployeeSnapshot snapshot(long... ids) {
+        List<Employee> employees = new ArrayList<>();
+        for (long id : ids) {
+            employees.add(Employee.builder().id(id).employee_name("Employee " + id).employee_salary(100).build());
+        }
+        return EmployeeSnapshot.of(employees);
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testSubscriberResumesFromTheVersionItLastSaw() throws Exception {
+        // Arrange
+        EmployeeChangeFeed feed = new EmployeeChangeFeed(executor, Runnable::run, 8, 100, 8);
+        EmployeeSnapshot first = snapshot(1, 2);
+        EmployeeSnapshot second = snapshot(1, 2, 3);
+        EmployeeSnapshot third = snapshot(2, 3);
+        RecordingSubscriber live = new RecordingSubscriber();
+        RecordingSubscriber resumed = new RecordingSubscriber();
+        RecordingSubscriber unknown = new RecordingSubscriber();
+
+        // Act
+        feed.publish(first);
+        feed.subscribe(null, live);
+        feed.publish(second);
+        feed.publish(second.asStale());
+        feed.publish(third);
+        feed.subscribe("W/\"" + first.getVersionTag() + "\"", resumed);
+        feed.subscribe("abc", unknown);
+        drain();
+
+        // Assert
+        assertEquals(List.of(second.getVersionTag(), third.getVersionTag()), live.versions);
+        assertEquals(live.versions, resumed.versions);
+        assertEquals(List.of(3L),
+                resumed.changes.get(0).getAdded().stream().map(Employee::getId).collect(Collectors.toList()));
+        assertEquals(List.of(1L), resumed.changes.get(1).getRemoved());
+        assertEquals(List.of("reset " + third.getVersionTag()), unknown.versions);
+        assertThrows(InvalidRequestException.class, () -> feed.subscribe("not a version", live));
+    }
+
+    @Test
+    void testLargeChangesResetSubscribers() throws Exception {
+        // Arrange
+        EmployeeChangeFeed feed = new EmployeeChangeFeed(executor, Runnable::run, 8, 2, 8);
+        EmployeeSnapshot first = snapshot(1);
+        EmployeeSnapshot second = snapshot(1, 2, 3, 4);
+        RecordingSubscriber live = new RecordingSubscriber();
+        RecordingSubscriber resumed = new RecordingSubscriber();
+
+        // Act
+        feed.publish(first);
+        feed.subscribe(null, live);
+        feed.publish(second);
+        feed.subscribe(first.getVersionTag(), resumed);
+        drain();
+
+        // Assert
+        assertEquals(List.of("reset " + second.getVersionTag()), live.versions);
+        assertEquals(live.versions, resumed.versions);
+    }
+
+    @Test
+    void testSubscriberThatFallsBehindIsResetWithoutHoldingUpOthers() throws Exception {
+        // Arrange
+        ExecutorService delivery = Executors.newCachedThreadPool();
+        EmployeeChangeFeed feed = new EmployeeChangeFeed(executor, delivery, 8, 100, 2);
+        List<EmployeeSnapshot> snapshots = List.of(snapshot(1), snapshot(1, 2), snapshot(1, 2, 3), snapshot(1, 2, 3, 4),
+                snapshot(1, 2, 3, 4, 5), snapshot(1, 2, 3, 4, 5, 6));
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSubscriber fast = new RecordingSubscriber();
+        RecordingSubscriber slow = new RecordingSubscriber() {
+            @Override
+            public void changes(EmployeeChanges changes) {
+                super.changes(changes);
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        // Act
+        feed.publish(snapshots.get(0));
+        feed.subscribe(null, fast);
+        feed.subscribe(null, slow);
+        feed.publish(snapshots.get(1));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        // One at a time, so that only the slow subscriber's buffer overflows
+        for (int i = 2; i < snapshots.size(); i++) {
+            int delivered = i;
+            feed.publish(snapshots.get(i));
+            await().atMost(Duration.ofSeconds(5)).until(() -> fast.versions.size() == delivered);
+        }
+        release.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() -> slow.versions.size() == 3);
+        delivery.shutdownNow();
+
+        // Assert
+        assertEquals(snapshots.subList(1, snapshots.size()).stream()
+                .map(EmployeeSnapshot::getVersionTag)
+                .collect(Collectors.toList()), fast.versions);
+        assertEquals(List.of(snapshots.get(1).getVersionTag(), "reset " + snapshots.get(4).getVersionTag(),
+                snapshots.get(5).getVersionTag()), slow.versions);
+    }
+
+    private void drain() throws Exception {
+        executor.submit(() -> { }).get();
+    }
+
+    private static class RecordingSubscriber implements EmployeeChangeFeed.Subscriber {
+        final List<String> versions = new CopyOnWriteArrayList<>();
+        final List<EmployeeChanges> changes = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void changes(EmployeeChanges changes) {
+            this.versions.add(changes.getVersion());
+            this.changes.add(changes);
+        }
+
+        @Override
+        public void reset(String version) {
+            versions.add("reset " + version);
+        }
+    }
+}
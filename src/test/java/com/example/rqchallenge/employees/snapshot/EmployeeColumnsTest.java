@@ -0,0 +1,104 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.dto.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeColumnsTest {
+
+    private static final List<Employee> EMPLOYEES = List.of(
+            new Employee(1L, "Zoë Ångström", 100, 30, "https://example.com/a.png"),
+            new Employee(2L, null, null, null, null),
+            new Employee(null, "Bob", 300, 45, "https://example.com/a.png"),
+            new Employee(4L, "Bob", -5, 0, ""));
+
+    @Test
+    void testRowsReadBackAsTheEmployeesStored() {
+        // Act
+        EmployeeColumns columns = EmployeeColumns.of(EMPLOYEES);
+
+        // Assert
+        assertEquals(EMPLOYEES, columns.list());
+        assertArrayEquals(new int[]{100, 0, 300, -5}, columns.salaries());
+        assertFalse(columns.hasSalary(1));
+        assertEquals(0, columns.rowOf(1L));
+        assertEquals(3, columns.rowOf(4L));
+        assertEquals(-1, columns.rowOf(3L));
+        assertEquals(-1, columns.rowOf(null));
+        assertArrayEquals(new int[]{2, 3}, columns.rowsNamed("Bob"));
+        assertArrayEquals(new int[]{0}, columns.rowsNamed("Zoë Ångström"));
+        assertEquals(0, columns.rowsNamed("bob").length);
+    }
+
+    @Test
+    void testSortedRowsMatchTheSortComparator() {
+        // Arrange
+        EmployeeColumns columns = EmployeeColumns.of(EMPLOYEES);
+
+        for (String property : List.of("id", "-id", "employee_name", "-employee_name", "employee_salary",
+                "-employee_salary", "employee_age", "-employee_age")) {
+            // Act
+            EmployeeSort sort = EmployeeSort.parse(property);
+            List<Employee> sorted = columns.list(columns.sortedRows(sort));
+
+            // Assert
+            assertEquals(EMPLOYEES.stream().sorted(sort.comparator()).collect(Collectors.toList()), sorted, property);
+        }
+    }
+
+    @Test
+    void testPatchesKeepRowNumbers() {
+        // Arrange
+        EmployeeColumns columns = EmployeeColumns.of(EMPLOYEES);
+        Employee added = new Employee(5L, "Carol", 200, 28, "https://example.com/b.png");
+
+        // Act
+        EmployeeColumns updated = columns.with(List.of(added)).without(Set.of(1L, 4L));
+
+        // Assert
+        assertEquals(List.of(EMPLOYEES.get(1), EMPLOYEES.get(2), added), updated.list());
+        assertArrayEquals(new int[]{0, 300, 200}, updated.salaries());
+        assertEquals(4, updated.rowOf(5L));
+        assertEquals(added, updated.employee(updated.rowOf(5L)));
+        assertEquals(1, updated.rowOf(2L));
+        assertEquals(-1, updated.rowOf(1L));
+        assertTrue(updated.isRemoved(3));
+        assertEquals(4, updated.row(2));
+        assertArrayEquals(new int[]{2}, updated.rowsNamed("Bob"));
+        assertTrue(updated.sharesRowsWith(columns));
+        assertEquals(EMPLOYEES, columns.list());
+    }
+
+    @Test
+    void testPatchedColumnsEqualColumnsBuiltFromTheirEmployees() {
+        // Arrange
+        EmployeeColumns columns = EmployeeColumns.of(EMPLOYEES);
+        List<Employee> many = new ArrayList<>();
+        for (long id = 10; id < 10 + EmployeeColumns.MAX_OVERLAY; id++) {
+            many.add(new Employee(id, "Employee " + id, (int) id, 30, null));
+        }
+
+        // Act
+        EmployeeColumns patched = columns.with(List.of(new Employee(5L, "Carol", 200, 28, null))).without(Set.of(1L));
+        EmployeeColumns merged = patched.with(many);
+
+        // Assert
+        assertEquals(EmployeeColumns.of(patched.list()).contentHash(), patched.contentHash());
+        assertEquals(EmployeeColumns.of(List.of(patched.list().get(2), patched.list().get(0), patched.list().get(1),
+                patched.list().get(3))).contentHash(), patched.contentHash());
+        assertNotEquals(columns.contentHash(), patched.contentHash());
+        assertFalse(merged.sharesRowsWith(columns));
+        assertEquals(EmployeeColumns.of(merged.list()).contentHash(), merged.contentHash());
+        for (String property : List.of("employee_name", "-employee_salary")) {
+            EmployeeSort sort = EmployeeSort.parse(property);
+            assertEquals(patched.list().stream().sorted(sort.comparator()).collect(Collectors.toList()),
+                    patched.list(patched.sortedRows(sort)), property);
+        }
+    }
+}
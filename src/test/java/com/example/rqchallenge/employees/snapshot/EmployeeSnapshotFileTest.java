@@ -0,0 +1,91 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.dto.Employee;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeSnapshotFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWriteThenRead() throws IOException {
+        // Arrange
+        EmployeeSnapshotFile file = new EmployeeSnapshotFile(directory.resolve("nested").resolve("employees.snapshot"));
+        Instant fetchedAt = Instant.ofEpochMilli(1_700_000_000_000L);
+        List<Employee> employees = Arrays.asList(
+                Employee.builder().id(1L).employee_name("Zoë Ñúñez").employee_salary(120000).employee_age(41).profile_image("a.png").build(),
+                Employee.builder().id(2L).employee_name("No Salary").build());
+
+        // Act
+        file.write(EmployeeSnapshot.of(employees, fetchedAt));
+        EmployeeSnapshot read = file.read().orElseThrow();
+
+        // Assert
+        assertEquals(employees, read.getEmployees());
+        assertEquals(fetchedAt, read.getFetchedAt());
+        assertEquals(120000, read.getHighestSalary());
+        assertFalse(Files.exists(directory.resolve("nested").resolve("employees.snapshot.tmp")));
+    }
+
+    @Test
+    void testWriteThenReadPatchedSnapshot() throws IOException {
+        // Arrange
+        EmployeeSnapshotFile file = new EmployeeSnapshotFile(directory.resolve("employees.snapshot"));
+        EmployeeSnapshot patched = EmployeeSnapshot.of(List.of(
+                        Employee.builder().id(1L).employee_name("Zoë Ñúñez").employee_salary(120000).profile_image("a.png").build(),
+                        Employee.builder().id(2L).employee_name("Jim Halpert").employee_age(30).profile_image("a.png").build()))
+                .withEmployee(Employee.builder().id(3L).employee_name("Pam Beesly").profile_image("a.png").build())
+                .withoutEmployee(1L);
+
+        // Act
+        file.write(patched);
+        EmployeeSnapshot read = file.read().orElseThrow();
+
+        // Assert
+        assertEquals(patched.getEmployees(), read.getEmployees());
+        assertEquals(patched.getVersion(), read.getVersion());
+    }
+
+    @Test
+    void testReadMissingFile() throws IOException {
+        // Arrange
+        EmployeeSnapshotFile file = new EmployeeSnapshotFile(directory.resolve("employees.snapshot"));
+
+        // Act & Assert
+        assertTrue(file.read().isEmpty());
+    }
+
+    @Test
+    void testReadTruncatedFile() throws IOException {
+        // Arrange
+        Path path = directory.resolve("employees.snapshot");
+        EmployeeSnapshotFile file = new EmployeeSnapshotFile(path);
+        file.write(EmployeeSnapshot.of(List.of(Employee.builder().id(1L).employee_name("Jim Halpert").build())));
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 4));
+
+        // Act & Assert
+        assertThrows(IOException.class, file::read);
+    }
+
+    @Test
+    void testReadUnknownFormat() throws IOException {
+        // Arrange
+        Path path = directory.resolve("employees.snapshot");
+        Files.writeString(path, "not a snapshot at all");
+
+        // Act & Assert
+        assertThrows(IOException.class, new EmployeeSnapshotFile(path)::read);
+    }
+}
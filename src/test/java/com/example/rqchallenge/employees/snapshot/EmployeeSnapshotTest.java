@@ -0,0 +1,231 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.dto.Employee;
+import com.example.rqchallenge.employees.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeSnapshotTest {
+
+    private static List<Employee> employees(int... salaries) {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < salaries.length; i++) {
+            employees.add(Employee.builder()
+                    .id((long) i + 1)
+                    .employee_name("Employee " + (i + 1))
+                    .employee_salary(salaries[i])
+                    .employee_age(30)
+                    .build());
+        }
+        return employees;
+    }
+
+    @Test
+    void testIndexes() {
+        // Arrange
+        List<Employee> employees = employees(100, 300, 200);
+        employees.add(Employee.builder().id(4L).employee_name("Employee 1").employee_salary(50).build());
+
+        // Act
+        EmployeeSnapshot snapshot = EmployeeSnapshot.of(employees);
+
+        // Assert
+        assertEquals(4, snapshot.size());
+        assertEquals(300, snapshot.getHighestSalary());
+        assertEquals("Employee 3", snapshot.findById(3L).orElseThrow().getEmployee_name());
+        assertTrue(snapshot.findById(99L).isEmpty());
+        assertEquals(2, snapshot.findByName("Employee 1").size());
+        assertTrue(snapshot.findByName("employee 1").isEmpty());
+    }
+
+    @Test
+    void testTopTenIncludesTiesWithTenthSalary() {
+        // Arrange
+        EmployeeSnapshot snapshot = EmployeeSnapshot.of(employees(10, 90, 80, 70, 60, 50, 40, 30, 20, 20, 20, 100, 5));
+
+        // Act
+        List<String> topTen = snapshot.getTopTenHighestEarningEmployeeNames();
+
+        // Assert
+        assertEquals(List.of("Employee 12", "Employee 2", "Employee 3", "Employee 4", "Employee 5", "Employee 6",
+                "Employee 7", "Employee 8", "Employee 9", "Employee 10", "Employee 11"), topTen);
+    }
+
+    @Test
+    void testTopEarnersWithFewerEmployeesThanRequested() {
+        // Act
+        List<Long> ids = EmployeeSnapshot.of(employees(1, 3, 2)).topEarners(10).stream()
+                .map(Employee::getId).collect(Collectors.toList());
+
+        // Assert
+        assertEquals(List.of(2L, 3L, 1L), ids);
+    }
+
+    @Test
+    void testWithAndWithoutEmployee() {
+        // Arrange
+        EmployeeSnapshot snapshot = EmployeeSnapshot.of(employees(100, 200));
+        Employee added = Employee.builder().id(3L).employee_name("New Hire").employee_salary(500).build();
+
+        // Act
+        EmployeeSnapshot withAdded = snapshot.withEmployee(added);
+        EmployeeSnapshot withRemoved = withAdded.withoutEmployee(2L);
+
+        // Assert
+        assertEquals(2, snapshot.size());
+        assertEquals(500, withAdded.getHighestSalary());
+        assertEquals(List.of("New Hire", "Employee 1"), withRemoved.getTopTenHighestEarningEmployeeNames());
+        assertTrue(withRemoved.findById(2L).isEmpty());
+    }
+
+    @Test
+    void testPatchedTopTenMatchesRebuild() {
+        // Arrange
+        EmployeeSnapshot snapshot = EmployeeSnapshot.of(employees(70, 90, 10, 90, 50, 30, 80, 60, 20, 40, 90, 5));
+
+        // Act
+        EmployeeSnapshot patched = snapshot.withoutEmployees(List.of(2L, 4L))
+                .withEmployee(Employee.builder().id(13L).employee_name("New Hire").employee_salary(90).build())
+                .withEmployee(Employee.builder().id(14L).employee_name("No Salary").build())
+                .withoutEmployee(11L);
+        EmployeeSnapshot rebuilt = EmployeeSnapshot.of(new ArrayList<>(patched.getEmployees()));
+
+        // Assert
+        assertEquals(rebuilt.getHighestSalary(), patched.getHighestSalary());
+        assertEquals(90, patched.getHighestSalary());
+        assertEquals(rebuilt.getTopTenHighestEarningEmployeeNames(), patched.getTopTenHighestEarningEmployeeNames());
+        assertEquals("New Hire", patched.getTopTenHighestEarningEmployeeNames().get(0));
+    }
+
+    @Test
+    void testPatchedTopEarnersMatchRebuild() {
+        // Arrange
+        EmployeeSnapshot snapshot = EmployeeSnapshot.of(employees(70, 90, 10, 90, 50, 30, 80, 60, 20, 40, 90, 5));
+
+        // Act
+        EmployeeSnapshot patched = snapshot.withoutEmployee(2L)
+                .withEmployee(Employee.builder().id(13L).employee_name("New Hire").employee_salary(90).build())
+                .withEmployee(Employee.builder().id(14L).employee_name("No Salary").build());
+        EmployeeSnapshot rebuilt = EmployeeSnapshot.of(new ArrayList<>(patched.getEmployees()));
+
+        // Assert
+        for (int n = 1; n <= patched.size() + 1; n++) {
+            assertEquals(rebuilt.topEarners(n), patched.topEarners(n), "n=" + n);
+        }
+    }
+
+    @Test
+    void testVersionChangesOnlyWithTheEmployees() {
+        // Arrange
+        Instant fetchedAt = Instant.parse("2024-01-01T00:00:00Z");
+        EmployeeSnapshot snapshot = EmployeeSnapshot.of(employees(100, 200), fetchedAt);
+        List<Employee> renamed = employees(100, 200);
+        renamed.get(0).setEmployee_name("Employee 0");
+
+        // Act
+        EmployeeSnapshot refetched = EmployeeSnapshot.of(employees(100, 200), fetchedAt.plusSeconds(60)).unchangedSince(snapshot);
+        EmployeeSnapshot changed = EmployeeSnapshot.of(renamed, fetchedAt.plusSeconds(60)).unchangedSince(snapshot);
+        EmployeeSnapshot patched = snapshot.withEmployee(Employee.builder().id(3L).build()).withoutEmployee(3L);
+
+        // Assert
+        assertEquals(snapshot.getVersion(), refetched.getVersion());
+        assertEquals(fetchedAt, refetched.getModifiedAt());
+        assertEquals(snapshot.getVersion(), snapshot.asStale().getVersion());
+        assertNotEquals(snapshot.getVersion(), changed.getVersion());
+        assertEquals(fetchedAt.plusSeconds(60), changed.getModifiedAt());
+        assertNotEquals(snapshot.getVersion(), snapshot.withoutEmployee(1L).getVersion());
+        assertEquals(snapshot.getVersion(), patched.getVersion());
+        assertTrue(patched.getModifiedAt().isAfter(fetchedAt));
+    }
+
+    @Test
+    void testChangesSinceMatchEmployeesById() {
+        // Arrange
+        EmployeeSnapshot snapshot = EmployeeSnapshot.of(employees(100, 200, 300));
+        List<Employee> refetched = employees(100, 250, 300, 400);
+        refetched.remove(0);
+        refetched.add(Employee.builder().employee_name("No id").build());
+
+        // Act
+        EmployeeChanges changes = EmployeeSnapshot.of(refetched).changesSince(snapshot);
+
+        // Assert
+        assertEquals(snapshot.getVersionTag(), changes.getPreviousVersion());
+        assertEquals(List.of(4L), changes.getAdded().stream().map(Employee::getId).collect(Collectors.toList()));
+        assertEquals(List.of(refetched.get(0)), changes.getChanged());
+        assertEquals(List.of(1L), changes.getRemoved());
+        assertEquals(0, snapshot.withEmployee(Employee.builder().build()).changesSince(snapshot).count());
+    }
+
+    @Test
+    void testQueryFiltersSortsAndPagesWithCursor() {
+        // Arrange
+        EmployeeSnapshot snapshot = EmployeeSnapshot.of(employees(500, 100, 300, 300, 50, 400));
+        EmployeeQuery.EmployeeQueryBuilder query = EmployeeQuery.builder()
+                .minSalary(100)
+                .sort(EmployeeSort.parse("-employee_salary"))
+                .limit(2);
+
+        // Act
+        EmployeePage first = snapshot.query(query.build());
+        EmployeePage second = snapshot.withoutEmployee(3L).query(query.cursor(first.getNextCursor()).build());
+
+        // Assert
+        assertEquals(List.of(1L, 6L), ids(first));
+        assertEquals(5, first.getTotal());
+        assertEquals(List.of(4L, 2L), ids(second));
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void testQueryPagesInUpstreamOrder() {
+        // Arrange
+        EmployeeSnapshot snapshot = EmployeeSnapshot.of(employees(500, 100, 300, 300, 50));
+
+        // Act
+        EmployeePage byOffset = snapshot.query(EmployeeQuery.builder().offset(3).limit(5).build());
+        EmployeePage first = snapshot.query(EmployeeQuery.builder().limit(2).build());
+        EmployeePage second = snapshot.query(EmployeeQuery.builder().cursor(first.getNextCursor()).limit(2).build());
+
+        // Assert
+        assertEquals(List.of(4L, 5L), ids(byOffset));
+        assertNull(byOffset.getNextCursor());
+        assertEquals(List.of(3L, 4L), ids(second));
+        assertEquals(5, second.getTotal());
+    }
+
+    @Test
+    void testQueryRejectsCursorOfAnotherSort() {
+        // Arrange
+        EmployeeSnapshot snapshot = EmployeeSnapshot.of(employees(500, 100, 300));
+        String cursor = snapshot.query(EmployeeQuery.builder().sort(EmployeeSort.parse("id")).limit(1).build()).getNextCursor();
+
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> snapshot.query(EmployeeQuery.builder()
+                .sort(EmployeeSort.parse("employee_age")).cursor(cursor).build()));
+        assertThrows(InvalidRequestException.class, () -> EmployeeSort.parse("profile_image"));
+    }
+
+    @Test
+    void testQueryRejectsNegativeCursorPosition() {
+        // Arrange
+        EmployeeSnapshot snapshot = EmployeeSnapshot.of(employees(500, 100, 300));
+
+        // Act
+        InvalidRequestException rejected = assertThrows(InvalidRequestException.class,
+                () -> snapshot.query(EmployeeQuery.builder().cursor(EmployeeCursor.at(-1)).build()));
+
+        // Assert
+        assertEquals("Invalid cursor", rejected.getMessage());
+    }
+
+    private static List<Long> ids(EmployeePage page) {
+        return page.getEmployees().stream().map(Employee::getId).collect(Collectors.toList());
+    }
+}
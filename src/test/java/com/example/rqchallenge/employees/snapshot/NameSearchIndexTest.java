@@ -0,0 +1,120 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import com.example.rqchallenge.employees.dto.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameSearchIndexTest {
+
+    private static EmployeeColumns columns(String... names) {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            employees.add(Employee.builder().id((long) i + 1).employee_name(names[i]).build());
+        }
+        return EmployeeColumns.of(employees);
+    }
+
+    private static List<String> names(EmployeeColumns columns, int[] rows) {
+        return columns.list(rows).stream().map(Employee::getEmployee_name).collect(Collectors.toList());
+    }
+
+    @Test
+    void testRanksPrefixBeforeWordPrefixBeforeSubstring() {
+        // Arrange
+        EmployeeColumns columns = columns(
+                "Benjamin Franklin", "Jim Halpert", "Dejima Brown", "Jimmy Palmer", "Jim", "Dwight Schrute");
+        NameSearchIndex index = NameSearchIndex.of(columns);
+
+        // Act
+        List<String> jim = names(columns, index.search("JIM", 10, columns));
+        List<String> min = names(columns, index.search("min", 10, columns));
+
+        // Assert
+        assertEquals(List.of("Jim", "Jim Halpert", "Jimmy Palmer", "Dejima Brown"), jim);
+        assertEquals(List.of("Benjamin Franklin"), min);
+    }
+
+    @Test
+    void testWordPrefixAndAccents() {
+        // Arrange
+        EmployeeColumns columns = columns("Zoë Ñúñez", "Pam Beesley", "Angela Martin");
+        NameSearchIndex index = NameSearchIndex.of(columns);
+
+        // Act & Assert
+        assertEquals(List.of("Zoë Ñúñez"), names(columns, index.search("nun", 10, columns)));
+        assertEquals(List.of("Zoë Ñúñez"), names(columns, index.search("  zoe   NUNEZ ", 10, columns)));
+        assertEquals(List.of("Pam Beesley"), names(columns, index.search("bee", 10, columns)));
+    }
+
+    @Test
+    void testToleratesTypos() {
+        // Arrange
+        EmployeeColumns columns = columns("Jim Halpert", "Pam Beesley", "Dwight Schrute");
+        NameSearchIndex index = NameSearchIndex.of(columns);
+
+        // Act & Assert
+        assertEquals(List.of("Jim Halpert"), names(columns, index.search("halpret", 10, columns)));
+        assertEquals(List.of("Dwight Schrute"), names(columns, index.search("dwight shrute", 10, columns)));
+        assertEquals(List.of(), names(columns, index.search("michael", 10, columns)));
+    }
+
+    @Test
+    void testLimit() {
+        // Arrange
+        EmployeeColumns columns = columns("Ann A", "Ann B", "Ann C", "Joanna");
+        NameSearchIndex index = NameSearchIndex.of(columns);
+
+        // Act & Assert
+        assertEquals(List.of("Ann A", "Ann B"), names(columns, index.search("ann", 2, columns)));
+    }
+
+    @Test
+    void testServesPatchedColumns() {
+        // Arrange
+        EmployeeColumns columns = columns("Jim Halpert", "Pam Beesley");
+        NameSearchIndex index = NameSearchIndex.of(columns);
+
+        // Act
+        EmployeeColumns updated = columns
+                .with(List.of(Employee.builder().id(3L).employee_name("Jimmy Palmer").build()))
+                .without(Set.of(1L));
+
+        // Assert
+        assertEquals(List.of("Jimmy Palmer"), names(updated, index.search("jim", 10, updated)));
+        assertEquals(List.of("Jim Halpert"), names(columns, index.search("jim", 10, columns)));
+        EmployeeColumns emptied = updated.without(Set.of(3L));
+        assertEquals(List.of(), names(emptied, index.search("jim", 10, emptied)));
+    }
+
+    @Test
+    void testSnapshotRebuildsIndexWhenColumnsAreMerged() {
+        // Arrange
+        EmployeeSnapshot snapshot = EmployeeSnapshot.of(
+                List.of(Employee.builder().id(1L).employee_name("Jim Halpert").build()));
+        snapshot.search("jim", 10);
+        List<Employee> hires = new ArrayList<>();
+        for (int i = 0; i <= EmployeeColumns.MAX_OVERLAY; i++) {
+            hires.add(Employee.builder().id(100L + i).employee_name("Temp " + i).build());
+        }
+
+        // Act
+        EmployeeSnapshot patched = snapshot.withEmployees(hires);
+
+        // Assert
+        assertEquals("Temp 1024", patched.search("temp 1024", 1).get(0).getEmployee_name());
+        assertEquals(1L, patched.search("halpert", 10).get(0).getId());
+    }
+
+    @Test
+    void testBoundedDistance() {
+        assertEquals(0, NameSearchIndex.boundedDistance("jim", "jim", 2));
+        assertEquals(1, NameSearchIndex.boundedDistance("halpret", "halpert", 2));
+        assertEquals(2, NameSearchIndex.boundedDistance("kitten", "sitting", 1));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.rqchallenge.employees.snapshot;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopEarnersSelectorTest {
+
+    // The original approach: stable full sort, then extend the top k with ties of the k-th salary
+    private static int[] sortAndCut(int[] salaries, int k) {
+        List<Integer> positions = new ArrayList<>();
+        IntStream.range(0, salaries.length).forEach(positions::add);
+        positions.sort(Comparator.comparingInt((Integer position) -> salaries[position]).reversed());
+        int count = Math.min(k, positions.size());
+        while (count > 0 && count < positions.size()
+                && salaries[positions.get(count)] == salaries[positions.get(count - 1)]) {
+            count++;
+        }
+        return positions.subList(0, count).stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test
+    void testMatchesFullSortIncludingTies() {
+        // Arrange
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            int[] salaries = random.ints(random.nextInt(300), 0, 50).toArray();
+            int k = 1 + random.nextInt(20);
+            int[] original = salaries.clone();
+
+            // Act
+            int[] selected = TopEarnersSelector.select(salaries, k);
+
+            // Assert
+            assertArrayEquals(sortAndCut(salaries, k), selected);
+            assertArrayEquals(original, salaries);
+        }
+    }
+
+    @Test
+    void testExtremeSalariesDoNotOverflow() {
+        // Arrange
+        int[] salaries = {0, Integer.MAX_VALUE, Integer.MIN_VALUE, -1, 1};
+
+        // Act
+        int[] selected = TopEarnersSelector.select(salaries, 2);
+
+        // Assert
+        assertArrayEquals(new int[]{1, 4}, selected);
+    }
+
+    @Test
+    void testEmptyOrNonPositiveK() {
+        assertEquals(0, TopEarnersSelector.select(new int[0], 10).length);
+        assertEquals(0, TopEarnersSelector.select(new int[]{1, 2}, 0).length);
+    }
+}